@@ -89,37 +89,44 @@ public class DataInitializer implements CommandLineRunner {
         // 1. Nghỉ phép năm (Annual Leave)
         initializeLeaveType(
             "Nghỉ phép năm",
-            "Nghỉ phép có lương hàng năm, tính theo số tháng làm việc. Nhân viên được nghỉ 12 ngày/năm (pro-rated năm đầu)."
+            "Nghỉ phép có lương hàng năm, tính theo số tháng làm việc. Nhân viên được nghỉ 12 ngày/năm (pro-rated năm đầu).",
+            true
         );
         
         // 2. Nghỉ ốm (Sick Leave - BHXH)
         initializeLeaveType(
             "Nghỉ ốm (BHXH)",
-            "Nghỉ phép do ốm đau, có giấy tờ chứng minh, được thanh toán theo chế độ bảo hiểm xã hội."
+            "Nghỉ phép do ốm đau, có giấy tờ chứng minh, được thanh toán theo chế độ bảo hiểm xã hội.",
+            false
         );
         
         // 3. Nghỉ không lương (Unpaid Leave)
         initializeLeaveType(
             "Nghỉ không lương",
-            "Nghỉ phép không lương, áp dụng khi nhân viên cần nghỉ nhưng không còn ngày phép có lương."
+            "Nghỉ phép không lương, áp dụng khi nhân viên cần nghỉ nhưng không còn ngày phép có lương.",
+            false
         );
         
         // 4. Nghỉ phép đặc biệt (Special Leave)
         initializeLeaveType(
             "Nghỉ phép đặc biệt",
-            "Nghỉ phép đặc biệt cho các trường hợp như kết hôn, tang chế, nghỉ thai sản, v.v."
+            "Nghỉ phép đặc biệt cho các trường hợp như kết hôn, tang chế, nghỉ thai sản, v.v.",
+            false
         );
         
         // 5. Nghỉ làm thêm giờ (Compensatory Leave)
         initializeLeaveType(
             "Nghỉ bù (Làm bù)",
-            "Nghỉ phép để bù cho các ngày đã làm thêm giờ hoặc làm việc vào ngày lễ, cuối tuần."
+            "Nghỉ phép để bù cho các ngày đã làm thêm giờ hoặc làm việc vào ngày lễ, cuối tuần.",
+            false
         );
         
+        backfillAnnualLeaveFlags();
+
         log.info("Leave types initialization completed!");
     }
 
-    private void initializeLeaveType(String leaveName, String description) {
+    private void initializeLeaveType(String leaveName, String description, boolean annualLeave) {
         leaveTypeRepository.findByLeaveNameIgnoreCase(leaveName)
                 .ifPresentOrElse(
                     existing -> log.info("Leave type '{}' already exists, skipping...", leaveName),
@@ -128,6 +135,7 @@ public class DataInitializer implements CommandLineRunner {
                                 .leaveName(leaveName)
                                 .description(description)
                                 .status(LeaveType.Status.Active)
+                                .annualLeave(annualLeave)
                                 .createdAt(LocalDateTime.now())
                                 .updatedAt(LocalDateTime.now())
                                 .build();
@@ -137,6 +145,22 @@ public class DataInitializer implements CommandLineRunner {
                 );
     }
 
+    /**
+     * Leave types created before the annual leave flag existed: flag them by the old name rule once
+     */
+    private void backfillAnnualLeaveFlags() {
+        for (LeaveType leaveType : leaveTypeRepository.findAll()) {
+            if (leaveType.getAnnualLeave() != null) {
+                continue;
+            }
+            String name = leaveType.getLeaveName() != null ? leaveType.getLeaveName() : "";
+            leaveType.setAnnualLeave(name.contains("Nghỉ phép năm") || name.toLowerCase().contains("annual"));
+            leaveType.setUpdatedAt(LocalDateTime.now());
+            leaveTypeRepository.save(leaveType);
+            log.info("Leave type '{}' annual leave flag set to {}", name, leaveType.getAnnualLeave());
+        }
+    }
+
     private void initializeUserAndEmployee(
             String username,
             String email,
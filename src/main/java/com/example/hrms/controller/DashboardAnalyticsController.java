@@ -2,6 +2,9 @@ package com.example.hrms.controller;
 
 import com.example.hrms.dto.base.ApiResponse;
 import com.example.hrms.dto.response.*;
+import com.example.hrms.service.AttendanceRollupService;
+import com.example.hrms.service.DashboardCache;
+import com.example.hrms.service.DashboardOverviewService;
 import com.example.hrms.service.DashboardService;
 import com.example.hrms.service.LeaveService;
 import com.example.hrms.util.ResponseHelper;
@@ -12,6 +15,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -25,6 +29,25 @@ import java.util.List;
 public class DashboardAnalyticsController {
     private final DashboardService dashboardService;
     private final LeaveService leaveService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final DashboardCache dashboardCache;
+    private final DashboardOverviewService dashboardOverviewService;
+
+    /**
+     * All widgets of the dashboard page in one call; see DashboardOverviewService for timeouts
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<AdminDashboardResponse>> getDashboard(
+            @RequestParam(required = false) String range,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer departmentId,
+            @RequestParam(defaultValue = "5") @Min(1) Integer limit,
+            @RequestParam(defaultValue = "10") @Min(1) Integer alertLimit) {
+        AdminDashboardResponse response = dashboardOverviewService.getDashboard(range, startDate, endDate,
+                departmentId, Math.min(limit, 50), Math.min(alertLimit, 100));
+        return ResponseHelper.success("Dashboard fetched", response);
+    }
 
     @GetMapping("/summary")
     public ResponseEntity<ApiResponse<AdminDashboardSummaryResponse>> getAdminSummary() {
@@ -111,5 +134,26 @@ public class DashboardAnalyticsController {
         List<TopOvertimeEmployeeResponse> response = dashboardService.getTopOvertimeEmployees(resolvedLimit);
         return ResponseHelper.success("Top overtime employees fetched", response);
     }
-}
 
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<ApiResponse<Integer>> rebuildTimekeepingRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return ResponseHelper.badRequest("startDate cannot be after endDate");
+        }
+        int buckets = attendanceRollupService.rebuild(startDate, endDate);
+        return ResponseHelper.success("Timekeeping rollup rebuilt", buckets);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<DashboardCacheStatsResponse>> getCacheStats() {
+        return ResponseHelper.success("Dashboard cache stats fetched", dashboardCache.getStats());
+    }
+
+    @PostMapping("/cache/invalidate")
+    public ResponseEntity<ApiResponse<DashboardCacheStatsResponse>> invalidateCache() {
+        dashboardCache.invalidateAll();
+        return ResponseHelper.success("Dashboard cache cleared", dashboardCache.getStats());
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.hrms.controller;
 
 import com.example.hrms.dto.base.ApiResponse;
+import com.example.hrms.entity.OnLeave;
+import com.example.hrms.service.ReportExportService;
 import com.example.hrms.service.ReportService;
 import com.example.hrms.util.ResponseHelper;
+import com.example.hrms.util.TabularFileWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import com.example.hrms.dto.request.*;
 import com.example.hrms.dto.response.*;
@@ -15,6 +22,7 @@ import com.example.hrms.dto.response.*;
 @RequiredArgsConstructor
 public class ReportsController {
     private final ReportService reportService;
+    private final ReportExportService reportExportService;
 
     @GetMapping("/timekeeping-summary")
     public ResponseEntity<ApiResponse<List<TimekeepingSummaryResponse>>> getTimekeepingSummary(
@@ -25,6 +33,46 @@ public class ReportsController {
         return ResponseHelper.success("Timekeeping summary retrieved successfully", summary);
     }
 
+    /**
+     * Tải bảng tổng hợp chấm công theo tháng (CSV/XLSX)
+     * Query params:
+     *   - format: csv (mặc định) hoặc xlsx
+     *   - month, year, employeeId: như /timekeeping-summary
+     */
+    @GetMapping("/timekeeping-summary/export")
+    public ResponseEntity<StreamingResponseBody> exportTimekeepingSummary(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer employeeId) {
+        TabularFileWriter.Format fileFormat = TabularFileWriter.Format.parse(format);
+        YearMonth period = ReportService.resolveMonth(month, year);
+        return ResponseHelper.fileDownload(fileFormat, "timekeeping-summary",
+                out -> reportExportService.exportTimekeepingSummary(fileFormat, period.getMonthValue(),
+                        period.getYear(), employeeId, out));
+    }
+
+    /**
+     * Tải danh sách đơn nghỉ phép (CSV/XLSX), không phân trang
+     * Query params:
+     *   - format: csv (mặc định) hoặc xlsx
+     *   - status, employeeId, leaveTypeId (optional)
+     *   - startDate, endDate: đơn giao với khoảng ngày này (optional)
+     */
+    @GetMapping("/leave-requests/export")
+    public ResponseEntity<StreamingResponseBody> exportLeaveRequests(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) OnLeave.Status status,
+            @RequestParam(required = false) Integer employeeId,
+            @RequestParam(required = false) Integer leaveTypeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        TabularFileWriter.Format fileFormat = TabularFileWriter.Format.parse(format);
+        return ResponseHelper.fileDownload(fileFormat, "leave-requests",
+                out -> reportExportService.exportLeaveRequests(fileFormat, status, employeeId, leaveTypeId,
+                        startDate, endDate, out));
+    }
+
     @GetMapping("/leave-summary")
     public ResponseEntity<ApiResponse<LeaveSummaryResponse>> getLeaveSummary(
             @RequestParam(required = false) Integer month,
@@ -4,18 +4,29 @@ import com.example.hrms.dto.base.ApiResponse;
 import com.example.hrms.entity.User;
 import com.example.hrms.repository.EmployeeRepository;
 import com.example.hrms.repository.UserRepository;
+import com.example.hrms.security.PrincipalCache;
+import com.example.hrms.service.AvatarService;
+import com.example.hrms.service.EmployeeSearchIndex;
 import com.example.hrms.service.EmployeeService;
+import com.example.hrms.service.UsernameAllocator;
 import com.example.hrms.util.ResponseHelper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import com.example.hrms.dto.request.*;
 import com.example.hrms.dto.response.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -24,6 +35,10 @@ public class UserController {
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmployeeService employeeService;
+    private final PrincipalCache principalCache;
+    private final AvatarService avatarService;
+    private final EmployeeSearchIndex employeeSearchIndex;
+    private final UsernameAllocator usernameAllocator;
 
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -75,6 +90,7 @@ public class UserController {
         // Reset mustChangePassword flag when user changes password
         currentUser.setStatus(1);
         userRepository.save(currentUser);
+        principalCache.evict(currentUser.getEmail());
         
         MessageResponse message = MessageResponse.builder()
                 .message("Password changed successfully")
@@ -94,6 +110,7 @@ public class UserController {
                 return ResponseHelper.badRequest("Username already exists");
             }
             currentUser.setUsername(newUsername);
+            usernameAllocator.recordUsername(newUsername);
         }
         
         if (body.containsKey("email") && body.get("email") != null && !body.get("email").equals(currentUser.getEmail())) {
@@ -102,6 +119,7 @@ public class UserController {
             if (userRepository.findByEmail(newEmail).isPresent()) {
                 return ResponseHelper.badRequest("Email already exists");
             }
+            principalCache.evict(currentUser.getEmail(), newEmail);
             currentUser.setEmail(newEmail);
         }
         
@@ -120,6 +138,9 @@ public class UserController {
         }
         
         userRepository.save(currentUser);
+        if (currentUser.getEmployee() != null) {
+            employeeSearchIndex.refresh(currentUser.getEmployee().getEmployeeId());
+        }
         
         UserInfoResponse profileInfo = UserInfoResponse.builder()
                 .id(currentUser.getUserId())
@@ -143,18 +164,8 @@ public class UserController {
             return ResponseHelper.badRequest("Avatar base64 is required");
         }
         
-        // Optional: Validate base64 format (should start with data:image/...;base64,)
-        String base64Data = request.getAvatarBase64();
-        if (!base64Data.startsWith("data:image/") && !base64Data.contains("base64,")) {
-            // If it's just the base64 string without prefix, we can still accept it
-            // But if it has prefix, validate format
-            if (base64Data.contains("data:") && !base64Data.contains("base64,")) {
-                return ResponseHelper.badRequest("Invalid base64 format. Expected format: data:image/[type];base64,[data]");
-            }
-        }
-        
-        // Update avatar
-        currentUser.setAvatarData(base64Data);
+        // Decodes, validates and stores the image with a generated thumbnail
+        avatarService.store(currentUser.getUserId(), request.getAvatarBase64());
         currentUser.setUpdatedAt(java.time.LocalDateTime.now());
         userRepository.save(currentUser);
         
@@ -163,4 +174,37 @@ public class UserController {
                 .build();
         return ResponseHelper.success("Avatar updated successfully", message);
     }
+
+    /**
+     * Avatar image, streamed from the database. Supports If-None-Match; responses for the versioned URL (?v=etag)
+     * are cacheable long-term. Requires the bearer token like every other endpoint, so the frontend fetches
+     * it with the Authorization header instead of pointing an img tag at the URL.
+     */
+    @GetMapping("/{userId}/avatar")
+    public ResponseEntity<StreamingResponseBody> getAvatar(
+            @PathVariable Integer userId,
+            @RequestParam(defaultValue = "false") boolean thumbnail,
+            @RequestParam(name = "v", required = false) String version,
+            WebRequest webRequest) {
+        Optional<AvatarService.AvatarHead> head = avatarService.findHead(userId, thumbnail);
+        if (head.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = head.get().etag();
+        String entityTag = "\"" + etag + (thumbnail ? "-thumb" : "") + "\"";
+        CacheControl cacheControl = etag.equals(version)
+                ? CacheControl.maxAge(30, TimeUnit.DAYS).cachePrivate()
+                : CacheControl.noCache().cachePrivate();
+        if (webRequest.checkNotModified(entityTag)) {
+            return ResponseEntity.status(304).eTag(entityTag).cacheControl(cacheControl).build();
+        }
+
+        StreamingResponseBody body = out -> avatarService.writeTo(userId, head.get(), out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(head.get().contentType()))
+                .eTag(entityTag)
+                .cacheControl(cacheControl)
+                .body(body);
+    }
 }
@@ -4,8 +4,11 @@ import com.example.hrms.dto.base.PageResponse;
 import com.example.hrms.dto.request.CreateEmployeeRequest;
 import com.example.hrms.dto.request.UpdateEmployeeRequest;
 import com.example.hrms.dto.base.ApiResponse;
+import com.example.hrms.dto.response.EmployeeImportResponse;
 import com.example.hrms.dto.response.EmployeeResponse;
+import com.example.hrms.dto.response.EmployeeSearchResultResponse;
 import com.example.hrms.dto.response.MessageResponse;
+import com.example.hrms.service.EmployeeImportService;
 import com.example.hrms.service.EmployeeService;
 import com.example.hrms.util.ResponseHelper;
 import jakarta.validation.Valid;
@@ -13,14 +16,19 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin/employees")
 @RequiredArgsConstructor
 public class AdminEmployeeController {
     private final EmployeeService employeeService;
+    private final EmployeeImportService employeeImportService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<EmployeeResponse>> createEmployee(@Valid @RequestBody CreateEmployeeRequest request) {
@@ -28,6 +36,20 @@ public class AdminEmployeeController {
         return ResponseHelper.created("Employee created successfully", response);
     }
 
+    /**
+     * Bulk onboarding from a CSV or XLSX file with a header row.
+     * Columns: fullName, email (required); phone, position, departmentId or department, roleId or role,
+     * hireDate, dateOfBirth, gender, address, status, idCard, taxCode, bankAccount, bankName,
+     * emergencyContact, emergencyPhone, notes. Passwords are generated and sent by mail.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<EmployeeImportResponse>> importEmployees(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        EmployeeImportResponse response = employeeImportService.importEmployees(file, dryRun);
+        return ResponseHelper.success(dryRun ? "Employee import validated" : "Employee import completed", response);
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse<PageResponse<EmployeeResponse>>> getAllEmployees(
             @RequestParam(defaultValue = "0") int page,
@@ -49,6 +71,18 @@ public class AdminEmployeeController {
         return ResponseHelper.success("Employees retrieved successfully", pageResponse);
     }
 
+    /**
+     * Ranked name search: accent-insensitive, matches token prefixes and initials, returns the top results
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<EmployeeSearchResultResponse>>> searchEmployees(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Integer departmentId,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        List<EmployeeSearchResultResponse> results = employeeService.searchEmployeesRanked(keyword, departmentId, limit);
+        return ResponseHelper.success("Employees retrieved successfully", results);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<EmployeeResponse>> getEmployeeById(@PathVariable Integer id) {
         EmployeeResponse response = employeeService.getEmployeeById(id);
@@ -3,7 +3,10 @@ package com.example.hrms.controller.admin;
 import com.example.hrms.dto.base.ApiResponse;
 import com.example.hrms.dto.response.LeaveRequestResponse;
 import com.example.hrms.dto.base.PageResponse;
+import com.example.hrms.dto.request.BatchLeaveApproveRequest;
+import com.example.hrms.dto.request.BatchLeaveRejectRequest;
 import com.example.hrms.dto.request.RejectLeaveRequest;
+import com.example.hrms.dto.response.BatchLeaveActionResponse;
 import com.example.hrms.service.LeaveService;
 import com.example.hrms.util.ResponseHelper;
 import jakarta.validation.Valid;
@@ -79,4 +82,18 @@ public class AdminLeaveController {
         LeaveRequestResponse response = leaveService.rejectLeaveRequest(requestId, request);
         return ResponseHelper.success("Leave request rejected successfully", response);
     }
+
+    @PostMapping("/batch-approve")
+    public ResponseEntity<ApiResponse<BatchLeaveActionResponse>> batchApproveLeaveRequests(
+            @Valid @RequestBody BatchLeaveApproveRequest request) {
+        BatchLeaveActionResponse response = leaveService.batchApproveLeaveRequests(request);
+        return ResponseHelper.success("Batch approval completed. " + response.getSucceeded() + " requests approved", response);
+    }
+
+    @PostMapping("/batch-reject")
+    public ResponseEntity<ApiResponse<BatchLeaveActionResponse>> batchRejectLeaveRequests(
+            @Valid @RequestBody BatchLeaveRejectRequest request) {
+        BatchLeaveActionResponse response = leaveService.batchRejectLeaveRequests(request);
+        return ResponseHelper.success("Batch rejection completed. " + response.getSucceeded() + " requests rejected", response);
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.hrms.controller.admin;
+
+import com.example.hrms.dto.base.ApiResponse;
+import com.example.hrms.dto.response.MailOutboxStatsResponse;
+import com.example.hrms.service.MailOutboxDispatcher;
+import com.example.hrms.util.ResponseHelper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/mail-outbox")
+@RequiredArgsConstructor
+public class AdminMailOutboxController {
+    private final MailOutboxDispatcher mailOutboxDispatcher;
+
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<MailOutboxStatsResponse>> getStats() {
+        return ResponseHelper.success("Mail outbox stats fetched", mailOutboxDispatcher.getStats());
+    }
+}
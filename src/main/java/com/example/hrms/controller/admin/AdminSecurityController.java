@@ -0,0 +1,21 @@
+package com.example.hrms.controller.admin;
+
+import com.example.hrms.dto.base.ApiResponse;
+import com.example.hrms.dto.response.PasswordHashingStatsResponse;
+import com.example.hrms.security.PasswordHashingService;
+import com.example.hrms.util.ResponseHelper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/security")
+@RequiredArgsConstructor
+public class AdminSecurityController {
+    private final PasswordHashingService passwordHashingService;
+
+    @GetMapping("/password-hashing/stats")
+    public ResponseEntity<ApiResponse<PasswordHashingStatsResponse>> getPasswordHashingStats() {
+        return ResponseHelper.success("Password hashing stats fetched", passwordHashingService.getStats());
+    }
+}
@@ -7,12 +7,22 @@ import com.example.hrms.dto.request.BatchRejectRequest;
 import com.example.hrms.dto.request.MarkErrorRequest;
 import com.example.hrms.dto.base.PageResponse;
 import com.example.hrms.dto.request.RejectTimekeepingRequest;
+import com.example.hrms.dto.request.TimekeepingBulkJobRequest;
+import com.example.hrms.dto.response.MissingTimekeepingRunResponse;
+import com.example.hrms.dto.response.TimekeepingBackfillResponse;
+import com.example.hrms.dto.response.TimekeepingBatchResultResponse;
+import com.example.hrms.dto.response.TimekeepingBulkJobResponse;
 import com.example.hrms.dto.response.TimekeepingResponse;
 import com.example.hrms.dto.response.TimekeepingStatsResponse;
 import com.example.hrms.dto.request.UpdateTimekeepingRequest;
 import com.example.hrms.entity.Timekeeping;
+import com.example.hrms.schedule.TimekeepingScheduler;
+import com.example.hrms.service.MissingTimekeepingService;
+import com.example.hrms.service.ReportExportService;
+import com.example.hrms.service.TimekeepingBulkJobService;
 import com.example.hrms.service.TimekeepingService;
 import com.example.hrms.util.ResponseHelper;
+import com.example.hrms.util.TabularFileWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -21,6 +31,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -30,6 +41,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AdminTimekeepingController {
     private final TimekeepingService timekeepingService;
+    private final TimekeepingScheduler timekeepingScheduler;
+    private final MissingTimekeepingService missingTimekeepingService;
+    private final TimekeepingBulkJobService timekeepingBulkJobService;
+    private final ReportExportService reportExportService;
 
     @GetMapping("/pending")
     public ResponseEntity<ApiResponse<PageResponse<TimekeepingResponse>>> getPendingTimekeeping(
@@ -75,6 +90,26 @@ public class AdminTimekeepingController {
         return ResponseHelper.success("Timekeeping records retrieved successfully", pageResponse);
     }
 
+    /**
+     * Tải toàn bộ bản ghi chấm công theo bộ lọc của /all (CSV/XLSX), không phân trang
+     * Query params:
+     *   - format: csv (mặc định) hoặc xlsx
+     *   - status, workDate, employeeId, startDate, endDate: như /all
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTimekeeping(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Timekeeping.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate workDate,
+            @RequestParam(required = false) Integer employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        TabularFileWriter.Format fileFormat = TabularFileWriter.Format.parse(format);
+        return ResponseHelper.fileDownload(fileFormat, "timekeeping",
+                out -> reportExportService.exportTimekeeping(fileFormat, status, workDate, employeeId,
+                        startDate, endDate, out));
+    }
+
     @GetMapping("/{recordId}")
     public ResponseEntity<ApiResponse<TimekeepingResponse>> getTimekeepingById(@PathVariable Integer recordId) {
         TimekeepingResponse response = timekeepingService.getTimekeepingById(recordId);
@@ -89,11 +124,15 @@ public class AdminTimekeepingController {
         return ResponseHelper.success("Timekeeping record approved successfully", response);
     }
 
+    /**
+     * @param includeRecords false to return only counts and failures (recommended for large batches)
+     */
     @PostMapping("/batch-approve")
-    public ResponseEntity<ApiResponse<List<TimekeepingResponse>>> batchApproveTimekeeping(
-            @Valid @RequestBody BatchApproveRequest request) {
-        List<TimekeepingResponse> responses = timekeepingService.batchApproveTimekeeping(request);
-        return ResponseHelper.success("Batch approval completed. " + responses.size() + " records approved", responses);
+    public ResponseEntity<ApiResponse<TimekeepingBatchResultResponse>> batchApproveTimekeeping(
+            @Valid @RequestBody BatchApproveRequest request,
+            @RequestParam(defaultValue = "true") boolean includeRecords) {
+        TimekeepingBatchResultResponse response = timekeepingService.batchApproveTimekeeping(request, includeRecords);
+        return ResponseHelper.success("Batch approval completed. " + response.getSucceeded() + " records approved", response);
     }
 
     @PutMapping("/reject/{recordId}")
@@ -105,10 +144,11 @@ public class AdminTimekeepingController {
     }
 
     @PostMapping("/batch-reject")
-    public ResponseEntity<ApiResponse<List<TimekeepingResponse>>> batchRejectTimekeeping(
-            @Valid @RequestBody BatchRejectRequest request) {
-        List<TimekeepingResponse> responses = timekeepingService.batchRejectTimekeeping(request);
-        return ResponseHelper.success("Batch rejection completed. " + responses.size() + " records rejected", responses);
+    public ResponseEntity<ApiResponse<TimekeepingBatchResultResponse>> batchRejectTimekeeping(
+            @Valid @RequestBody BatchRejectRequest request,
+            @RequestParam(defaultValue = "true") boolean includeRecords) {
+        TimekeepingBatchResultResponse response = timekeepingService.batchRejectTimekeeping(request, includeRecords);
+        return ResponseHelper.success("Batch rejection completed. " + response.getSucceeded() + " records rejected", response);
     }
 
     @PutMapping("/{recordId}")
@@ -152,5 +192,46 @@ public class AdminTimekeepingController {
         TimekeepingStatsResponse stats = timekeepingService.getTimekeepingStats();
         return ResponseHelper.success("Timekeeping statistics retrieved successfully", stats);
     }
-}
 
+    @GetMapping("/scheduler/last-run")
+    public ResponseEntity<ApiResponse<MissingTimekeepingRunResponse>> getLastSchedulerRun() {
+        MissingTimekeepingRunResponse summary = timekeepingScheduler.getLastRun();
+        if (summary == null) {
+            return ResponseHelper.success("Missing timekeeping job has not run since startup", null);
+        }
+        return ResponseHelper.success("Last missing timekeeping run retrieved successfully", summary);
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<ApiResponse<TimekeepingBackfillResponse>> backfillMissingTimekeeping(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        TimekeepingBackfillResponse response = missingTimekeepingService.backfill(startDate, endDate);
+        return ResponseHelper.success("Backfill completed. " + response.getRowsCreated() + " records created", response);
+    }
+
+    /**
+     * Approve or reject every Pending record matching the filter in the background; poll the job for progress
+     */
+    @PostMapping("/bulk-jobs")
+    public ResponseEntity<ApiResponse<TimekeepingBulkJobResponse>> startBulkJob(
+            @Valid @RequestBody TimekeepingBulkJobRequest request) {
+        TimekeepingBulkJobResponse response = timekeepingBulkJobService.submit(request);
+        return ResponseHelper.success("Bulk job queued", response);
+    }
+
+    @GetMapping("/bulk-jobs")
+    public ResponseEntity<ApiResponse<List<TimekeepingBulkJobResponse>>> getBulkJobs() {
+        return ResponseHelper.success("Bulk jobs retrieved successfully", timekeepingBulkJobService.getJobs());
+    }
+
+    @GetMapping("/bulk-jobs/{jobId}")
+    public ResponseEntity<ApiResponse<TimekeepingBulkJobResponse>> getBulkJob(@PathVariable String jobId) {
+        return ResponseHelper.success("Bulk job retrieved successfully", timekeepingBulkJobService.getJob(jobId));
+    }
+
+    @PostMapping("/bulk-jobs/{jobId}/cancel")
+    public ResponseEntity<ApiResponse<TimekeepingBulkJobResponse>> cancelBulkJob(@PathVariable String jobId) {
+        return ResponseHelper.success("Bulk job cancellation requested", timekeepingBulkJobService.cancel(jobId));
+    }
+}
@@ -17,5 +17,5 @@ public class UserInfo {
     private String address;
     private String role;
     private Integer status;
-    private String avatarBase64;
+    private String avatarUrl;
 }
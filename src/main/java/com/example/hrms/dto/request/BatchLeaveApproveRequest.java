@@ -0,0 +1,15 @@
+package com.example.hrms.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for batch approving leave requests
+ */
+@Data
+public class BatchLeaveApproveRequest {
+    @NotEmpty(message = "Request IDs list cannot be empty")
+    private List<Integer> requestIds;
+}
@@ -0,0 +1,19 @@
+package com.example.hrms.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for batch rejecting leave requests with one shared reason
+ */
+@Data
+public class BatchLeaveRejectRequest {
+    @NotEmpty(message = "Request IDs list cannot be empty")
+    private List<Integer> requestIds;
+
+    @NotBlank(message = "Rejection reason is required")
+    private String rejectionReason;
+}
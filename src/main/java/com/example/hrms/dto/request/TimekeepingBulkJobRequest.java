@@ -0,0 +1,25 @@
+package com.example.hrms.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for approving or rejecting every Pending timekeeping record matching a filter
+ */
+@Data
+public class TimekeepingBulkJobRequest {
+    @NotNull(message = "Action is required")
+    private Action action;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer departmentId;
+    private Integer employeeId;
+    private Boolean hasReason; // true: only records with an employee reason, false: only without
+
+    private String note; // Admin note when approving, reason when rejecting
+
+    public enum Action { APPROVE, REJECT }
+}
@@ -0,0 +1,40 @@
+package com.example.hrms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Every admin dashboard widget in one payload.
+ * A section that failed or did not finish in time is null and listed in unavailableSections.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminDashboardResponse {
+    private AdminDashboardSummaryResponse summary;
+    private TimekeepingOverviewResponse timekeepingOverview;
+    private TimekeepingOvertimeTrendResponse overtimeTrend;
+    private LeaveOverviewResponse leaveOverview;
+    private ScheduleCoverageResponse scheduleCoverage;
+    private EmployeeAlertResponse employeeAlerts;
+    private List<TimekeepingResponse> pendingTimekeeping;
+    private List<LeaveRequestResponse> pendingLeave;
+    private List<HolidayResponse> upcomingHolidays;
+    private List<TopOvertimeEmployeeResponse> topOvertimeEmployees;
+    private List<UnavailableSection> unavailableSections;
+    private Long durationMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UnavailableSection {
+        private String section;
+        private String reason; // TIMEOUT, BUSY or the error message
+    }
+}
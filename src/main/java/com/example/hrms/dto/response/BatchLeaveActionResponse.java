@@ -0,0 +1,31 @@
+package com.example.hrms.dto.response;
+
+import com.example.hrms.entity.OnLeave;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchLeaveActionResponse {
+    private Integer requested;
+    private Integer succeeded;
+    private Integer failed;
+    private List<ItemResult> results; // same order as the submitted IDs
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ItemResult {
+        private Integer requestId;
+        private Boolean success;
+        private OnLeave.Status status; // status after the operation, null if the request does not exist
+        private String message;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.hrms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardCacheStatsResponse {
+    private Integer entries;
+    private Integer maxSize;
+    private Long evictions;
+    private Long invalidations;
+    private List<SectionStats> sections;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SectionStats {
+        private String section;
+        private Long ttlSeconds;
+        private Long hits;
+        private Long coalesced; // served by a load already in progress
+        private Long misses;
+        private Double hitRatio;
+    }
+}
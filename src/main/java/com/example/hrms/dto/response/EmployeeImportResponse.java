@@ -0,0 +1,34 @@
+package com.example.hrms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmployeeImportResponse {
+    private Boolean dryRun;
+    private Integer totalRows;
+    private Integer created; // rows that passed validation when dryRun=true
+    private Integer failed;
+    private Long durationMs;
+    private List<RowResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowResult {
+        private Integer rowNumber;
+        private String email;
+        private Boolean success;
+        private Integer employeeId;
+        private String username;
+        private String message;
+    }
+}
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+// Field order defines the all-args constructor used by the EmployeeRepository listing projections
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,24 @@
+package com.example.hrms.dto.response;
+
+import com.example.hrms.entity.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmployeeSearchResultResponse {
+    private Integer employeeId;
+    private String fullName;
+    private String email;
+    private String phone;
+    private String position;
+    private Integer departmentId;
+    private String departmentName;
+    private String username;
+    private Employee.EmploymentStatus status;
+    private Integer score; // higher is more relevant; null when served without the search index
+}
@@ -17,6 +17,7 @@ public class LeaveTypeResponse {
     private String leaveName;
     private String description;
     private LeaveType.Status status;
+    private Boolean annualLeave;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,30 @@
+package com.example.hrms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MailOutboxStatsResponse {
+    // Rows currently in the outbox per status
+    private Long pending;
+    private Long sending;
+    private Long sent;
+    private Long dead;
+
+    // Counters of this process since startup
+    private Long sentSinceStart;
+    private Long failedAttemptsSinceStart;
+    private Long deadLetteredSinceStart;
+    private Long batchesSinceStart;
+    // Rows whose claim expired while their batch was still sending
+    private Long lostClaimsSinceStart;
+    private LocalDateTime lastBatchAt;
+    private String lastError;
+}
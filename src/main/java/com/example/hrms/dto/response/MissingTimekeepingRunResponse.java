@@ -0,0 +1,29 @@
+package com.example.hrms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Summary of one run of the missing-timekeeping generator
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MissingTimekeepingRunResponse {
+    private LocalDate workDate;
+    private String result;          // COMPLETED, SKIPPED, FAILED
+    private String message;
+    private Integer candidates;      // Active employees without a record for the date
+    private Integer rowsCreated;
+    private Integer chunks;
+    private Integer failedChunks;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+}
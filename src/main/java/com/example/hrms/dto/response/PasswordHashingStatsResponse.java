@@ -0,0 +1,32 @@
+package com.example.hrms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PasswordHashingStatsResponse {
+    // Configuration and current state: hashes running now, callers waiting for a permit
+    private Integer strength;
+    private Integer parallelism;
+    private Integer activeThreads;
+    private Integer queued;
+
+    // Counters of this process since startup; times are per operation
+    private Long encodes;
+    private Double encodeAvgMs;
+    private Double encodeMaxMs;
+    private Long matches;
+    private Double matchesAvgMs;
+    private Double matchesMaxMs;
+    private Double queueWaitAvgMs;
+    private Double queueWaitMaxMs;
+    private Long rejected;
+    private Long timedOut;
+    // Hashes replaced with the configured cost on login
+    private Long upgraded;
+}
@@ -0,0 +1,26 @@
+package com.example.hrms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of regenerating missing timekeeping records over a date range
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimekeepingBackfillResponse {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer daysProcessed;   // Working days that were generated
+    private Integer daysSkipped;     // Weekends and holidays
+    private Integer rowsCreated;
+    private Long durationMs;
+    private List<MissingTimekeepingRunResponse> days;
+}
@@ -0,0 +1,29 @@
+package com.example.hrms.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimekeepingBatchResultResponse {
+    private Integer requested;
+    private Integer succeeded;
+    private Integer failed;
+    private List<FailedItem> failures;
+    private List<TimekeepingResponse> records; // null when includeRecords=false
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class FailedItem {
+        private Integer recordId;
+        private String reason;
+    }
+}
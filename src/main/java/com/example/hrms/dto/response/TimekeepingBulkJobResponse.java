@@ -0,0 +1,33 @@
+package com.example.hrms.dto.response;
+
+import com.example.hrms.dto.request.TimekeepingBulkJobRequest;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an approve/reject-all-by-filter job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimekeepingBulkJobResponse {
+    private String jobId;
+    private TimekeepingBulkJobRequest.Action action;
+    private String status;          // QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    private String message;
+    private Long totalMatched;      // Matching Pending records when the job started
+    private Long processed;
+    private Long succeeded;
+    private Long failed;
+    private Integer chunks;
+    private Integer progressPercent;
+    private String requestedBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
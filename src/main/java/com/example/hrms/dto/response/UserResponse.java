@@ -20,7 +20,7 @@ public class UserResponse {
     private String roleName;
     private Integer employeeId;
     private Boolean active;
-    private String avatarBase64;
+    private String avatarUrl;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,49 @@
+package com.example.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Annual leave ledger per employee and calendar year, in working days.
+ * Seeded from the employee's leave history on first access, then kept up to date by
+ * LeaveBalanceService whenever an annual leave request is created, changed, approved, rejected or deleted.
+ */
+@Entity
+@Table(name = "leave_balance",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"employee_id", "balance_year"}, name = "uk_leave_balance_employee_year"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveBalance {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Integer employeeId;
+
+    @Column(name = "balance_year", nullable = false)
+    private Integer year;
+
+    // Pro-rated from the hire date in the first year
+    private Integer entitlementDays;
+
+    // Approved annual leave
+    private Integer usedDays;
+
+    // Annual leave still waiting for approval
+    private Integer pendingDays;
+
+    private LocalDateTime updatedAt;
+
+    public int getRemainingDays() {
+        return Math.max(0, entitlementDays - usedDays);
+    }
+
+    // What a new request may still take: pending requests are reserved as well
+    public int getAvailableDays() {
+        return Math.max(0, entitlementDays - usedDays - pendingDays);
+    }
+}
@@ -24,8 +24,16 @@ public class LeaveType {
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    // Counts against the yearly annual leave entitlement tracked in leave_balance
+    @Column(name = "is_annual_leave")
+    private Boolean annualLeave;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    public boolean isAnnual() {
+        return Boolean.TRUE.equals(annualLeave);
+    }
+
     public enum Status { Active, Inactive }
 }
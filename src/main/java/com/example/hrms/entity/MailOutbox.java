@@ -0,0 +1,58 @@
+package com.example.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbound mail waiting to be sent by MailOutboxDispatcher.
+ * Rows are written in the caller's transaction, so a mail is queued only if the change that triggered it commits.
+ */
+@Entity
+@Table(name = "mail_outbox",
+       indexes = {
+           @Index(name = "idx_mail_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+           @Index(name = "idx_mail_outbox_claim_token", columnList = "claim_token")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MailOutbox {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    // Cleared once sent or dead-lettered: account mails carry a temporary password
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Set by the dispatcher that claimed the row; a Sending row past its lease is reclaimed
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    private LocalDateTime claimedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    public enum Status { Pending, Sending, Sent, Dead }
+}
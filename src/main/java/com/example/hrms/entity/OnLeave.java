@@ -8,7 +8,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "onleave")
+@Table(name = "onleave", indexes = {
+        // Overlap checks per employee
+        @Index(name = "idx_onleave_employee_dates", columnList = "employee_id, from_date, to_date, status"),
+        // "Who is on leave on date D" lookups
+        @Index(name = "idx_onleave_status_dates", columnList = "status, from_date, to_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
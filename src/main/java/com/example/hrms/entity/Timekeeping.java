@@ -10,7 +10,10 @@ import java.time.LocalTime;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "timekeeping", uniqueConstraints = {@UniqueConstraint(columnNames = {"employee_id","work_date"}, name = "uk_employee_workdate")})
+@Table(name = "timekeeping",
+       uniqueConstraints = {@UniqueConstraint(columnNames = {"employee_id","work_date"}, name = "uk_employee_workdate")},
+       // Status counts and pending lists
+       indexes = {@Index(name = "idx_timekeeping_status_workdate", columnList = "status, work_date")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
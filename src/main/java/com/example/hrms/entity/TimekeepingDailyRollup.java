@@ -0,0 +1,49 @@
+package com.example.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated timekeeping counters per work date and department.
+ * Maintained incrementally by AttendanceRollupService whenever a timekeeping row changes.
+ */
+@Entity
+@Table(name = "timekeeping_daily_rollup",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"work_date", "department_id"}, name = "uk_rollup_workdate_department"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimekeepingDailyRollup {
+    // Bucket used for employees without a department
+    public static final int NO_DEPARTMENT = 0;
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "work_date", nullable = false)
+    private LocalDate workDate;
+
+    @Column(name = "department_id", nullable = false)
+    private Integer departmentId;
+
+    private Long pendingCount;
+    private Long confirmedCount;
+    private Long errorCount;
+
+    // Records with a check-in time, regardless of status
+    private Long checkInCount;
+
+    // Hour totals only include Confirmed records
+    @Column(precision = 12, scale = 2)
+    private BigDecimal confirmedWorkHours;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal confirmedOvertimeHours;
+
+    private LocalDateTime updatedAt;
+}
@@ -42,10 +42,6 @@ public class User {
     @Column(name = "reset_token_expiry")
     private LocalDateTime resetTokenExpiry;
 
-    @Lob
-    @Column(name = "avatar_data", columnDefinition = "LONGTEXT")
-    private String avatarData;
-
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
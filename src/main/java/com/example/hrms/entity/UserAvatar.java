@@ -0,0 +1,43 @@
+package com.example.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avatar image of a user, stored as raw bytes outside the user row
+ * so that user lookups never load image data.
+ */
+@Entity
+@Table(name = "user_avatar")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserAvatar {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer avatarId;
+
+    @Column(name = "user_id", unique = true, nullable = false)
+    private Integer userId;
+
+    private String contentType;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] data;
+
+    private String thumbnailContentType;
+
+    @Lob
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private byte[] thumbnailData;
+
+    // Content hash of the original image, used as ETag and as the URL version
+    @Column(length = 64, nullable = false)
+    private String etag;
+
+    private Integer sizeBytes;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.example.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Highest numeric suffix handed out per generated username base, e.g. "cong.hvt" -> 3 after
+ * cong.hvt, cong.hvt1, cong.hvt2 and cong.hvt3. Suffix 0 stands for the bare base, -1 for none yet.
+ * Maintained by UsernameAllocator only.
+ */
+@Entity
+@Table(name = "username_sequence")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsernameSequence {
+    @Id
+    @Column(length = 191)
+    private String prefix;
+
+    @Column(name = "last_suffix", nullable = false)
+    private Integer lastSuffix;
+
+    private LocalDateTime updatedAt;
+}
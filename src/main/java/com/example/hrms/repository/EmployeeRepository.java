@@ -1,5 +1,6 @@
 package com.example.hrms.repository;
 
+import com.example.hrms.dto.response.EmployeeResponse;
 import com.example.hrms.entity.Employee;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -7,6 +8,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
@@ -15,19 +18,90 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
     
     java.util.List<Employee> findByStatus(Employee.EmploymentStatus status);
     
-    @Query("SELECT e FROM Employee e " +
+    String EMPLOYEE_RESPONSE_SELECT = "SELECT new com.example.hrms.dto.response.EmployeeResponse(" +
+           "e.employeeId, e.fullName, e.email, e.position, d.departmentId, d.departmentName, " +
+           "e.hireDate, e.dateOfBirth, e.gender, e.address, e.phone, e.status, " +
+           "u.userId, u.username, r.roleKey, e.createdAt, e.updatedAt, " +
+           "e.idCard, e.taxCode, e.bankAccount, e.bankName, e.emergencyContact, e.emergencyPhone, e.notes) ";
+
+    String EMPLOYEE_RESPONSE_FROM = "FROM Employee e " +
            "LEFT JOIN e.department d " +
-           "WHERE (:search IS NULL OR :search = '' OR " +
+           "LEFT JOIN User u ON u.employee = e " +
+           "LEFT JOIN u.role r ";
+
+    String ADMIN_SEARCH_WHERE = "WHERE (:search IS NULL OR :search = '' OR " +
            "LOWER(e.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(e.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(e.phone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "e.employeeId IN (SELECT u.employee.employeeId FROM User u WHERE " +
            "LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')))) " +
-           "AND (:departmentId IS NULL OR d.departmentId = :departmentId)")
-    Page<Employee> searchEmployees(@Param("search") String search, 
-                                    @Param("departmentId") Integer departmentId, 
-                                    Pageable pageable);
+           "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "AND (:departmentId IS NULL OR d.departmentId = :departmentId)";
+
+    String DEPARTMENTS_SEARCH_WHERE = "WHERE d.departmentId IN :departmentIds " +
+           "AND (:search IS NULL OR :search = '' OR " +
+           "LOWER(e.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.phone) LIKE LOWER(CONCAT('%', :search, '%')))";
+
+    /**
+     * Employee listing for admins as one projection query (employee + department + user account),
+     * so a page costs the same two queries (content + count) whatever its size.
+     */
+    @Query(value = EMPLOYEE_RESPONSE_SELECT + EMPLOYEE_RESPONSE_FROM + ADMIN_SEARCH_WHERE,
+           countQuery = "SELECT COUNT(e) " + EMPLOYEE_RESPONSE_FROM + ADMIN_SEARCH_WHERE)
+    Page<EmployeeResponse> searchEmployeeResponses(@Param("search") String search,
+                                                   @Param("departmentId") Integer departmentId,
+                                                   Pageable pageable);
+
+    /**
+     * Employees of the given departments as one projection query, ordered by name
+     */
+    @Query(value = EMPLOYEE_RESPONSE_SELECT + EMPLOYEE_RESPONSE_FROM + DEPARTMENTS_SEARCH_WHERE + " ORDER BY e.fullName ASC",
+           countQuery = "SELECT COUNT(e) " + EMPLOYEE_RESPONSE_FROM + DEPARTMENTS_SEARCH_WHERE)
+    Page<EmployeeResponse> findEmployeeResponsesByDepartments(@Param("departmentIds") Collection<Integer> departmentIds,
+                                                              @Param("search") String search,
+                                                              Pageable pageable);
+    
+    /**
+     * Employee listing rows for a set of IDs (used with EmployeeSearchIndex results)
+     */
+    @Query(EMPLOYEE_RESPONSE_SELECT + EMPLOYEE_RESPONSE_FROM + "WHERE e.employeeId IN :ids")
+    java.util.List<EmployeeResponse> findEmployeeResponsesByIds(@Param("ids") Collection<Integer> ids);
+
+    @Query(value = EMPLOYEE_RESPONSE_SELECT + EMPLOYEE_RESPONSE_FROM + "WHERE e.employeeId IN :ids",
+           countQuery = "SELECT COUNT(e) FROM Employee e WHERE e.employeeId IN :ids")
+    Page<EmployeeResponse> findEmployeeResponsesByIds(@Param("ids") Collection<Integer> ids, Pageable pageable);
+
+    String SEARCH_DOCUMENT_SELECT = "SELECT e.employeeId, e.fullName, e.email, e.phone, d.departmentId, u.username, u.email " +
+           "FROM Employee e " +
+           "LEFT JOIN e.department d " +
+           "LEFT JOIN User u ON u.employee = e ";
+
+    /**
+     * Source rows for EmployeeSearchIndex.
+     * Row layout: [employeeId, fullName, email, phone, departmentId, username, userEmail]
+     */
+    @Query(SEARCH_DOCUMENT_SELECT)
+    java.util.List<Object[]> findSearchDocuments();
+
+    /**
+     * Same row layout as {@link #findSearchDocuments()}
+     */
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE e.employeeId IN :ids")
+    java.util.List<Object[]> findSearchDocumentsByIds(@Param("ids") Collection<Integer> ids);
+    
+    /**
+     * Employees with the given status, hired on or before the date, that have no timekeeping row for it (anti-join).
+     * Row layout: [employeeId, departmentId]
+     */
+    @Query("SELECT e.employeeId, d.departmentId FROM Employee e " +
+           "LEFT JOIN e.department d " +
+           "WHERE e.status = :status " +
+           "AND (e.hireDate IS NULL OR e.hireDate <= :workDate) " +
+           "AND NOT EXISTS (SELECT 1 FROM Timekeeping t WHERE t.employee = e AND t.workDate = :workDate) " +
+           "ORDER BY e.employeeId ASC")
+    java.util.List<Object[]> findIdsWithoutTimekeeping(@Param("status") Employee.EmploymentStatus status,
+                                                       @Param("workDate") LocalDate workDate);
     
     @Query("SELECT e FROM Employee e " +
            "LEFT JOIN FETCH e.department " +
@@ -35,6 +109,18 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
     Optional<Employee> findByIdWithDepartment(@Param("id") Integer id);
     
     Optional<Employee> findByPhone(String phone);
+
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    java.util.List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT e.phone FROM Employee e WHERE e.phone IN :phones")
+    java.util.List<String> findExistingPhones(@Param("phones") Collection<String> phones);
+
+    /**
+     * Row layout: [employeeId, email]
+     */
+    @Query("SELECT e.employeeId, e.email FROM Employee e WHERE e.email IN :emails")
+    java.util.List<Object[]> findIdsByEmails(@Param("emails") Collection<String> emails);
     
     @Query("SELECT e FROM Employee e " +
            "WHERE e.department = :department " +
@@ -52,21 +138,4 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
     Page<Employee> findByDepartmentAndSearch(@Param("department") com.example.hrms.entity.Department department,
                                               @Param("search") String search,
                                               Pageable pageable);
-    
-    @Query("SELECT e FROM Employee e " +
-           "WHERE e.department IN :departments " +
-           "AND (:search IS NULL OR :search = '' OR " +
-           "LOWER(e.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(e.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(e.phone) LIKE LOWER(CONCAT('%', :search, '%'))) " +
-           "ORDER BY e.fullName ASC")
-    Page<Employee> findByDepartmentsAndSearch(@Param("departments") java.util.List<com.example.hrms.entity.Department> departments,
-                                               @Param("search") String search,
-                                               Pageable pageable);
-    
-    @Query("SELECT e FROM Employee e " +
-           "WHERE e.department IN :departments " +
-           "ORDER BY e.fullName ASC")
-    Page<Employee> findByDepartments(@Param("departments") java.util.List<com.example.hrms.entity.Department> departments,
-                                     Pageable pageable);
 }
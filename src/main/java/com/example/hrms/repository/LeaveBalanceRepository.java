@@ -0,0 +1,44 @@
+package com.example.hrms.repository;
+
+import com.example.hrms.entity.LeaveBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Integer> {
+
+    Optional<LeaveBalance> findByEmployeeIdAndYear(Integer employeeId, Integer year);
+
+    // Create the ledger row unless another transaction already did; returns 0 when it existed
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO leave_balance " +
+           "(employee_id, balance_year, entitlement_days, used_days, pending_days, updated_at) " +
+           "VALUES (:employeeId, :year, :entitlement, :used, :pending, NOW())",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("employeeId") Integer employeeId,
+                       @Param("year") Integer year,
+                       @Param("entitlement") int entitlement,
+                       @Param("used") int used,
+                       @Param("pending") int pending);
+
+    // Atomically add deltas to an existing ledger row; returns 0 when the row does not exist yet
+    @Modifying
+    @Query("UPDATE LeaveBalance b SET b.usedDays = b.usedDays + :used, " +
+           "b.pendingDays = b.pendingDays + :pending, b.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE b.employeeId = :employeeId AND b.year = :year")
+    int addDelta(@Param("employeeId") Integer employeeId,
+                 @Param("year") Integer year,
+                 @Param("used") int used,
+                 @Param("pending") int pending);
+
+    @Modifying
+    @Query("DELETE FROM LeaveBalance b WHERE b.employeeId = :employeeId")
+    int deleteByEmployeeId(@Param("employeeId") Integer employeeId);
+
+    @Modifying
+    @Query("DELETE FROM LeaveBalance b WHERE b.year = :year")
+    int deleteByYear(@Param("year") Integer year);
+}
@@ -0,0 +1,95 @@
+package com.example.hrms.repository;
+
+import com.example.hrms.entity.MailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    @Query("SELECT m.id FROM MailOutbox m WHERE m.status = :status AND m.nextAttemptAt <= :now " +
+           "ORDER BY m.nextAttemptAt, m.id")
+    List<Long> findDueIds(@Param("status") MailOutbox.Status status,
+                          @Param("now") LocalDateTime now,
+                          Pageable pageable);
+
+    /**
+     * Claim rows for one dispatcher; rows another dispatcher claimed first are skipped
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MailOutbox m SET m.status = :claimedStatus, m.claimToken = :claimToken, m.claimedAt = :now " +
+           "WHERE m.id IN :ids AND m.status = :expectedStatus")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("expectedStatus") MailOutbox.Status expectedStatus,
+              @Param("claimedStatus") MailOutbox.Status claimedStatus,
+              @Param("claimToken") String claimToken,
+              @Param("now") LocalDateTime now);
+
+    List<MailOutbox> findByClaimTokenAndStatusOrderById(String claimToken, MailOutbox.Status status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MailOutbox m SET m.status = :sentStatus, m.sentAt = :now, m.body = NULL, " +
+           "m.attempts = COALESCE(m.attempts, 0) + 1, m.claimToken = NULL, m.lastError = NULL " +
+           "WHERE m.id IN :ids AND m.claimToken = :claimToken")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("claimToken") String claimToken,
+                 @Param("sentStatus") MailOutbox.Status sentStatus,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MailOutbox m SET m.status = :newStatus, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, " +
+           "m.lastError = :lastError, m.claimToken = NULL " +
+           "WHERE m.id = :id AND m.claimToken = :claimToken")
+    int markFailed(@Param("id") Long id,
+                   @Param("claimToken") String claimToken,
+                   @Param("newStatus") MailOutbox.Status newStatus,
+                   @Param("attempts") Integer attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    /**
+     * Final failure: the body is cleared like on markSent, since account mails carry a temporary password
+     * and reset mails a reset token. A dead mail is not resent; the user triggers it again instead.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MailOutbox m SET m.status = :deadStatus, m.attempts = :attempts, m.nextAttemptAt = NULL, " +
+           "m.lastError = :lastError, m.body = NULL, m.claimToken = NULL " +
+           "WHERE m.id = :id AND m.claimToken = :claimToken")
+    int markDead(@Param("id") Long id,
+                 @Param("claimToken") String claimToken,
+                 @Param("deadStatus") MailOutbox.Status deadStatus,
+                 @Param("attempts") Integer attempts,
+                 @Param("lastError") String lastError);
+
+    /**
+     * Return rows whose dispatcher died mid-send to the queue
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MailOutbox m SET m.status = :pendingStatus, m.claimToken = NULL " +
+           "WHERE m.status = :sendingStatus AND m.claimedAt < :cutoff")
+    int releaseExpiredClaims(@Param("sendingStatus") MailOutbox.Status sendingStatus,
+                             @Param("pendingStatus") MailOutbox.Status pendingStatus,
+                             @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Drop sent rows and dead rows whose last attempt is older than the cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM MailOutbox m WHERE (m.status = :sentStatus AND m.sentAt < :cutoff) " +
+           "OR (m.status = :deadStatus AND m.claimedAt < :cutoff)")
+    int deleteFinishedBefore(@Param("sentStatus") MailOutbox.Status sentStatus,
+                             @Param("deadStatus") MailOutbox.Status deadStatus,
+                             @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Row layout: [0] status, [1] row count
+     */
+    @Query("SELECT m.status, COUNT(m) FROM MailOutbox m GROUP BY m.status")
+    List<Object[]> countGroupByStatus();
+}
@@ -2,14 +2,21 @@ package com.example.hrms.repository;
 
 import com.example.hrms.entity.Employee;
 import com.example.hrms.entity.OnLeave;
+import com.example.hrms.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OnLeaveRepository extends JpaRepository<OnLeave, Integer> {
     
@@ -39,6 +46,13 @@ public interface OnLeaveRepository extends JpaRepository<OnLeave, Integer> {
     List<OnLeave> findByStatus(OnLeave.Status status);
     
     long countByStatus(OnLeave.Status status);
+
+    /**
+     * Request count per status in one round trip.
+     * Row layout: [status, count]
+     */
+    @Query("SELECT o.status, COUNT(o) FROM OnLeave o GROUP BY o.status")
+    List<Object[]> countGroupByStatus();
     
     @Query("SELECT o FROM OnLeave o WHERE " +
            "(:status IS NULL OR o.status = :status) " +
@@ -55,6 +69,33 @@ public interface OnLeaveRepository extends JpaRepository<OnLeave, Integer> {
             @Param("endDate") LocalDate endDate,
             Pageable pageable);
     
+    /**
+     * Export rows with the findAllWithFilters filters and order, read through a forward-only cursor
+     * (see TimekeepingRepository.streamForExport). Must be consumed and closed inside a transaction.
+     * Row layout: [requestId, employeeId, fullName, email, departmentName, leaveName, fromDate, toDate,
+     *              status, reason, processedDate, adminUsername, createdAt]
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT o.requestId, e.employeeId, e.fullName, e.email, d.departmentName, lt.leaveName, " +
+           "o.fromDate, o.toDate, o.status, o.reason, o.processedDate, a.username, o.createdAt " +
+           "FROM OnLeave o LEFT JOIN o.employee e LEFT JOIN e.department d " +
+           "LEFT JOIN o.leaveType lt LEFT JOIN o.admin a WHERE " +
+           "(:status IS NULL OR o.status = :status) " +
+           "AND (:employeeId IS NULL OR e.employeeId = :employeeId) " +
+           "AND (:leaveTypeId IS NULL OR lt.leavetypeId = :leaveTypeId) " +
+           "AND (:startDate IS NULL OR o.toDate >= :startDate) " +
+           "AND (:endDate IS NULL OR o.fromDate <= :endDate) " +
+           "ORDER BY o.createdAt DESC")
+    Stream<Object[]> streamForExport(
+            @Param("status") OnLeave.Status status,
+            @Param("employeeId") Integer employeeId,
+            @Param("leaveTypeId") Integer leaveTypeId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
     @Query("SELECT o FROM OnLeave o WHERE " +
            "o.fromDate <= :endDate AND o.toDate >= :startDate " +
            "AND (:status IS NULL OR o.status = :status)")
@@ -62,4 +103,86 @@ public interface OnLeaveRepository extends JpaRepository<OnLeave, Integer> {
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
             @Param("status") OnLeave.Status status);
+
+    /**
+     * Pending and approved annual leave of an employee overlapping a period (leave balance seeding).
+     * Row layout: [fromDate, toDate, status]
+     */
+    @Query("SELECT o.fromDate, o.toDate, o.status FROM OnLeave o " +
+           "WHERE o.employee.employeeId = :employeeId " +
+           "AND o.leaveType.annualLeave = true " +
+           "AND o.status <> :excludedStatus " +
+           "AND o.fromDate <= :endDate AND o.toDate >= :startDate")
+    List<Object[]> findAnnualLeavePeriods(
+            @Param("employeeId") Integer employeeId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("excludedStatus") OnLeave.Status excludedStatus);
+
+    /**
+     * Requests of an employee overlapping [fromDate, toDate], ignoring one status (usually Rejected)
+     * and optionally one request (the one being updated)
+     */
+    @Query("SELECT o FROM OnLeave o WHERE o.employee.employeeId = :employeeId " +
+           "AND o.fromDate <= :toDate AND o.toDate >= :fromDate " +
+           "AND o.status <> :excludedStatus " +
+           "AND (:excludedRequestId IS NULL OR o.requestId <> :excludedRequestId) " +
+           "ORDER BY o.fromDate")
+    List<OnLeave> findOverlapping(
+            @Param("employeeId") Integer employeeId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("excludedStatus") OnLeave.Status excludedStatus,
+            @Param("excludedRequestId") Integer excludedRequestId);
+
+    @Query("SELECT COUNT(o) > 0 FROM OnLeave o WHERE o.employee.employeeId = :employeeId " +
+           "AND o.status = :status AND o.fromDate <= :date AND o.toDate >= :date")
+    boolean existsCovering(@Param("employeeId") Integer employeeId,
+                           @Param("date") LocalDate date,
+                           @Param("status") OnLeave.Status status);
+
+    @Query("SELECT DISTINCT o.employee.employeeId FROM OnLeave o " +
+           "WHERE o.status = :status AND o.fromDate <= :date AND o.toDate >= :date")
+    List<Integer> findEmployeeIdsCovering(@Param("date") LocalDate date,
+                                          @Param("status") OnLeave.Status status);
+
+    /**
+     * Leave periods of one status overlapping a range, optionally for a single employee.
+     * Row layout: [employeeId, fromDate, toDate]
+     */
+    @Query("SELECT o.employee.employeeId, o.fromDate, o.toDate FROM OnLeave o " +
+           "WHERE o.status = :status AND o.fromDate <= :endDate AND o.toDate >= :startDate " +
+           "AND (:employeeId IS NULL OR o.employee.employeeId = :employeeId)")
+    List<Object[]> findPeriodsInRange(@Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate,
+                                      @Param("status") OnLeave.Status status,
+                                      @Param("employeeId") Integer employeeId);
+
+    @Query("SELECT o FROM OnLeave o LEFT JOIN FETCH o.employee LEFT JOIN FETCH o.leaveType " +
+           "WHERE o.requestId IN :requestIds")
+    List<OnLeave> findAllWithEmployeeByIdIn(@Param("requestIds") Collection<Integer> requestIds);
+
+    // Move requests still in expectedStatus to newStatus; returns the number of rows changed
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OnLeave o SET o.status = :newStatus, o.admin = :admin, " +
+           "o.processedDate = :processedAt, o.updatedAt = :processedAt " +
+           "WHERE o.requestId IN :requestIds AND o.status = :expectedStatus")
+    int updateStatus(@Param("requestIds") Collection<Integer> requestIds,
+                     @Param("expectedStatus") OnLeave.Status expectedStatus,
+                     @Param("newStatus") OnLeave.Status newStatus,
+                     @Param("admin") User admin,
+                     @Param("processedAt") LocalDateTime processedAt);
+
+    // Same as updateStatus, appending the rejection reason the way rejectLeaveRequest stores it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OnLeave o SET o.status = :newStatus, o.admin = :admin, " +
+           "o.processedDate = :processedAt, o.updatedAt = :processedAt, " +
+           "o.reason = CONCAT(COALESCE(o.reason, ''), ' [REJECTION_REASON: ', :rejectionReason, ']') " +
+           "WHERE o.requestId IN :requestIds AND o.status = :expectedStatus")
+    int updateStatusWithReason(@Param("requestIds") Collection<Integer> requestIds,
+                               @Param("expectedStatus") OnLeave.Status expectedStatus,
+                               @Param("newStatus") OnLeave.Status newStatus,
+                               @Param("admin") User admin,
+                               @Param("processedAt") LocalDateTime processedAt,
+                               @Param("rejectionReason") String rejectionReason);
 }
@@ -0,0 +1,95 @@
+package com.example.hrms.repository;
+
+import com.example.hrms.entity.TimekeepingDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TimekeepingDailyRollupRepository extends JpaRepository<TimekeepingDailyRollup, Integer> {
+
+    // Atomically add deltas to a (work_date, department_id) bucket, creating it when missing
+    @Modifying
+    @Query(value = "INSERT INTO timekeeping_daily_rollup " +
+           "(work_date, department_id, pending_count, confirmed_count, error_count, check_in_count, " +
+           "confirmed_work_hours, confirmed_overtime_hours, updated_at) " +
+           "VALUES (:workDate, :departmentId, :pending, :confirmed, :error, :checkIns, :workHours, :overtimeHours, NOW()) " +
+           "ON DUPLICATE KEY UPDATE " +
+           "pending_count = pending_count + VALUES(pending_count), " +
+           "confirmed_count = confirmed_count + VALUES(confirmed_count), " +
+           "error_count = error_count + VALUES(error_count), " +
+           "check_in_count = check_in_count + VALUES(check_in_count), " +
+           "confirmed_work_hours = confirmed_work_hours + VALUES(confirmed_work_hours), " +
+           "confirmed_overtime_hours = confirmed_overtime_hours + VALUES(confirmed_overtime_hours), " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    int addDelta(@Param("workDate") LocalDate workDate,
+                 @Param("departmentId") Integer departmentId,
+                 @Param("pending") long pending,
+                 @Param("confirmed") long confirmed,
+                 @Param("error") long error,
+                 @Param("checkIns") long checkIns,
+                 @Param("workHours") BigDecimal workHours,
+                 @Param("overtimeHours") BigDecimal overtimeHours);
+
+    // Recompute buckets from the raw timekeeping table (initial load / repair)
+    @Modifying
+    @Query(value = "INSERT INTO timekeeping_daily_rollup " +
+           "(work_date, department_id, pending_count, confirmed_count, error_count, check_in_count, " +
+           "confirmed_work_hours, confirmed_overtime_hours, updated_at) " +
+           "SELECT t.work_date, COALESCE(e.department_id, 0), " +
+           "SUM(CASE WHEN t.status = 'Pending' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.status = 'Confirmed' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.status = 'Error' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.check_in IS NOT NULL THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(CASE WHEN t.status = 'Confirmed' THEN t.work_hours END), 0), " +
+           "COALESCE(SUM(CASE WHEN t.status = 'Confirmed' THEN t.overtime_hours END), 0), " +
+           "NOW() " +
+           "FROM timekeeping t LEFT JOIN employee e ON e.employee_id = t.employee_id " +
+           "WHERE t.work_date BETWEEN :startDate AND :endDate " +
+           "GROUP BY t.work_date, COALESCE(e.department_id, 0)",
+           nativeQuery = true)
+    int rebuildRange(@Param("startDate") LocalDate startDate,
+                     @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM TimekeepingDailyRollup r WHERE r.workDate BETWEEN :startDate AND :endDate")
+    int deleteByWorkDateBetween(@Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate);
+
+    /**
+     * Status counts per day across all departments.
+     * Row layout: [workDate, pending, confirmed, error]
+     */
+    @Query("SELECT r.workDate, SUM(r.pendingCount), SUM(r.confirmedCount), SUM(r.errorCount) " +
+           "FROM TimekeepingDailyRollup r " +
+           "WHERE r.workDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.workDate")
+    List<Object[]> sumStatusCountsByDay(@Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate);
+
+    /**
+     * Confirmed overtime per day, optionally restricted to a department.
+     * Row layout: [workDate, overtimeHours]
+     */
+    @Query("SELECT r.workDate, COALESCE(SUM(r.confirmedOvertimeHours), 0) " +
+           "FROM TimekeepingDailyRollup r " +
+           "WHERE r.workDate BETWEEN :startDate AND :endDate " +
+           "AND (:departmentId IS NULL OR r.departmentId = :departmentId) " +
+           "GROUP BY r.workDate")
+    List<Object[]> sumConfirmedOvertimeByDay(@Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate,
+                                             @Param("departmentId") Integer departmentId);
+
+    @Query("SELECT COALESCE(SUM(r.checkInCount), 0) FROM TimekeepingDailyRollup r WHERE r.workDate = :workDate")
+    long sumCheckInsByWorkDate(@Param("workDate") LocalDate workDate);
+
+    @Query("SELECT COALESCE(SUM(r.confirmedOvertimeHours), 0) FROM TimekeepingDailyRollup r " +
+           "WHERE r.workDate BETWEEN :startDate AND :endDate")
+    BigDecimal sumConfirmedOvertimeHours(@Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate);
+}
@@ -2,18 +2,36 @@ package com.example.hrms.repository;
 
 import com.example.hrms.entity.Employee;
 import com.example.hrms.entity.Timekeeping;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TimekeepingRepository extends JpaRepository<Timekeeping, Integer> {
+
+    // Filters of the approve/reject-all-by-filter job; hasReason = null ignores the employee's reason
+    String BULK_FILTER_FROM = "FROM Timekeeping t LEFT JOIN t.employee e LEFT JOIN e.department d " +
+           "WHERE t.status = :status " +
+           "AND (:employeeId IS NULL OR e.employeeId = :employeeId) " +
+           "AND (:departmentId IS NULL OR d.departmentId = :departmentId) " +
+           "AND (:startDate IS NULL OR t.workDate >= :startDate) " +
+           "AND (:endDate IS NULL OR t.workDate <= :endDate) " +
+           "AND (:hasReason IS NULL " +
+           "OR (:hasReason = true AND t.reason IS NOT NULL AND TRIM(t.reason) <> '') " +
+           "OR (:hasReason = false AND (t.reason IS NULL OR TRIM(t.reason) = ''))) ";
     
     Optional<Timekeeping> findByEmployeeAndWorkDate(Employee employee, LocalDate workDate);
     
@@ -33,6 +51,13 @@ public interface TimekeepingRepository extends JpaRepository<Timekeeping, Intege
     List<Timekeeping> findByStatus(Timekeeping.Status status);
     
     long countByStatus(Timekeeping.Status status);
+
+    /**
+     * Record count per status in one round trip.
+     * Row layout: [status, count]
+     */
+    @Query("SELECT t.status, COUNT(t) FROM Timekeeping t GROUP BY t.status")
+    List<Object[]> countGroupByStatus();
     
     long countByWorkDateAndCheckInIsNotNull(LocalDate workDate);
     
@@ -44,6 +69,54 @@ public interface TimekeepingRepository extends JpaRepository<Timekeeping, Intege
             @Param("endDate") LocalDate endDate,
             @Param("status") Timekeeping.Status status);
     
+    /**
+     * Aggregate timekeeping per employee in a single grouped pass.
+     * Row layout: [employeeId, workDays, workHours, overtimeHours, lateArrivals, earlyDepartures]
+     */
+    @Query("SELECT t.employee.employeeId, COUNT(t), " +
+           "COALESCE(SUM(t.workHours), 0), " +
+           "COALESCE(SUM(t.overtimeHours), 0), " +
+           "SUM(CASE WHEN t.checkIn IS NOT NULL AND EXTRACT(TIME FROM t.checkIn) > :lateAfter THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.checkOut IS NOT NULL AND EXTRACT(TIME FROM t.checkOut) < :earlyBefore THEN 1 ELSE 0 END) " +
+           "FROM Timekeeping t " +
+           "WHERE t.status = :status " +
+           "AND t.workDate BETWEEN :startDate AND :endDate " +
+           "AND (:employeeId IS NULL OR t.employee.employeeId = :employeeId) " +
+           "GROUP BY t.employee.employeeId")
+    List<Object[]> summarizeByEmployee(
+            @Param("status") Timekeeping.Status status,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("employeeId") Integer employeeId,
+            @Param("lateAfter") LocalTime lateAfter,
+            @Param("earlyBefore") LocalTime earlyBefore);
+    
+    /**
+     * What one employee's records add to the daily rollup, per work date (department moves).
+     * Row layout: [workDate, pending, confirmed, error, checkIns, confirmedWorkHours, confirmedOvertimeHours]
+     */
+    @Query("SELECT t.workDate, " +
+           "SUM(CASE WHEN t.status = :pending THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.status = :confirmed THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.status = :error THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.checkIn IS NOT NULL THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(CASE WHEN t.status = :confirmed THEN t.workHours END), 0), " +
+           "COALESCE(SUM(CASE WHEN t.status = :confirmed THEN t.overtimeHours END), 0) " +
+           "FROM Timekeeping t " +
+           "WHERE t.employee.employeeId = :employeeId AND t.workDate IS NOT NULL " +
+           "GROUP BY t.workDate")
+    List<Object[]> summarizeRollupContributionByWorkDate(
+            @Param("employeeId") Integer employeeId,
+            @Param("pending") Timekeeping.Status pending,
+            @Param("confirmed") Timekeeping.Status confirmed,
+            @Param("error") Timekeeping.Status error);
+
+    @Query("SELECT MIN(t.workDate) FROM Timekeeping t")
+    LocalDate findMinWorkDate();
+    
+    @Query("SELECT MAX(t.workDate) FROM Timekeeping t")
+    LocalDate findMaxWorkDate();
+    
     @Query("SELECT t FROM Timekeeping t WHERE t.workDate BETWEEN :startDate AND :endDate " +
            "ORDER BY t.workDate ASC, t.createdAt DESC")
     List<Timekeeping> findByWorkDateBetween(
@@ -74,6 +147,59 @@ public interface TimekeepingRepository extends JpaRepository<Timekeeping, Intege
             @Param("endDate") LocalDate endDate,
             Pageable pageable);
     
+    /**
+     * Export rows with the findAllWithFilters filters and order, read through a forward-only cursor
+     * (fetch size Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result).
+     * Must be consumed and closed inside a transaction.
+     * Row layout: [id, employeeId, fullName, email, departmentName, workDate, checkIn, checkOut,
+     *              requiredWorkHours, workHours, overtimeHours, status, holidayName, reason, adminNote]
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT t.id, e.employeeId, e.fullName, e.email, d.departmentName, t.workDate, t.checkIn, t.checkOut, " +
+           "t.requiredWorkHours, t.workHours, t.overtimeHours, t.status, t.holidayName, t.reason, t.adminNote " +
+           "FROM Timekeeping t LEFT JOIN t.employee e LEFT JOIN e.department d WHERE " +
+           "(:status IS NULL OR t.status = :status) " +
+           "AND (:workDate IS NULL OR t.workDate = :workDate) " +
+           "AND (:employeeId IS NULL OR e.employeeId = :employeeId) " +
+           "AND (:startDate IS NULL OR t.workDate >= :startDate) " +
+           "AND (:endDate IS NULL OR t.workDate <= :endDate) " +
+           "ORDER BY t.workDate DESC, t.createdAt DESC")
+    Stream<Object[]> streamForExport(
+            @Param("status") Timekeeping.Status status,
+            @Param("workDate") LocalDate workDate,
+            @Param("employeeId") Integer employeeId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Monthly summary per employee, including employees without records, streamed like streamForExport.
+     * Row layout: [employeeId, fullName, email, workDays, workHours, overtimeHours, lateArrivals, earlyDepartures]
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT e.employeeId, e.fullName, e.email, COUNT(t), " +
+           "COALESCE(SUM(t.workHours), 0), " +
+           "COALESCE(SUM(t.overtimeHours), 0), " +
+           "SUM(CASE WHEN t.checkIn IS NOT NULL AND EXTRACT(TIME FROM t.checkIn) > :lateAfter THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.checkOut IS NOT NULL AND EXTRACT(TIME FROM t.checkOut) < :earlyBefore THEN 1 ELSE 0 END) " +
+           "FROM Employee e LEFT JOIN Timekeeping t ON t.employee = e " +
+           "AND t.status = :status AND t.workDate BETWEEN :startDate AND :endDate " +
+           "WHERE (:employeeId IS NULL OR e.employeeId = :employeeId) " +
+           "GROUP BY e.employeeId, e.fullName, e.email " +
+           "ORDER BY e.employeeId")
+    Stream<Object[]> streamSummaryByEmployee(
+            @Param("status") Timekeeping.Status status,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("employeeId") Integer employeeId,
+            @Param("lateAfter") LocalTime lateAfter,
+            @Param("earlyBefore") LocalTime earlyBefore);
+
     @Query("SELECT t FROM Timekeeping t WHERE t.employee = :employee " +
            "ORDER BY t.workDate DESC, t.createdAt DESC")
     List<Timekeeping> findRecentByEmployee(
@@ -95,4 +221,59 @@ public interface TimekeepingRepository extends JpaRepository<Timekeeping, Intege
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
             Pageable pageable);
+
+    @Query("SELECT t FROM Timekeeping t LEFT JOIN FETCH t.employee e LEFT JOIN FETCH e.department " +
+           "WHERE t.id IN :ids")
+    List<Timekeeping> findAllWithEmployeeByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Bulk status change for records still in expectedStatus; returns the number of rows changed
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Timekeeping t SET t.status = :newStatus, t.updatedAt = :updatedAt " +
+           "WHERE t.id IN :ids AND t.status = :expectedStatus")
+    int updateStatus(@Param("ids") Collection<Integer> ids,
+                     @Param("expectedStatus") Timekeeping.Status expectedStatus,
+                     @Param("newStatus") Timekeeping.Status newStatus,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Same as updateStatus, appending the note on a new line after any existing admin note
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Timekeeping t SET t.status = :newStatus, t.updatedAt = :updatedAt, " +
+           "t.adminNote = CASE WHEN t.adminNote IS NULL OR TRIM(t.adminNote) = '' THEN :note " +
+           "ELSE CONCAT(t.adminNote, :separator, :note) END " +
+           "WHERE t.id IN :ids AND t.status = :expectedStatus")
+    int updateStatusAppendingNote(@Param("ids") Collection<Integer> ids,
+                                  @Param("expectedStatus") Timekeeping.Status expectedStatus,
+                                  @Param("newStatus") Timekeeping.Status newStatus,
+                                  @Param("note") String note,
+                                  @Param("separator") String separator,
+                                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Same as updateStatus, replacing the admin note
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Timekeeping t SET t.status = :newStatus, t.updatedAt = :updatedAt, t.adminNote = :note " +
+           "WHERE t.id IN :ids AND t.status = :expectedStatus")
+    int updateStatusReplacingNote(@Param("ids") Collection<Integer> ids,
+                                  @Param("expectedStatus") Timekeeping.Status expectedStatus,
+                                  @Param("newStatus") Timekeeping.Status newStatus,
+                                  @Param("note") String note,
+                                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT COUNT(t) " + BULK_FILTER_FROM)
+    long countForBulkAction(@Param("status") Timekeeping.Status status,
+                            @Param("employeeId") Integer employeeId,
+                            @Param("departmentId") Integer departmentId,
+                            @Param("startDate") LocalDate startDate,
+                            @Param("endDate") LocalDate endDate,
+                            @Param("hasReason") Boolean hasReason);
+
+    // Next chunk of matching IDs after afterId (keyset pagination, stable while rows change status)
+    @Query("SELECT t.id " + BULK_FILTER_FROM + "AND t.id > :afterId ORDER BY t.id")
+    List<Integer> findIdsForBulkAction(@Param("status") Timekeeping.Status status,
+                                       @Param("employeeId") Integer employeeId,
+                                       @Param("departmentId") Integer departmentId,
+                                       @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate,
+                                       @Param("hasReason") Boolean hasReason,
+                                       @Param("afterId") Integer afterId,
+                                       Pageable pageable);
 }
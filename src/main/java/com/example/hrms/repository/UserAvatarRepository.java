@@ -0,0 +1,32 @@
+package com.example.hrms.repository;
+
+import com.example.hrms.entity.UserAvatar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserAvatarRepository extends JpaRepository<UserAvatar, Integer> {
+
+    Optional<UserAvatar> findByUserId(Integer userId);
+
+    // ETag only, without loading image bytes
+    @Query("SELECT a.etag FROM UserAvatar a WHERE a.userId = :userId")
+    Optional<String> findEtagByUserId(@Param("userId") Integer userId);
+
+    /**
+     * Row layout: [userId, etag]
+     */
+    @Query("SELECT a.userId, a.etag FROM UserAvatar a WHERE a.userId IN :userIds")
+    List<Object[]> findEtagsByUserIds(@Param("userIds") Collection<Integer> userIds);
+
+    @Modifying
+    @Query("DELETE FROM UserAvatar a WHERE a.userId = :userId")
+    int deleteByUserId(@Param("userId") Integer userId);
+}
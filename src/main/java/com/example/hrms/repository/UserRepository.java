@@ -6,9 +6,13 @@ import com.example.hrms.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
@@ -34,4 +38,29 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     
     Optional<User> findByResetToken(String resetToken);
     Optional<User> findByUsernameIgnoreCase(String username);
+
+    /**
+     * Accounts of a set of employees.
+     * Row layout: [employeeId, userId]
+     */
+    @Query("SELECT u.employee.employeeId, u.userId FROM User u WHERE u.employee.employeeId IN :employeeIds")
+    List<Object[]> findUserIdsByEmployeeIds(@Param("employeeIds") Collection<Integer> employeeIds);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Replace a password hash unless the password was changed in the meantime.
+     * Runs in its own transaction: it is called from the hashing pool after login has returned.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.userId = :userId AND u.password = :oldHash")
+    int replacePasswordHash(@Param("userId") Integer userId,
+                            @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
+
+    // prefix must have LIKE wildcards escaped with '!'
+    @Query("SELECT u.username FROM User u WHERE u.username LIKE CONCAT(:prefix, '%') ESCAPE '!'")
+    List<String> findUsernamesStartingWith(@Param("prefix") String prefix);
 }
@@ -0,0 +1,38 @@
+package com.example.hrms.repository;
+
+import com.example.hrms.entity.UsernameSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface UsernameSequenceRepository extends JpaRepository<UsernameSequence, String> {
+
+    // Create the counter unless another transaction already did; returns 0 when it existed
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO username_sequence (prefix, last_suffix, updated_at) " +
+           "VALUES (:prefix, :lastSuffix, NOW())",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("prefix") String prefix, @Param("lastSuffix") int lastSuffix);
+
+    /**
+     * Atomically advance the counter by count; the new value is left in LAST_INSERT_ID() of this connection.
+     * Returns 0 when the counter does not exist yet.
+     */
+    @Modifying
+    @Query(value = "UPDATE username_sequence SET last_suffix = LAST_INSERT_ID(last_suffix + :count), " +
+           "updated_at = NOW() WHERE prefix = :prefix",
+           nativeQuery = true)
+    int advance(@Param("prefix") String prefix, @Param("count") int count);
+
+    // Must run in the same transaction as advance so it reads the same connection
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Long lastInsertId();
+
+    // Never moves the counter backwards; returns 0 when the counter does not exist yet
+    @Modifying
+    @Query(value = "UPDATE username_sequence SET last_suffix = GREATEST(last_suffix, :suffix), " +
+           "updated_at = NOW() WHERE prefix = :prefix",
+           nativeQuery = true)
+    int raiseTo(@Param("prefix") String prefix, @Param("suffix") int suffix);
+}
@@ -0,0 +1,22 @@
+package com.example.hrms.schedule;
+
+import com.example.hrms.service.EmployeeSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodic full rebuild of the in-process employee search index. Changes made through this instance are
+ * applied right after commit; the rebuild picks up changes made on other instances or directly in the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeSearchIndexScheduler {
+    private final EmployeeSearchIndex employeeSearchIndex;
+
+    @Scheduled(fixedDelayString = "${app.employees.search-index.rebuild-interval-ms:300000}",
+               initialDelayString = "${app.employees.search-index.rebuild-interval-ms:300000}")
+    public void rebuildSearchIndex() {
+        employeeSearchIndex.rebuild();
+    }
+}
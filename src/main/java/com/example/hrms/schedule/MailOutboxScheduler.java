@@ -0,0 +1,35 @@
+package com.example.hrms.schedule;
+
+import com.example.hrms.service.MailOutboxDispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodic work for the mail outbox. New mail is normally dispatched right after commit;
+ * the poll picks up retries whose backoff has elapsed and anything missed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailOutboxScheduler {
+    private final MailOutboxDispatcher mailOutboxDispatcher;
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:10000}")
+    public void pollOutbox() {
+        mailOutboxDispatcher.releaseExpiredClaims();
+        mailOutboxDispatcher.wakeUp();
+    }
+
+    /**
+     * Runs daily at 03:30 to drop sent and dead-lettered mail older than the retention period
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeFinishedMail() {
+        int deleted = mailOutboxDispatcher.purgeFinished();
+        if (deleted > 0) {
+            log.info("Purged {} sent or dead-lettered mails from the outbox", deleted);
+        }
+    }
+}
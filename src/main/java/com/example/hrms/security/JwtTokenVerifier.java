@@ -0,0 +1,76 @@
+package com.example.hrms.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies JWTs with a single prebuilt parser (thread-safe, holds the decoded public key)
+ * and remembers successfully verified tokens by SHA-256 hash until they expire,
+ * so repeated requests with the same token skip the RSA signature check.
+ */
+@Component
+public class JwtTokenVerifier {
+    private final JwtParser parser;
+    private final int cacheMaxSize;
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    public JwtTokenVerifier(RsaKeyUtil rsaKeyUtil,
+                            @Value("${app.security.token-cache.max-size:10000}") int cacheMaxSize) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(rsaKeyUtil.getPublicKey())
+                .build();
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * Return the claims of a valid token; throws a JwtException if the signature or expiry is invalid
+     */
+    public Claims verify(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verified.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached.claims();
+            }
+            verified.remove(key);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null && cacheMaxSize > 0) {
+            if (verified.size() >= cacheMaxSize) {
+                verified.values().removeIf(entry -> entry.expiresAt() <= now);
+                if (verified.size() >= cacheMaxSize) {
+                    verified.clear();
+                }
+            }
+            verified.put(key, new VerifiedToken(claims, expiration.getTime()));
+        }
+        return claims;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record VerifiedToken(Claims claims, long expiresAt) {
+    }
+}
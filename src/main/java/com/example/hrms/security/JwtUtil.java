@@ -7,48 +7,54 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.util.Date;
 
 @Component
 @RequiredArgsConstructor
 public class JwtUtil {
-    
+
     private final RsaKeyUtil rsaKeyUtil;
+    private final JwtTokenVerifier jwtTokenVerifier;
+
+    public static final String ROLE_CLAIM = "role";
 
     @Value("${jwt.expiration-ms:86400000}")
     private long jwtExpirationMs;
 
     public String generateToken(String username) {
+        return generateToken(username, null);
+    }
+
+    /**
+     * Generate a token carrying the role key as a claim, so the filter can authenticate
+     * without loading the user. A null role produces a token without the claim.
+     */
+    public String generateToken(String username, String role) {
         RSAPrivateKey privateKey = rsaKeyUtil.getPrivateKey();
-        
+
         return Jwts.builder()
                 .setSubject(username)
+                .claim(ROLE_CLAIM, role)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
                 .signWith(privateKey)
                 .compact();
     }
 
+    /**
+     * Verify the token and return its claims; throws if the signature or expiry is invalid
+     */
+    public Claims getClaimsFromToken(String token) {
+        return jwtTokenVerifier.verify(token);
+    }
+
     public String getUsernameFromToken(String token) {
-        RSAPublicKey publicKey = rsaKeyUtil.getPublicKey();
-        
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(publicKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+        return getClaimsFromToken(token).getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            RSAPublicKey publicKey = rsaKeyUtil.getPublicKey();
-            Jwts.parserBuilder()
-                    .setSigningKey(publicKey)
-                    .build()
-                    .parseClaimsJws(token);
+            getClaimsFromToken(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -56,14 +62,6 @@ public class JwtUtil {
     }
 
     public Date getExpirationDateFromToken(String token) {
-        RSAPublicKey publicKey = rsaKeyUtil.getPublicKey();
-        
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(publicKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getExpiration();
+        return getClaimsFromToken(token).getExpiration();
     }
 }
@@ -0,0 +1,213 @@
+package com.example.hrms.security;
+
+import com.example.hrms.dto.response.PasswordHashingStatsResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The application's PasswordEncoder: BCrypt with a configurable cost, limited by a semaphore.
+ * At most parallelism hashes run at once, so a login storm uses a fixed share of the CPU instead of one
+ * core per request thread. This bounds CPU, not request threads: a caller hashes on its own thread once it
+ * holds a permit, and waits (up to wait-timeout-ms) while it does not. Callers are turned away when
+ * queue-capacity of them are already waiting. Bulk hashing uses a small pool whose threads take the same permits.
+ * Records permit wait and hash time per operation for the admin stats endpoint.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+    private final BCryptPasswordEncoder bcrypt;
+    private final int strength;
+    private final int parallelism;
+    private final int queueCapacity;
+    private final long waitTimeoutMs;
+    private final Semaphore permits;
+    // encodeAll only
+    private final ThreadPoolExecutor bulkExecutor;
+
+    private final Timing encodeTiming = new Timing();
+    private final Timing matchesTiming = new Timing();
+    private final Timing queueWait = new Timing();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder upgraded = new LongAdder();
+
+    public PasswordHashingService(@Value("${app.security.password.bcrypt-strength:10}") int strength,
+                                  @Value("${app.security.password.parallelism:0}") int parallelism,
+                                  @Value("${app.security.password.queue-capacity:200}") int queueCapacity,
+                                  @Value("${app.security.password.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.strength = strength;
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        // 0 = one per core
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.permits = new Semaphore(this.parallelism, true);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.bulkExecutor = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.parallelism),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(() -> bcrypt.encode(rawPassword), encodeTiming);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(() -> bcrypt.matches(rawPassword, encodedPassword), matchesTiming);
+    }
+
+    /**
+     * True when the stored hash uses a lower cost than configured and should be replaced
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bcrypt.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Hash many passwords (bulk import) in parallel. Pool threads take permits like any other caller,
+     * so logins still get their share; at most parallelism passwords are in flight at a time, and when
+     * the pool is full the caller hashes the next one itself.
+     * @return hashes in the order of the input
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rawPasswords.size());
+        Deque<CompletableFuture<String>> inFlight = new ArrayDeque<>();
+        for (CharSequence rawPassword : rawPasswords) {
+            if (inFlight.size() >= parallelism) {
+                await(inFlight.poll());
+            }
+            CompletableFuture<String> hash;
+            try {
+                hash = CompletableFuture.supplyAsync(() -> encode(rawPassword), bulkExecutor);
+            } catch (RejectedExecutionException e) {
+                hash = CompletableFuture.completedFuture(encode(rawPassword));
+            }
+            hashes.add(hash);
+            inFlight.add(hash);
+        }
+        List<String> results = new ArrayList<>(hashes.size());
+        for (CompletableFuture<String> hash : hashes) {
+            results.add(await(hash));
+        }
+        return results;
+    }
+
+    public void recordUpgrade() {
+        upgraded.increment();
+    }
+
+    public PasswordHashingStatsResponse getStats() {
+        return PasswordHashingStatsResponse.builder()
+                .strength(strength)
+                .parallelism(parallelism)
+                .activeThreads(parallelism - permits.availablePermits())
+                .queued(permits.getQueueLength())
+                .encodes(encodeTiming.count.sum())
+                .encodeAvgMs(encodeTiming.averageMs())
+                .encodeMaxMs(encodeTiming.maxMs())
+                .matches(matchesTiming.count.sum())
+                .matchesAvgMs(matchesTiming.averageMs())
+                .matchesMaxMs(matchesTiming.maxMs())
+                .queueWaitAvgMs(queueWait.averageMs())
+                .queueWaitMaxMs(queueWait.maxMs())
+                .rejected(rejected.sum())
+                .timedOut(timedOut.sum())
+                .upgraded(upgraded.sum())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkExecutor.shutdownNow();
+    }
+
+    // Runs the hash on the calling thread once a permit is free
+    private <T> T hash(Supplier<T> hash, Timing timing) {
+        // Approximate: the check and the wait are not atomic, which only matters at the margin
+        if (permits.getQueueLength() >= queueCapacity) {
+            rejected.increment();
+            throw new RuntimeException("Server is busy, please try again");
+        }
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(waitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timedOut.increment();
+                throw new RuntimeException("Server is busy, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password hashing interrupted");
+        }
+        long start = System.nanoTime();
+        queueWait.record(start - waitStart);
+        try {
+            return hash.get();
+        } finally {
+            timing.record(System.nanoTime() - start);
+            permits.release();
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password hashing interrupted");
+        }
+    }
+
+    private static class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        double averageMs() {
+            long n = count.sum();
+            return n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n;
+        }
+
+        double maxMs() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+    }
+}
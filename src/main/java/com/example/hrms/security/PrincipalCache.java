@@ -0,0 +1,128 @@
+package com.example.hrms.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, TTL-based cache of authenticated principals keyed by token subject (the user's email).
+ * Also remembers when a subject was last changed (role, password, delete) so that role claims
+ * in tokens issued before that moment are no longer trusted by JwtAuthenticationFilter.
+ * State is per process; every instance applies its own evictions, and the TTL bounds how long
+ * another instance can lag behind them, for cached principals and role claims alike.
+ */
+@Component
+public class PrincipalCache {
+    private final long ttlMs;
+    private final int maxSize;
+    private final long tokenLifetimeMs;
+    private final long startedAt = System.currentTimeMillis();
+
+    private final Map<String, Entry> entries;
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+
+    public PrincipalCache(@Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${app.security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${jwt.expiration-ms:86400000}") long tokenLifetimeMs) {
+        this.ttlMs = ttlSeconds * 1000;
+        this.maxSize = maxSize;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+        // Access-ordered so the least recently used principal is dropped first
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PrincipalCache.this.maxSize;
+            }
+        };
+    }
+
+    public UserDetails get(String subject) {
+        synchronized (entries) {
+            Entry entry = entries.get(subject);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() < System.currentTimeMillis()) {
+                entries.remove(subject);
+                return null;
+            }
+            return entry.principal();
+        }
+    }
+
+    /**
+     * Cache a principal without its password hash
+     */
+    public UserDetails put(String subject, UserDetails principal) {
+        UserDetails withoutPassword = User.withUsername(principal.getUsername())
+                .password("")
+                .authorities(principal.getAuthorities())
+                .build();
+        if (ttlMs > 0 && maxSize > 0) {
+            synchronized (entries) {
+                entries.put(subject, new Entry(withoutPassword, System.currentTimeMillis() + ttlMs));
+            }
+        }
+        return withoutPassword;
+    }
+
+    /**
+     * Role claims are trusted only for tokens younger than the cache TTL, issued after this process
+     * started and after the subject's last role/password/account change seen by this process.
+     * Another instance does not see this process's evictions, so the TTL bounds how long it can act
+     * on a stale role or a deleted user, exactly as for a cached principal; older tokens fall back
+     * to the database-backed lookup.
+     */
+    public boolean canTrustClaims(String subject, Date issuedAt) {
+        if (issuedAt == null || issuedAt.getTime() < startedAt) {
+            return false;
+        }
+        if (issuedAt.getTime() < System.currentTimeMillis() - ttlMs) {
+            return false;
+        }
+        Long changed = changedAt.get(subject);
+        // iat has second precision, so compare in seconds and treat the same second as stale
+        return changed == null || issuedAt.getTime() / 1000 > changed / 1000;
+    }
+
+    /**
+     * Drop cached principals after a role change, password reset or delete.
+     * Inside a transaction this is repeated after commit, so neither a concurrent request nor
+     * a token issued before the commit can carry the old state forward.
+     */
+    public void evict(String... subjects) {
+        markChanged(subjects);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markChanged(subjects);
+                }
+            });
+        }
+    }
+
+    private void markChanged(String... subjects) {
+        long now = System.currentTimeMillis();
+        changedAt.values().removeIf(changed -> changed < now - tokenLifetimeMs);
+        synchronized (entries) {
+            for (String subject : subjects) {
+                if (subject != null) {
+                    changedAt.put(subject, now);
+                    entries.remove(subject);
+                }
+            }
+        }
+    }
+
+    private record Entry(UserDetails principal, long expiresAt) {
+    }
+}
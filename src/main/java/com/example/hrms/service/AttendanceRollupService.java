@@ -0,0 +1,234 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.Timekeeping;
+import com.example.hrms.entity.TimekeepingDailyRollup;
+import com.example.hrms.repository.TimekeepingDailyRollupRepository;
+import com.example.hrms.repository.TimekeepingRepository;
+import com.example.hrms.util.NumberUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the timekeeping_daily_rollup table in sync with the timekeeping table.
+ * Callers take a snapshot before mutating a record and report the change after saving it;
+ * the old contribution is subtracted and the new one added in the caller's transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttendanceRollupService {
+    private final TimekeepingDailyRollupRepository rollupRepository;
+    private final TimekeepingRepository timekeepingRepository;
+    private final DashboardCache dashboardCache;
+
+    /**
+     * Capture what a record currently contributes to the rollup.
+     * Returns null for a record that does not exist yet.
+     */
+    public Contribution snapshot(Timekeeping timekeeping) {
+        return Contribution.of(timekeeping);
+    }
+
+    @Transactional
+    public void recordCreated(Timekeeping timekeeping) {
+        recordChange(null, timekeeping);
+    }
+
+    @Transactional
+    public void recordChange(Contribution before, Timekeeping after) {
+        Contribution current = Contribution.of(after);
+        if (Objects.equals(before, current)) {
+            return;
+        }
+        if (before != null) {
+            apply(before, -1);
+        }
+        if (current != null) {
+            apply(current, 1);
+        }
+        dashboardCache.invalidate(DashboardCache.Source.TIMEKEEPING);
+    }
+
+    /**
+     * Report many changes at once (bulk updates): deltas are summed per (work date, department)
+     * so each touched bucket gets a single upsert. Both lists are matched by position.
+     */
+    @Transactional
+    public void recordChanges(List<Contribution> before, List<Contribution> after) {
+        Map<BucketKey, long[]> counts = new HashMap<>();
+        Map<BucketKey, BigDecimal[]> hours = new HashMap<>();
+        for (int i = 0; i < before.size(); i++) {
+            Contribution previous = before.get(i);
+            Contribution current = after.get(i);
+            if (Objects.equals(previous, current)) {
+                continue;
+            }
+            if (previous != null) {
+                accumulate(previous, -1, counts, hours);
+            }
+            if (current != null) {
+                accumulate(current, 1, counts, hours);
+            }
+        }
+
+        counts.forEach((key, count) -> {
+            BigDecimal[] hourTotals = hours.get(key);
+            if (count[0] == 0 && count[1] == 0 && count[2] == 0 && count[3] == 0
+                    && hourTotals[0].signum() == 0 && hourTotals[1].signum() == 0) {
+                return;
+            }
+            rollupRepository.addDelta(key.workDate(), key.departmentId(),
+                    count[0], count[1], count[2], count[3], hourTotals[0], hourTotals[1]);
+        });
+        if (!counts.isEmpty()) {
+            dashboardCache.invalidate(DashboardCache.Source.TIMEKEEPING);
+        }
+    }
+
+    /**
+     * Move an employee's existing records from one department bucket to another.
+     * Buckets are keyed on the department at write time, so this must run whenever an employee changes
+     * department; otherwise later reversals land in the new bucket and both departments drift.
+     */
+    @Transactional
+    public void moveEmployee(Integer employeeId, Integer fromDepartmentId, Integer toDepartmentId) {
+        int from = fromDepartmentId != null ? fromDepartmentId : TimekeepingDailyRollup.NO_DEPARTMENT;
+        int to = toDepartmentId != null ? toDepartmentId : TimekeepingDailyRollup.NO_DEPARTMENT;
+        if (employeeId == null || from == to) {
+            return;
+        }
+        List<Object[]> rows = timekeepingRepository.summarizeRollupContributionByWorkDate(employeeId,
+                Timekeeping.Status.Pending, Timekeeping.Status.Confirmed, Timekeeping.Status.Error);
+        for (Object[] row : rows) {
+            LocalDate workDate = (LocalDate) row[0];
+            long pending = NumberUtil.toLong(row[1]);
+            long confirmed = NumberUtil.toLong(row[2]);
+            long error = NumberUtil.toLong(row[3]);
+            long checkIns = NumberUtil.toLong(row[4]);
+            BigDecimal workHours = NumberUtil.toBigDecimal(row[5]);
+            BigDecimal overtimeHours = NumberUtil.toBigDecimal(row[6]);
+            rollupRepository.addDelta(workDate, from, -pending, -confirmed, -error, -checkIns,
+                    workHours.negate(), overtimeHours.negate());
+            rollupRepository.addDelta(workDate, to, pending, confirmed, error, checkIns, workHours, overtimeHours);
+        }
+        if (!rows.isEmpty()) {
+            dashboardCache.invalidate(DashboardCache.Source.TIMEKEEPING);
+            log.info("Moved timekeeping rollup of employee {} from department {} to {} ({} days)",
+                    employeeId, from, to, rows.size());
+        }
+    }
+
+    /**
+     * Recompute rollup rows for a date range from raw timekeeping data
+     */
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        rollupRepository.deleteByWorkDateBetween(startDate, endDate);
+        int buckets = rollupRepository.rebuildRange(startDate, endDate);
+        dashboardCache.invalidate(DashboardCache.Source.TIMEKEEPING);
+        log.info("Rebuilt timekeeping rollup for {} - {}: {} buckets", startDate, endDate, buckets);
+        return buckets;
+    }
+
+    /**
+     * Populate the rollup on first start after deployment
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeIfEmpty() {
+        if (rollupRepository.count() > 0) {
+            return;
+        }
+        LocalDate minDate = timekeepingRepository.findMinWorkDate();
+        LocalDate maxDate = timekeepingRepository.findMaxWorkDate();
+        if (minDate == null || maxDate == null) {
+            return;
+        }
+        rebuild(minDate, maxDate);
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        BigDecimal workHours = contribution.status() == Timekeeping.Status.Confirmed
+                ? contribution.workHours() : BigDecimal.ZERO;
+        BigDecimal overtimeHours = contribution.status() == Timekeeping.Status.Confirmed
+                ? contribution.overtimeHours() : BigDecimal.ZERO;
+        BigDecimal factor = BigDecimal.valueOf(sign);
+
+        rollupRepository.addDelta(
+                contribution.workDate(),
+                contribution.departmentId(),
+                contribution.status() == Timekeeping.Status.Pending ? sign : 0,
+                contribution.status() == Timekeeping.Status.Confirmed ? sign : 0,
+                contribution.status() == Timekeeping.Status.Error ? sign : 0,
+                contribution.checkedIn() ? sign : 0,
+                workHours.multiply(factor),
+                overtimeHours.multiply(factor));
+    }
+
+    // counts: [pending, confirmed, error, checkIns], hours: [confirmedWork, confirmedOvertime]
+    private static void accumulate(Contribution contribution, int sign,
+                                   Map<BucketKey, long[]> counts, Map<BucketKey, BigDecimal[]> hours) {
+        BucketKey key = new BucketKey(contribution.workDate(), contribution.departmentId());
+        long[] count = counts.computeIfAbsent(key, k -> new long[4]);
+        BigDecimal[] hourTotals = hours.computeIfAbsent(key, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+
+        if (contribution.status() == Timekeeping.Status.Pending) {
+            count[0] += sign;
+        } else if (contribution.status() == Timekeeping.Status.Confirmed) {
+            count[1] += sign;
+            BigDecimal factor = BigDecimal.valueOf(sign);
+            hourTotals[0] = hourTotals[0].add(contribution.workHours().multiply(factor));
+            hourTotals[1] = hourTotals[1].add(contribution.overtimeHours().multiply(factor));
+        } else if (contribution.status() == Timekeeping.Status.Error) {
+            count[2] += sign;
+        }
+        if (contribution.checkedIn()) {
+            count[3] += sign;
+        }
+    }
+
+    private record BucketKey(LocalDate workDate, Integer departmentId) {
+    }
+
+    /**
+     * Immutable view of the fields of a timekeeping record that feed the rollup
+     */
+    public record Contribution(LocalDate workDate,
+                               Integer departmentId,
+                               Timekeeping.Status status,
+                               boolean checkedIn,
+                               BigDecimal workHours,
+                               BigDecimal overtimeHours) {
+
+        static Contribution of(Timekeeping timekeeping) {
+            if (timekeeping == null || timekeeping.getId() == null || timekeeping.getWorkDate() == null) {
+                return null;
+            }
+            Integer departmentId = timekeeping.getEmployee() != null && timekeeping.getEmployee().getDepartment() != null
+                    ? timekeeping.getEmployee().getDepartment().getDepartmentId()
+                    : TimekeepingDailyRollup.NO_DEPARTMENT;
+            return new Contribution(
+                    timekeeping.getWorkDate(),
+                    departmentId,
+                    timekeeping.getStatus(),
+                    timekeeping.getCheckIn() != null,
+                    timekeeping.getWorkHours() != null ? timekeeping.getWorkHours().stripTrailingZeros() : BigDecimal.ZERO,
+                    timekeeping.getOvertimeHours() != null ? timekeeping.getOvertimeHours().stripTrailingZeros() : BigDecimal.ZERO);
+        }
+
+        public Contribution withStatus(Timekeeping.Status newStatus) {
+            return new Contribution(workDate, departmentId, newStatus, checkedIn, workHours, overtimeHours);
+        }
+    }
+}
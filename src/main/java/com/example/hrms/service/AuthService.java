@@ -7,6 +7,9 @@ import com.example.hrms.entity.User;
 import com.example.hrms.exception.UserNotFoundException;
 import com.example.hrms.repository.UserRepository;
 import com.example.hrms.security.JwtUtil;
+import com.example.hrms.security.PasswordHashingService;
+import com.example.hrms.security.PrincipalCache;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +21,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -26,8 +33,21 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
+    private final PrincipalCache principalCache;
+    private final AvatarService avatarService;
     private final EmailService emailService;
-    private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordEncoder;
+
+    private static final int MAX_PENDING_UPGRADES = 100;
+
+    // Rehash and its write happen here, off request threads; a full queue postpones the upgrade to a later login
+    private final ThreadPoolExecutor upgradeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING_UPGRADES),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-upgrade");
+                thread.setDaemon(true);
+                return thread;
+            });
 
     public AuthResponse login(AuthRequest req) {
         // Check if user exists first (can be username or email)
@@ -44,20 +64,26 @@ public class AuthService {
             // This will catch password mismatch or other authentication issues
             throw new BadCredentialsException("Invalid password");
         }
+
+        // Hash was made with a lower cost than configured: replace it while the plain password is at hand
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            upgradePasswordHash(user, req.getPassword());
+        }
         
         // Check if user must change password
         // Note: This information should be returned to frontend to prompt password change
         // But we still allow login to proceed
         
         // Authentication successful, generate token (use email for token)
-        String token = jwtUtil.generateToken(user.getEmail());
+        String token = jwtUtil.generateToken(user.getEmail(),
+                user.getRole() == null ? null : user.getRole().getRoleKey());
         UserInfo userInfo = UserInfo.builder()
                 .id(user.getUserId())
                 .username(user.getUsername())
                 .email(user.getEmail())
                 .role(user.getRole() == null ? null : user.getRole().getRoleKey())
                 .status(user.getStatus())
-                .avatarBase64(user.getAvatarData())
+                .avatarUrl(avatarService.getAvatarUrl(user.getUserId()))
                 .build();
         
         return AuthResponse.builder()
@@ -66,6 +92,34 @@ public class AuthService {
                 .build();
     }
 
+    @PreDestroy
+    public void shutdown() {
+        upgradeExecutor.shutdownNow();
+    }
+
+    /**
+     * Rehash in the background so login does not pay for a second BCrypt round.
+     * Skipped when the upgrade queue or the hashing permits are busy; the next login tries again.
+     */
+    private void upgradePasswordHash(User user, String rawPassword) {
+        String previousHash = user.getPassword();
+        try {
+            upgradeExecutor.execute(() -> {
+                try {
+                    String newHash = passwordEncoder.encode(rawPassword);
+                    if (userRepository.replacePasswordHash(user.getUserId(), previousHash, newHash) > 0) {
+                        passwordEncoder.recordUpgrade();
+                        log.info("Upgraded password hash for user: {}", user.getEmail());
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not upgrade password hash for user {}: {}", user.getEmail(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Password hash upgrade for {} postponed: upgrade queue is full", user.getEmail());
+        }
+    }
+
     @Transactional
     public void forgotPassword(ForgotPasswordRequest request) {
         User user = userRepository.findByEmail(request.getEmail())
@@ -102,6 +156,7 @@ public class AuthService {
         user.setResetTokenExpiry(null);
         user.setStatus(1); // Set status to active after password reset
         userRepository.save(user);
+        principalCache.evict(user.getEmail());
 
         log.info("Password reset successfully for user: {}", user.getEmail());
     }
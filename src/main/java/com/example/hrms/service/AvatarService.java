@@ -0,0 +1,315 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.UserAvatar;
+import com.example.hrms.repository.UserAvatarRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stores avatar images as raw bytes in user_avatar, with a thumbnail generated on upload.
+ * Clients get a versioned URL (/api/users/{id}/avatar?v={etag}) instead of inline base64.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvatarService {
+    private final UserAvatarRepository userAvatarRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.avatar.max-bytes:2097152}")
+    private int maxBytes;
+
+    @Value("${app.avatar.thumbnail-size:128}")
+    private int thumbnailSize;
+
+    private static final int LEGACY_MIGRATION_BATCH = 20;
+
+    // Largest image decoded for the thumbnail (about 64 MB as ARGB)
+    private static final long MAX_PIXELS = 4096L * 4096L;
+
+    /**
+     * What a download needs before any bytes are read. thumbnail is false when the original is served instead.
+     */
+    public record AvatarHead(String etag, String contentType, boolean thumbnail) {
+    }
+
+    /**
+     * Save or replace a user's avatar from a base64 string (with or without a data:image/...;base64, prefix)
+     * @return ETag of the stored image
+     */
+    @Transactional
+    public String store(Integer userId, String base64Data) {
+        String declaredType = null;
+        String payload = base64Data.trim();
+        if (payload.startsWith("data:")) {
+            int comma = payload.indexOf(',');
+            if (comma < 0 || !payload.substring(0, comma).endsWith(";base64")) {
+                throw new RuntimeException("Invalid base64 format. Expected format: data:image/[type];base64,[data]");
+            }
+            declaredType = payload.substring(5, comma - ";base64".length());
+            payload = payload.substring(comma + 1);
+        }
+
+        byte[] data;
+        try {
+            data = Base64.getMimeDecoder().decode(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Avatar is not valid base64 data");
+        }
+        if (data.length == 0) {
+            throw new RuntimeException("Avatar image is empty");
+        }
+        if (data.length > maxBytes) {
+            throw new RuntimeException("Avatar image cannot exceed " + (maxBytes / 1024) + " KB");
+        }
+
+        String contentType = detectContentType(data, declaredType);
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new RuntimeException("Avatar must be an image");
+        }
+
+        UserAvatar avatar = userAvatarRepository.findByUserId(userId)
+                .orElseGet(() -> UserAvatar.builder().userId(userId).build());
+        avatar.setContentType(contentType);
+        avatar.setData(data);
+        avatar.setEtag(sha256(data));
+        avatar.setSizeBytes(data.length);
+        avatar.setThumbnailContentType(null);
+        avatar.setThumbnailData(null);
+        avatar.setUpdatedAt(LocalDateTime.now());
+
+        BufferedImage image = readImage(data);
+        if (image != null) {
+            boolean alpha = image.getColorModel().hasAlpha();
+            byte[] thumbnail = createThumbnail(image, alpha);
+            if (thumbnail != null) {
+                avatar.setThumbnailContentType(alpha ? "image/png" : "image/jpeg");
+                avatar.setThumbnailData(thumbnail);
+            }
+        }
+
+        return userAvatarRepository.save(avatar).getEtag();
+    }
+
+    @Transactional
+    public void delete(Integer userId) {
+        userAvatarRepository.deleteByUserId(userId);
+    }
+
+    public Optional<String> getEtag(Integer userId) {
+        return userAvatarRepository.findEtagByUserId(userId);
+    }
+
+    /**
+     * Content type and ETag of the image a download would serve; the thumbnail falls back to the original
+     * when none could be generated. Image bytes are not loaded.
+     */
+    public Optional<AvatarHead> findHead(Integer userId, boolean thumbnail) {
+        List<AvatarHead> heads = jdbcTemplate.query(
+                "SELECT etag, content_type, thumbnail_content_type FROM user_avatar WHERE user_id = ?",
+                (rs, rowNum) -> {
+                    String thumbnailType = rs.getString("thumbnail_content_type");
+                    return thumbnail && thumbnailType != null
+                            ? new AvatarHead(rs.getString("etag"), thumbnailType, true)
+                            : new AvatarHead(rs.getString("etag"), rs.getString("content_type"), false);
+                },
+                userId);
+        return heads.stream().findFirst();
+    }
+
+    /**
+     * Copy the image described by head from the blob column to out without building a byte[] copy.
+     * Writes nothing when the avatar was replaced or deleted after head was read.
+     */
+    public void writeTo(Integer userId, AvatarHead head, OutputStream out) {
+        String column = head.thumbnail() ? "thumbnail_data" : "data";
+        jdbcTemplate.query("SELECT " + column + " FROM user_avatar WHERE user_id = ? AND etag = ?",
+                (ResultSet rs) -> {
+                    if (rs.next()) {
+                        try (InputStream in = rs.getBinaryStream(1)) {
+                            if (in != null) {
+                                in.transferTo(out);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    return null;
+                },
+                userId, head.etag());
+    }
+
+    public String getAvatarUrl(Integer userId) {
+        if (userId == null) {
+            return null;
+        }
+        return userAvatarRepository.findEtagByUserId(userId)
+                .map(etag -> buildUrl(userId, etag))
+                .orElse(null);
+    }
+
+    /**
+     * Avatar URLs for a page of users in one query; users without an avatar are absent from the map
+     */
+    public Map<Integer, String> getAvatarUrls(Collection<Integer> userIds) {
+        Map<Integer, String> urls = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return urls;
+        }
+        for (Object[] row : userAvatarRepository.findEtagsByUserIds(userIds)) {
+            urls.put((Integer) row[0], buildUrl((Integer) row[0], (String) row[1]));
+        }
+        return urls;
+    }
+
+    /**
+     * Move base64 avatars left in the legacy user.avatar_data column into user_avatar, then clear the column.
+     * Runs in small batches; does nothing once the column is empty or has been dropped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyAvatars() {
+        int migrated = 0;
+        int lastUserId = 0;
+        try {
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        "SELECT user_id, avatar_data FROM `user` WHERE avatar_data IS NOT NULL AND user_id > ? " +
+                                "ORDER BY user_id LIMIT " + LEGACY_MIGRATION_BATCH, lastUserId);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Map<String, Object> row : rows) {
+                    Integer userId = ((Number) row.get("user_id")).intValue();
+                    lastUserId = userId;
+                    try {
+                        store(userId, (String) row.get("avatar_data"));
+                        jdbcTemplate.update("UPDATE `user` SET avatar_data = NULL WHERE user_id = ?", userId);
+                        migrated++;
+                    } catch (RuntimeException e) {
+                        log.warn("Could not migrate legacy avatar of user {}: {}", userId, e.getMessage());
+                    }
+                }
+            }
+        } catch (DataAccessException e) {
+            log.debug("Legacy avatar column not available, skipping migration: {}", e.getMessage());
+            return;
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} legacy avatars into user_avatar", migrated);
+        }
+    }
+
+    private static String buildUrl(Integer userId, String etag) {
+        return "/api/users/" + userId + "/avatar?v=" + etag;
+    }
+
+    private static String detectContentType(byte[] data, String declaredType) {
+        try {
+            String sniffed = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(data));
+            if (sniffed != null) {
+                return sniffed;
+            }
+        } catch (IOException ignored) {
+            // fall back to the declared type
+        }
+        return declaredType;
+    }
+
+    /**
+     * Decode for the thumbnail. The header is read first and images over MAX_PIXELS are rejected before any
+     * pixel buffer is allocated, so a small file declaring huge dimensions cannot exhaust the heap.
+     * @return null when no reader understands the format
+     */
+    private static BufferedImage readImage(byte[] data) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_PIXELS) {
+                    throw new RuntimeException("Avatar image dimensions are too large");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Scale down to fit thumbnailSize x thumbnailSize, never upscale
+    private byte[] createThumbnail(BufferedImage source, boolean alpha) {
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (!ImageIO.write(target, alpha ? "png" : "jpg", out)) {
+                return null;
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            log.warn("Could not generate avatar thumbnail: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
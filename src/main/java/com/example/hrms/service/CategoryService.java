@@ -87,6 +87,7 @@ public class CategoryService {
                 .leaveName(leaveType.getLeaveName())
                 .description(leaveType.getDescription())
                 .status(leaveType.getStatus())
+                .annualLeave(leaveType.isAnnual())
                 .createdAt(leaveType.getCreatedAt())
                 .updatedAt(leaveType.getUpdatedAt())
                 .build();
@@ -0,0 +1,235 @@
+package com.example.hrms.service;
+
+import com.example.hrms.dto.response.DashboardCacheStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of admin dashboard sections keyed by section, resolved date range, department and limit.
+ * Concurrent callers asking for the same key share one computation. Entries expire after a per-section TTL
+ * (app.dashboard.cache.ttl-seconds.&lt;section&gt;), the least recently used entry is dropped beyond max-size,
+ * and writes invalidate the sections built from the data they touch.
+ * State is per process; every instance applies its own invalidations.
+ */
+@Component
+public class DashboardCache {
+
+    /**
+     * Data a dashboard section is computed from; writes invalidate by source
+     */
+    public enum Source {
+        TIMEKEEPING, LEAVE, EMPLOYEE, SCHEDULE
+    }
+
+    public enum Section {
+        SUMMARY("summary", 15, Source.TIMEKEEPING, Source.LEAVE, Source.EMPLOYEE),
+        TIMEKEEPING_OVERVIEW("timekeeping-overview", 60, Source.TIMEKEEPING),
+        OVERTIME_TREND("overtime-trend", 60, Source.TIMEKEEPING),
+        LEAVE_OVERVIEW("leave-overview", 60, Source.LEAVE),
+        SCHEDULE_COVERAGE("schedule-coverage", 60, Source.SCHEDULE, Source.EMPLOYEE),
+        EMPLOYEE_ALERTS("employee-alerts", 60, Source.EMPLOYEE, Source.LEAVE),
+        TOP_OVERTIME_EMPLOYEES("top-overtime-employees", 60, Source.TIMEKEEPING, Source.EMPLOYEE);
+
+        private final String propertyName;
+        private final long defaultTtlSeconds;
+        private final Set<Source> sources;
+
+        Section(String propertyName, long defaultTtlSeconds, Source... sources) {
+            this.propertyName = propertyName;
+            this.defaultTtlSeconds = defaultTtlSeconds;
+            this.sources = Set.of(sources);
+        }
+    }
+
+    /**
+     * Cache key; fields a section does not use are null
+     */
+    public record Key(Section section, LocalDate start, LocalDate end, Integer departmentId, Integer limit) {
+    }
+
+    private final int maxSize;
+    private final Map<Section, Long> ttlMs = new EnumMap<>(Section.class);
+    private final Map<Section, Counters> counters = new EnumMap<>(Section.class);
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final Map<Key, Entry> entries;
+
+    public DashboardCache(@Value("${app.dashboard.cache.max-size:500}") int maxSize, Environment environment) {
+        this.maxSize = maxSize;
+        for (Section section : Section.values()) {
+            long seconds = environment.getProperty("app.dashboard.cache.ttl-seconds." + section.propertyName,
+                    Long.class, section.defaultTtlSeconds);
+            ttlMs.put(section, seconds * 1000);
+            counters.put(section, new Counters());
+        }
+        // Access-ordered so the least recently used section result is dropped first
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > DashboardCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached value for the key, or compute it with the loader.
+     * Only the first caller for a missing key runs the loader; others wait for its result.
+     * A failed load is not cached and its exception is rethrown to every waiting caller.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        long ttl = ttlMs.get(key.section());
+        if (ttl <= 0 || maxSize <= 0) {
+            return loader.get();
+        }
+
+        Counters sectionCounters = counters.get(key.section());
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            if (entry.future.isDone()) {
+                sectionCounters.hits.increment();
+            } else {
+                sectionCounters.coalesced.increment();
+            }
+            return (T) await(entry.future);
+        }
+
+        sectionCounters.misses.increment();
+        try {
+            T value = loader.get();
+            entry.expiresAt = System.currentTimeMillis() + ttl;
+            entry.future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drop every cached section computed from one of the sources.
+     * Inside a transaction this is repeated after commit, so a dashboard read racing the write
+     * cannot keep the pre-commit numbers for a full TTL.
+     */
+    public void invalidate(Source... sources) {
+        removeSections(sources);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeSections(sources);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public DashboardCacheStatsResponse getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        List<DashboardCacheStatsResponse.SectionStats> sections = new ArrayList<>();
+        for (Section section : Section.values()) {
+            Counters sectionCounters = counters.get(section);
+            long hits = sectionCounters.hits.sum();
+            long coalesced = sectionCounters.coalesced.sum();
+            long misses = sectionCounters.misses.sum();
+            long requests = hits + coalesced + misses;
+            sections.add(DashboardCacheStatsResponse.SectionStats.builder()
+                    .section(section.propertyName)
+                    .ttlSeconds(ttlMs.get(section) / 1000)
+                    .hits(hits)
+                    .coalesced(coalesced)
+                    .misses(misses)
+                    .hitRatio(requests == 0 ? 0.0 : (double) (hits + coalesced) / requests)
+                    .build());
+        }
+        return DashboardCacheStatsResponse.builder()
+                .entries(size)
+                .maxSize(maxSize)
+                .evictions(evictions.sum())
+                .invalidations(invalidations.sum())
+                .sections(sections)
+                .build();
+    }
+
+    private void removeSections(Source... sources) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> {
+                for (Source source : sources) {
+                    if (key.section().sources.contains(source)) {
+                        invalidations.increment();
+                        return true;
+                    }
+                }
+                return false;
+            });
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class Entry {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        // Loading entries never expire; the owner sets the deadline once the value is ready
+        private volatile long expiresAt = Long.MAX_VALUE;
+    }
+
+    private static class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
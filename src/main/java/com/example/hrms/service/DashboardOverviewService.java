@@ -0,0 +1,174 @@
+package com.example.hrms.service;
+
+import com.example.hrms.dto.response.AdminDashboardResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Builds every admin dashboard widget for one request.
+ * Sections are independent, so they run concurrently on a bounded pool, each in its own read-only
+ * transaction. The page waits at most section-timeout-ms; a section that is late or fails is
+ * reported as unavailable instead of failing the whole response.
+ */
+@Slf4j
+@Service
+public class DashboardOverviewService {
+    private final DashboardService dashboardService;
+    private final LeaveService leaveService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolExecutor executor;
+    private final long sectionTimeoutMs;
+
+    public DashboardOverviewService(DashboardService dashboardService,
+                                    LeaveService leaveService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.dashboard.overview.parallelism:8}") int parallelism,
+                                    @Value("${app.dashboard.overview.queue-capacity:100}") int queueCapacity,
+                                    @Value("${app.dashboard.overview.section-timeout-ms:3000}") long sectionTimeoutMs) {
+        this.dashboardService = dashboardService;
+        this.leaveService = leaveService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.sectionTimeoutMs = sectionTimeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, parallelism);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-section-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public AdminDashboardResponse getDashboard(String range, LocalDate startDate, LocalDate endDate,
+                                               Integer departmentId, int limit, int alertLimit) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new RuntimeException("startDate cannot be after endDate");
+        }
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMs);
+        AdminDashboardResponse response = new AdminDashboardResponse();
+
+        List<PendingSection<?>> sections = List.of(
+                submit("summary", dashboardService::getAdminSummary, response::setSummary),
+                submit("timekeeping-overview",
+                        () -> dashboardService.getTimekeepingOverview(range, startDate, endDate),
+                        response::setTimekeepingOverview),
+                submit("overtime-trend",
+                        () -> dashboardService.getOvertimeTrend(range, startDate, endDate, departmentId),
+                        response::setOvertimeTrend),
+                submit("leave-overview",
+                        () -> dashboardService.getLeaveOverview(range, startDate, endDate),
+                        response::setLeaveOverview),
+                submit("schedule-coverage",
+                        () -> dashboardService.getScheduleCoverage(range, startDate, endDate),
+                        response::setScheduleCoverage),
+                submit("employee-alerts", () -> dashboardService.getEmployeeAlerts(alertLimit),
+                        response::setEmployeeAlerts),
+                submit("pending-timekeeping", () -> dashboardService.getPendingTimekeeping(limit),
+                        response::setPendingTimekeeping),
+                submit("pending-leave",
+                        () -> leaveService.getPendingLeaveRequests(PageRequest.of(0, limit,
+                                Sort.by(Sort.Direction.DESC, "createdAt"))).getContent(),
+                        response::setPendingLeave),
+                submit("upcoming-holidays", () -> dashboardService.getUpcomingHolidays(Math.min(limit, 20)),
+                        response::setUpcomingHolidays),
+                submit("top-overtime-employees", () -> dashboardService.getTopOvertimeEmployees(limit),
+                        response::setTopOvertimeEmployees));
+
+        List<AdminDashboardResponse.UnavailableSection> unavailable = new ArrayList<>();
+        for (PendingSection<?> section : sections) {
+            String reason = section.await(deadline);
+            if (reason != null) {
+                unavailable.add(AdminDashboardResponse.UnavailableSection.builder()
+                        .section(section.name)
+                        .reason(reason)
+                        .build());
+            }
+        }
+
+        response.setUnavailableSections(unavailable);
+        response.setDurationMs(Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        if (!unavailable.isEmpty()) {
+            log.warn("Dashboard served without {} of {} sections in {} ms: {}",
+                    unavailable.size(), sections.size(), response.getDurationMs(), unavailable);
+        }
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> PendingSection<T> submit(String name, Supplier<T> loader, Consumer<T> target) {
+        try {
+            return new PendingSection<>(name,
+                    executor.submit(() -> readOnlyTransaction.execute(status -> loader.get())), target);
+        } catch (RejectedExecutionException e) {
+            // Pool and queue are full: skip the section rather than queue behind other requests
+            return new PendingSection<>(name, null, target);
+        }
+    }
+
+    private static class PendingSection<T> {
+        private final String name;
+        private final Future<T> future;
+        private final Consumer<T> target;
+
+        PendingSection(String name, Future<T> future, Consumer<T> target) {
+            this.name = name;
+            this.future = future;
+            this.target = target;
+        }
+
+        /**
+         * Wait until the shared deadline and hand the result to the response
+         * @return null on success, otherwise why the section is unavailable
+         */
+        String await(long deadlineNanos) {
+            if (future == null) {
+                return "BUSY";
+            }
+            try {
+                long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+                target.accept(future.get(remaining, TimeUnit.NANOSECONDS));
+                return null;
+            } catch (TimeoutException e) {
+                // Not interrupted: a late result still fills DashboardCache for the next request
+                future.cancel(false);
+                return "TIMEOUT";
+            } catch (ExecutionException e) {
+                log.warn("Dashboard section {} failed: {}", name, e.getCause().getMessage());
+                return e.getCause().getMessage() != null ? e.getCause().getMessage() : "ERROR";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return "INTERRUPTED";
+            }
+        }
+    }
+}
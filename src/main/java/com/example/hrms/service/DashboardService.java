@@ -8,6 +8,7 @@ import com.example.hrms.entity.WorkSchedule;
 import com.example.hrms.entity.WorkScheduleDepartment;
 import com.example.hrms.entity.WorkScheduleEmployee;
 import com.example.hrms.repository.*;
+import com.example.hrms.util.NumberUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -32,20 +33,76 @@ public class DashboardService {
     private final HolidayCalendarRepository holidayCalendarRepository;
     private final WorkScheduleRepository workScheduleRepository;
     private final TimekeepingService timekeepingService;
+    private final TimekeepingDailyRollupRepository timekeepingDailyRollupRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final StatusCountService statusCountService;
+    private final DashboardCache dashboardCache;
+
+    // Sections are cached by their resolved dates, so relative ranges roll over at midnight
 
     public AdminDashboardSummaryResponse getAdminSummary() {
         LocalDate today = LocalDate.now();
+        return dashboardCache.get(new DashboardCache.Key(DashboardCache.Section.SUMMARY, today, today, null, null),
+                () -> buildAdminSummary(today));
+    }
+
+    public TimekeepingOverviewResponse getTimekeepingOverview(String range, LocalDate startDate, LocalDate endDate) {
+        DateRange dateRange = resolveRange(range, startDate, endDate);
+        return dashboardCache.get(new DashboardCache.Key(DashboardCache.Section.TIMEKEEPING_OVERVIEW,
+                        dateRange.start(), dateRange.end(), null, null),
+                () -> buildTimekeepingOverview(dateRange));
+    }
+
+    public TimekeepingOvertimeTrendResponse getOvertimeTrend(String range,
+                                                             LocalDate startDate,
+                                                             LocalDate endDate,
+                                                             Integer departmentId) {
+        DateRange dateRange = resolveRange(range, startDate, endDate);
+        return dashboardCache.get(new DashboardCache.Key(DashboardCache.Section.OVERTIME_TREND,
+                        dateRange.start(), dateRange.end(), departmentId, null),
+                () -> buildOvertimeTrend(dateRange, departmentId));
+    }
+
+    public LeaveOverviewResponse getLeaveOverview(String range, LocalDate startDate, LocalDate endDate) {
+        DateRange dateRange = resolveRange(range, startDate, endDate);
+        return dashboardCache.get(new DashboardCache.Key(DashboardCache.Section.LEAVE_OVERVIEW,
+                        dateRange.start(), dateRange.end(), null, null),
+                () -> buildLeaveOverview(dateRange));
+    }
+
+    public ScheduleCoverageResponse getScheduleCoverage(String range, LocalDate startDate, LocalDate endDate) {
+        DateRange dateRange = resolveRange(range, startDate, endDate);
+        return dashboardCache.get(new DashboardCache.Key(DashboardCache.Section.SCHEDULE_COVERAGE,
+                        dateRange.start(), dateRange.end(), null, null),
+                () -> buildScheduleCoverage(dateRange));
+    }
+
+    public EmployeeAlertResponse getEmployeeAlerts(int limit) {
+        LocalDate today = LocalDate.now();
+        return dashboardCache.get(new DashboardCache.Key(DashboardCache.Section.EMPLOYEE_ALERTS, today, today, null, limit),
+                () -> buildEmployeeAlerts(today, limit));
+    }
+
+    public List<TopOvertimeEmployeeResponse> getTopOvertimeEmployees(int limit) {
+        LocalDate endDate = LocalDate.now();
+        return dashboardCache.get(new DashboardCache.Key(DashboardCache.Section.TOP_OVERTIME_EMPLOYEES,
+                        endDate, endDate, null, limit),
+                () -> buildTopOvertimeEmployees(endDate, limit));
+    }
+
+    private AdminDashboardSummaryResponse buildAdminSummary(LocalDate today) {
         LocalDate firstDayOfMonth = today.withDayOfMonth(1);
 
         long totalEmployees = employeeRepository.count();
         long activeEmployees = employeeRepository.countByStatus(Employee.EmploymentStatus.Active);
-        long pendingTimekeeping = timekeepingRepository.countByStatus(Timekeeping.Status.Pending);
-        long pendingLeaveRequests = onLeaveRepository.countByStatus(OnLeave.Status.Pending);
-        long todayCheckIns = timekeepingRepository.countByWorkDateAndCheckInIsNotNull(today);
+        // Uncached: this summary is itself cached and invalidated on writes
+        long pendingTimekeeping = statusCountService.loadTimekeepingCounts().get(Timekeeping.Status.Pending);
+        long pendingLeaveRequests = statusCountService.loadLeaveCounts().get(OnLeave.Status.Pending);
+        long todayCheckIns = timekeepingDailyRollupRepository.sumCheckInsByWorkDate(today);
         long todayAbsences = Math.max(0, activeEmployees - todayCheckIns);
 
-        BigDecimal overtimeHours = timekeepingRepository
-                .sumOvertimeHoursByStatusAndDateRange(firstDayOfMonth, today, Timekeeping.Status.Confirmed);
+        BigDecimal overtimeHours = timekeepingDailyRollupRepository
+                .sumConfirmedOvertimeHours(firstDayOfMonth, today);
 
         return AdminDashboardSummaryResponse.builder()
                 .totalEmployees(Math.toIntExact(totalEmployees))
@@ -60,9 +117,9 @@ public class DashboardService {
                 .build();
     }
 
-    public TimekeepingOverviewResponse getTimekeepingOverview(String range, LocalDate startDate, LocalDate endDate) {
-        DateRange dateRange = resolveRange(range, startDate, endDate);
-        List<Timekeeping> records = timekeepingRepository.findByWorkDateBetween(
+    private TimekeepingOverviewResponse buildTimekeepingOverview(DateRange dateRange) {
+        // One pre-aggregated row per day instead of every timekeeping entity in the range
+        List<Object[]> dailyCounts = timekeepingDailyRollupRepository.sumStatusCountsByDay(
                 dateRange.start(),
                 dateRange.end());
 
@@ -80,22 +137,22 @@ public class DashboardService {
         long totalConfirmed = 0;
         long totalError = 0;
 
-        for (Timekeeping record : records) {
-            LocalDate workDate = record.getWorkDate();
+        for (Object[] row : dailyCounts) {
+            LocalDate workDate = (LocalDate) row[0];
             if (workDate == null || !breakdownMap.containsKey(workDate)) {
                 continue;
             }
+            long pending = NumberUtil.toLong(row[1]);
+            long confirmed = NumberUtil.toLong(row[2]);
+            long error = NumberUtil.toLong(row[3]);
+
             TimekeepingOverviewResponse.DailyStatusBreakdown daily = breakdownMap.get(workDate);
-            if (record.getStatus() == Timekeeping.Status.Pending) {
-                daily.setPending(daily.getPending() + 1);
-                totalPending++;
-            } else if (record.getStatus() == Timekeeping.Status.Confirmed) {
-                daily.setConfirmed(daily.getConfirmed() + 1);
-                totalConfirmed++;
-            } else if (record.getStatus() == Timekeeping.Status.Error) {
-                daily.setError(daily.getError() + 1);
-                totalError++;
-            }
+            daily.setPending(daily.getPending() + pending);
+            daily.setConfirmed(daily.getConfirmed() + confirmed);
+            daily.setError(daily.getError() + error);
+            totalPending += pending;
+            totalConfirmed += confirmed;
+            totalError += error;
         }
 
         return TimekeepingOverviewResponse.builder()
@@ -108,12 +165,8 @@ public class DashboardService {
                 .build();
     }
 
-    public TimekeepingOvertimeTrendResponse getOvertimeTrend(String range,
-                                                             LocalDate startDate,
-                                                             LocalDate endDate,
-                                                             Integer departmentId) {
-        DateRange dateRange = resolveRange(range, startDate, endDate);
-        List<Timekeeping> records = timekeepingRepository.findByWorkDateBetweenAndDepartment(
+    private TimekeepingOvertimeTrendResponse buildOvertimeTrend(DateRange dateRange, Integer departmentId) {
+        List<Object[]> dailyOvertime = timekeepingDailyRollupRepository.sumConfirmedOvertimeByDay(
                 dateRange.start(),
                 dateRange.end(),
                 departmentId);
@@ -124,12 +177,9 @@ public class DashboardService {
         }
 
         BigDecimal totalOvertime = BigDecimal.ZERO;
-        for (Timekeeping record : records) {
-            if (record.getStatus() != Timekeeping.Status.Confirmed) {
-                continue;
-            }
-            BigDecimal overtime = record.getOvertimeHours() == null ? BigDecimal.ZERO : record.getOvertimeHours();
-            LocalDate date = record.getWorkDate();
+        for (Object[] row : dailyOvertime) {
+            BigDecimal overtime = NumberUtil.toBigDecimal(row[1]);
+            LocalDate date = (LocalDate) row[0];
             if (date == null || !overtimeByDay.containsKey(date)) {
                 continue;
             }
@@ -161,8 +211,7 @@ public class DashboardService {
                 .build();
     }
 
-    public LeaveOverviewResponse getLeaveOverview(String range, LocalDate startDate, LocalDate endDate) {
-        DateRange dateRange = resolveRange(range, startDate, endDate);
+    private LeaveOverviewResponse buildLeaveOverview(DateRange dateRange) {
         List<OnLeave> leaves = onLeaveRepository.findByDateRange(
                 dateRange.start(),
                 dateRange.end(),
@@ -246,8 +295,7 @@ public class DashboardService {
                 .collect(Collectors.toList());
     }
 
-    public ScheduleCoverageResponse getScheduleCoverage(String range, LocalDate startDate, LocalDate endDate) {
-        DateRange dateRange = resolveRange(range, startDate, endDate);
+    private ScheduleCoverageResponse buildScheduleCoverage(DateRange dateRange) {
         List<WorkSchedule> schedules = workScheduleRepository.findByDateRange(
                 dateRange.start(),
                 dateRange.end());
@@ -339,8 +387,7 @@ public class DashboardService {
                 .build();
     }
 
-    public EmployeeAlertResponse getEmployeeAlerts(int limit) {
-        LocalDate today = LocalDate.now();
+    private EmployeeAlertResponse buildEmployeeAlerts(LocalDate today, int limit) {
         List<EmployeeAlertResponse.AlertItem> alerts = new ArrayList<>();
 
         // Employees currently inactive/resigned
@@ -359,7 +406,7 @@ public class DashboardService {
                     .build());
         }
 
-        // Employees on long leave (>=5 days) overlapping today
+        // Employees on long leave (>=5 working days) overlapping today
         List<OnLeave> approvedLeaves = onLeaveRepository.findByDateRange(
                 today.minusWeeks(2),
                 today.plusWeeks(8),
@@ -369,7 +416,7 @@ public class DashboardService {
                 continue;
             }
             boolean currentlyOnLeave = !today.isBefore(leave.getFromDate()) && !today.isAfter(leave.getToDate());
-            long duration = ChronoUnit.DAYS.between(leave.getFromDate(), leave.getToDate()) + 1;
+            int duration = holidayCalendarIndex.countWorkingDays(leave.getFromDate(), leave.getToDate());
             if (currentlyOnLeave && duration >= 5 && leave.getEmployee() != null) {
                 alerts.add(EmployeeAlertResponse.AlertItem.builder()
                         .employeeId(leave.getEmployee().getEmployeeId())
@@ -379,7 +426,7 @@ public class DashboardService {
                                 ? leave.getEmployee().getDepartment().getDepartmentName()
                                 : null)
                         .alertType("LONG_LEAVE")
-                        .message(String.format("Nghỉ dài ngày (%d ngày)", duration))
+                        .message(String.format("Nghỉ dài ngày (%d ngày làm việc)", duration))
                         .fromDate(leave.getFromDate())
                         .toDate(leave.getToDate())
                         .build());
@@ -426,8 +473,7 @@ public class DashboardService {
                 .getContent();
     }
     
-    public List<TopOvertimeEmployeeResponse> getTopOvertimeEmployees(int limit) {
-        LocalDate endDate = LocalDate.now();
+    private List<TopOvertimeEmployeeResponse> buildTopOvertimeEmployees(LocalDate endDate, int limit) {
         LocalDate startDate = endDate.minusDays(29);
         List<Object[]> rows = timekeepingRepository.findTopOvertimeEmployees(
                 Timekeeping.Status.Confirmed,
@@ -441,11 +487,7 @@ public class DashboardService {
                         .employeeName((String) row[1])
                         .employeeEmail((String) row[2])
                         .departmentName((String) row[3])
-                        .overtimeHours(row[4] instanceof BigDecimal
-                                ? (BigDecimal) row[4]
-                                : row[4] instanceof Number
-                                    ? BigDecimal.valueOf(((Number) row[4]).doubleValue())
-                                    : BigDecimal.ZERO)
+                        .overtimeHours(NumberUtil.toBigDecimal(row[4]))
                         .build())
                 .collect(Collectors.toList());
     }
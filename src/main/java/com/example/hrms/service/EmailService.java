@@ -1,31 +1,32 @@
 package com.example.hrms.service;
 
+import com.example.hrms.entity.MailOutbox;
+import com.example.hrms.repository.MailOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+
+/**
+ * Composes outgoing mail and queues it in mail_outbox; MailOutboxDispatcher sends it in the background,
+ * so callers never wait on SMTP. Inside a transaction the mail is queued only if the transaction commits.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
-    private final JavaMailSender mailSender;
-
-    @Value("${app.mail.from}")
-    private String fromEmail;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailOutboxDispatcher mailOutboxDispatcher;
 
     @Value("${app.mail.frontend-url}")
     private String frontendUrl;
 
     public void sendAccountCreationEmail(String toEmail, String fullName, String username, String password) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Tài khoản HRMS của bạn đã được tạo");
-            
             String body = String.format(
                 "Xin chào %s,\n\n" +
                 "Tài khoản HRMS của bạn đã được tạo thành công.\n\n" +
@@ -38,23 +39,17 @@ public class EmailService {
                 "HRMS Team",
                 fullName, username, toEmail, password
             );
-            
-            message.setText(body);
-            mailSender.send(message);
-            log.info("Account creation email sent successfully to: {}", toEmail);
+
+            enqueue(toEmail, "Tài khoản HRMS của bạn đã được tạo", body);
+            log.info("Account creation email queued for: {}", toEmail);
         } catch (Exception e) {
-            log.error("Error sending account creation email to: {}", toEmail, e);
-            throw new RuntimeException("Failed to send account creation email: " + e.getMessage());
+            log.error("Error queuing account creation email to: {}", toEmail, e);
+            throw new RuntimeException("Failed to queue account creation email: " + e.getMessage());
         }
     }
 
     public void sendPasswordResetEmail(String toEmail, String fullName, String resetToken) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Đặt lại mật khẩu HRMS");
-            
             String resetLink = frontendUrl + "/reset-password?token=" + resetToken;
             
             String body = String.format(
@@ -68,13 +63,37 @@ public class EmailService {
                 "HRMS Team",
                 fullName, resetLink
             );
-            
-            message.setText(body);
-            mailSender.send(message);
-            log.info("Password reset email sent successfully to: {}", toEmail);
+
+            enqueue(toEmail, "Đặt lại mật khẩu HRMS", body);
+            log.info("Password reset email queued for: {}", toEmail);
         } catch (Exception e) {
-            log.error("Error sending password reset email to: {}", toEmail, e);
-            throw new RuntimeException("Failed to send password reset email: " + e.getMessage());
+            log.error("Error queuing password reset email to: {}", toEmail, e);
+            throw new RuntimeException("Failed to queue password reset email: " + e.getMessage());
+        }
+    }
+
+    private void enqueue(String toEmail, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        mailOutboxRepository.save(MailOutbox.builder()
+                .recipient(toEmail)
+                .subject(subject)
+                .body(body)
+                .status(MailOutbox.Status.Pending)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+
+        // Dispatch right away instead of waiting for the next poll
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mailOutboxDispatcher.wakeUp();
+                }
+            });
+        } else {
+            mailOutboxDispatcher.wakeUp();
         }
     }
 }
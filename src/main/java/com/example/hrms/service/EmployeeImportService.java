@@ -0,0 +1,563 @@
+package com.example.hrms.service;
+
+import com.example.hrms.dto.response.EmployeeImportResponse;
+import com.example.hrms.entity.Department;
+import com.example.hrms.entity.Employee;
+import com.example.hrms.entity.Role;
+import com.example.hrms.repository.DepartmentRepository;
+import com.example.hrms.repository.EmployeeRepository;
+import com.example.hrms.repository.RoleRepository;
+import com.example.hrms.repository.UserRepository;
+import com.example.hrms.security.PasswordHashingService;
+import com.example.hrms.util.TabularFileReader;
+import com.example.hrms.util.VietnameseTextUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk employee onboarding from a CSV or XLSX file.
+ * The file is read row by row and handled in chunks: rows are validated, duplicates resolved with
+ * one IN query per chunk, usernames reserved per base name through UsernameAllocator, passwords
+ * hashed in parallel, and employees and accounts written with JDBC batches in one transaction per chunk.
+ * A chunk that fails to insert is reported as failed without affecting chunks already committed.
+ */
+@Slf4j
+@Service
+public class EmployeeImportService {
+    private final EmployeeRepository employeeRepository;
+    private final UserRepository userRepository;
+    private final DepartmentRepository departmentRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final EmailService emailService;
+    private final EmployeeSearchIndex employeeSearchIndex;
+    private final DashboardCache dashboardCache;
+    private final UsernameAllocator usernameAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.employees.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.employees.import.max-rows:5000}")
+    private int maxRows;
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    // Strict like ISO parsing, so 31/02/2000 is rejected instead of becoming 29/02/2000
+    private static final DateTimeFormatter DAY_MONTH_YEAR = DateTimeFormatter.ofPattern("d/M/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+    // Excel stores dates as days since 1899-12-30
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+
+    private static final String INSERT_EMPLOYEE_SQL = "INSERT INTO employee " +
+            "(full_name, email, position, department_id, hire_date, date_of_birth, gender, address, phone, status, " +
+            "id_card, tax_code, bank_account, bank_name, emergency_contact, emergency_phone, notes, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // status -1: must change password on first login, as for single creates
+    private static final String INSERT_USER_SQL = "INSERT INTO `user` " +
+            "(username, email, password, role_id, employee_id, status, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, -1, ?, ?)";
+
+    public EmployeeImportService(EmployeeRepository employeeRepository,
+                                 UserRepository userRepository,
+                                 DepartmentRepository departmentRepository,
+                                 RoleRepository roleRepository,
+                                 PasswordHashingService passwordHashingService,
+                                 EmailService emailService,
+                                 EmployeeSearchIndex employeeSearchIndex,
+                                 DashboardCache dashboardCache,
+                                 UsernameAllocator usernameAllocator,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.userRepository = userRepository;
+        this.departmentRepository = departmentRepository;
+        this.roleRepository = roleRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.emailService = emailService;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.dashboardCache = dashboardCache;
+        this.usernameAllocator = usernameAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param dryRun validate and allocate usernames only; nothing is written
+     */
+    public EmployeeImportResponse importEmployees(MultipartFile file, boolean dryRun) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("Import file is empty");
+        }
+        long startNanos = System.nanoTime();
+        ImportContext context = new ImportContext(dryRun);
+        int effectiveChunkSize = Math.max(1, chunkSize);
+
+        try (InputStream input = file.getInputStream();
+             TabularFileReader reader = TabularFileReader.open(file.getOriginalFilename(), input)) {
+            Map<String, Integer> columns = readHeader(reader.nextRow());
+            List<ImportRow> chunk = new ArrayList<>();
+            int dataRows = 0;
+            List<String> values;
+            while ((values = reader.nextRow()) != null) {
+                if (values.stream().allMatch(String::isEmpty)) {
+                    continue;
+                }
+                if (++dataRows > maxRows) {
+                    context.fail(reader.getRowNumber(), null,
+                            "Row limit of " + maxRows + " reached; this and later rows were not imported");
+                    break;
+                }
+                chunk.add(new ImportRow(reader.getRowNumber(), columns, values));
+                if (chunk.size() >= effectiveChunkSize) {
+                    processChunk(chunk, context);
+                    chunk = new ArrayList<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, context);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read import file: " + e.getMessage());
+        }
+
+        if (context.created > 0) {
+            dashboardCache.invalidate(DashboardCache.Source.EMPLOYEE);
+        }
+        List<EmployeeImportResponse.RowResult> results = context.results;
+        results.sort(Comparator.comparing(EmployeeImportResponse.RowResult::getRowNumber));
+        long durationMs = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        log.info("Employee import{}: {} rows, {} created, {} failed ({} ms)", dryRun ? " (dry run)" : "",
+                results.size(), context.created, results.size() - context.created, durationMs);
+
+        return EmployeeImportResponse.builder()
+                .dryRun(dryRun)
+                .totalRows(results.size())
+                .created(context.created)
+                .failed(results.size() - context.created)
+                .durationMs(durationMs)
+                .results(results)
+                .build();
+    }
+
+    private Map<String, Integer> readHeader(List<String> header) {
+        if (header == null) {
+            throw new RuntimeException("Import file has no header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(headerKey(header.get(i)), i);
+        }
+        if (!columns.containsKey("fullname") || !columns.containsKey("email")) {
+            throw new RuntimeException("Import file must have fullName and email columns");
+        }
+        return columns;
+    }
+
+    // "Full Name", "full_name" and "fullName" all map to "fullname"
+    private static String headerKey(String header) {
+        return header.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    private void processChunk(List<ImportRow> chunk, ImportContext context) {
+        context.loadReferenceData();
+
+        // 1. Per-row validation, and duplicates within the file
+        List<Candidate> candidates = new ArrayList<>();
+        for (ImportRow row : chunk) {
+            try {
+                Candidate candidate = parse(row, context);
+                if (!context.emailsInFile.add(candidate.email.toLowerCase(Locale.ROOT))) {
+                    throw new RuntimeException("Duplicate email in file: " + candidate.email);
+                }
+                if (candidate.phone != null && !context.phonesInFile.add(candidate.phone)) {
+                    throw new RuntimeException("Duplicate phone in file: " + candidate.phone);
+                }
+                candidates.add(candidate);
+            } catch (RuntimeException e) {
+                context.fail(row.rowNumber, row.get("email"), e.getMessage());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // 2. Conflicts with existing data, one query per kind
+        List<String> emails = candidates.stream().map(candidate -> candidate.email).toList();
+        Set<String> takenEmails = new HashSet<>();
+        userRepository.findExistingEmails(emails).forEach(email -> takenEmails.add(email.toLowerCase(Locale.ROOT)));
+        employeeRepository.findExistingEmails(emails).forEach(email -> takenEmails.add(email.toLowerCase(Locale.ROOT)));
+        List<String> phones = candidates.stream().map(candidate -> candidate.phone).filter(Objects::nonNull).toList();
+        Set<String> takenPhones = phones.isEmpty() ? Set.of() : new HashSet<>(employeeRepository.findExistingPhones(phones));
+
+        List<Candidate> accepted = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (takenEmails.contains(candidate.email.toLowerCase(Locale.ROOT))) {
+                context.fail(candidate.rowNumber, candidate.email, "Email already exists: " + candidate.email);
+            } else if (candidate.phone != null && takenPhones.contains(candidate.phone)) {
+                context.fail(candidate.rowNumber, candidate.email, "Phone number already exists: " + candidate.phone);
+            } else {
+                accepted.add(candidate);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        context.assignUsernames(accepted);
+        if (context.dryRun) {
+            accepted.forEach(candidate -> context.succeed(candidate, null));
+            return;
+        }
+
+        // 3. Passwords: BCrypt dominates the cost of a chunk, so hash in parallel on the shared hashing pool
+        hashPasswords(accepted);
+
+        // 4. Insert employees, read back their ids, insert accounts, queue welcome mail
+        try {
+            Map<String, Integer> employeeIds = transactionTemplate.execute(status -> insertChunk(accepted));
+            for (Candidate candidate : accepted) {
+                context.succeed(candidate, employeeIds.get(candidate.email.toLowerCase(Locale.ROOT)));
+            }
+        } catch (RuntimeException e) {
+            log.error("Employee import chunk starting at row {} failed: {}", accepted.get(0).rowNumber, e.getMessage());
+            // Reserved usernames are not handed back; the counters just skip them
+            accepted.forEach(candidate ->
+                    context.fail(candidate.rowNumber, candidate.email, "Not imported: " + e.getMessage()));
+        }
+    }
+
+    private Map<String, Integer> insertChunk(List<Candidate> accepted) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_EMPLOYEE_SQL, accepted, accepted.size(), (ps, candidate) -> {
+            ps.setString(1, candidate.fullName);
+            ps.setString(2, candidate.email);
+            ps.setString(3, candidate.position);
+            ps.setObject(4, candidate.department != null ? candidate.department.getDepartmentId() : null);
+            ps.setDate(5, candidate.hireDate != null ? Date.valueOf(candidate.hireDate) : null);
+            ps.setDate(6, candidate.dateOfBirth != null ? Date.valueOf(candidate.dateOfBirth) : null);
+            ps.setString(7, candidate.gender);
+            ps.setString(8, candidate.address);
+            ps.setString(9, candidate.phone);
+            ps.setString(10, candidate.status.name());
+            ps.setString(11, candidate.idCard);
+            ps.setString(12, candidate.taxCode);
+            ps.setString(13, candidate.bankAccount);
+            ps.setString(14, candidate.bankName);
+            ps.setString(15, candidate.emergencyContact);
+            ps.setString(16, candidate.emergencyPhone);
+            ps.setString(17, candidate.notes);
+            ps.setTimestamp(18, now);
+            ps.setTimestamp(19, now);
+        });
+
+        Map<String, Integer> employeeIds = new HashMap<>();
+        for (Object[] row : employeeRepository.findIdsByEmails(accepted.stream().map(candidate -> candidate.email).toList())) {
+            employeeIds.put(((String) row[1]).toLowerCase(Locale.ROOT), (Integer) row[0]);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, accepted, accepted.size(), (ps, candidate) -> {
+            ps.setString(1, candidate.username);
+            ps.setString(2, candidate.email);
+            ps.setString(3, candidate.passwordHash);
+            ps.setInt(4, candidate.role.getRoleId());
+            ps.setInt(5, employeeIds.get(candidate.email.toLowerCase(Locale.ROOT)));
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+
+        // Outbox rows commit with the accounts; the temporary password is only ever sent by mail
+        for (Candidate candidate : accepted) {
+            emailService.sendAccountCreationEmail(candidate.email, candidate.fullName, candidate.username,
+                    candidate.password);
+        }
+        employeeSearchIndex.refresh(employeeIds.values().toArray(new Integer[0]));
+        return employeeIds;
+    }
+
+    private void hashPasswords(List<Candidate> candidates) {
+        List<String> passwords = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            candidate.password = EmployeeService.generateRandomPassword();
+            passwords.add(candidate.password);
+        }
+        List<String> hashes = passwordHashingService.encodeAll(passwords);
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).passwordHash = hashes.get(i);
+        }
+    }
+
+    private Candidate parse(ImportRow row, ImportContext context) {
+        Candidate candidate = new Candidate();
+        candidate.rowNumber = row.rowNumber;
+        candidate.fullName = required(row, "fullname", "Full name");
+        candidate.email = required(row, "email", "Email");
+        if (!EMAIL.matcher(candidate.email).matches()) {
+            throw new RuntimeException("Email must be a valid email: " + candidate.email);
+        }
+        candidate.phone = optional(row, "phone", 255);
+        candidate.position = optional(row, "position", 255);
+        candidate.hireDate = date(row, "hiredate");
+        candidate.dateOfBirth = date(row, "dateofbirth");
+        candidate.gender = optional(row, "gender", 255);
+        candidate.address = optional(row, "address", 65535);
+        candidate.idCard = optional(row, "idcard", 20);
+        candidate.taxCode = optional(row, "taxcode", 20);
+        candidate.bankAccount = optional(row, "bankaccount", 30);
+        candidate.bankName = optional(row, "bankname", 100);
+        candidate.emergencyContact = optional(row, "emergencycontact", 150);
+        candidate.emergencyPhone = optional(row, "emergencyphone", 15);
+        candidate.notes = optional(row, "notes", 255);
+
+        String status = row.get("status");
+        candidate.status = Employee.EmploymentStatus.Active;
+        if (status != null) {
+            candidate.status = Arrays.stream(Employee.EmploymentStatus.values())
+                    .filter(value -> value.name().equalsIgnoreCase(status))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Unknown status: " + status));
+        }
+
+        // Department by id (departmentId) or by name (department)
+        String departmentId = row.get("departmentid");
+        String departmentName = row.get("department");
+        if (departmentId != null) {
+            candidate.department = context.departmentsById.get(parseInteger(departmentId, "departmentId"));
+            if (candidate.department == null) {
+                throw new RuntimeException("Department not found with id: " + departmentId);
+            }
+        } else if (departmentName != null) {
+            candidate.department = context.departmentsByName.get(VietnameseTextUtil.normalize(departmentName));
+            if (candidate.department == null) {
+                throw new RuntimeException("Department not found: " + departmentName);
+            }
+        }
+
+        // Role by id (roleId) or key (role); EMPLOYEE by default
+        String roleId = row.get("roleid");
+        String roleKey = row.get("role");
+        if (roleId != null) {
+            candidate.role = context.rolesById.get(parseInteger(roleId, "roleId"));
+            if (candidate.role == null) {
+                throw new RuntimeException("Role not found with id: " + roleId);
+            }
+        } else if (roleKey != null) {
+            candidate.role = context.rolesByKey.get(roleKey.toUpperCase(Locale.ROOT));
+            if (candidate.role == null) {
+                throw new RuntimeException("Role not found: " + roleKey);
+            }
+        } else {
+            candidate.role = context.rolesByKey.get("EMPLOYEE");
+            if (candidate.role == null) {
+                throw new RuntimeException("Default EMPLOYEE role not found");
+            }
+        }
+
+        // Fails early on names that cannot produce a username
+        EmployeeService.baseUsername(candidate.fullName);
+        return candidate;
+    }
+
+    private static String required(ImportRow row, String column, String label) {
+        String value = row.get(column);
+        if (value == null) {
+            throw new RuntimeException(label + " is required");
+        }
+        if (value.length() > 255) {
+            throw new RuntimeException(label + " is longer than 255 characters");
+        }
+        return value;
+    }
+
+    private static String optional(ImportRow row, String column, int maxLength) {
+        String value = row.get(column);
+        if (value != null && value.length() > maxLength) {
+            throw new RuntimeException(column + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    // yyyy-MM-dd, d/M/yyyy or an Excel date serial
+    private static LocalDate date(ImportRow row, String column) {
+        String value = row.get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value.matches("\\d+(\\.0+)?")) {
+                return EXCEL_EPOCH.plusDays(Long.parseLong(value.replaceAll("\\..*", "")));
+            }
+            if (value.contains("/")) {
+                return LocalDate.parse(value, DAY_MONTH_YEAR);
+            }
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid date in " + column + ": " + value);
+        }
+    }
+
+    private static Integer parseInteger(String value, String column) {
+        try {
+            return Integer.valueOf(value.replaceAll("\\.0+$", ""));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid number in " + column + ": " + value);
+        }
+    }
+
+    private static class ImportRow {
+        private final int rowNumber;
+        private final Map<String, Integer> columns;
+        private final List<String> values;
+
+        ImportRow(int rowNumber, Map<String, Integer> columns, List<String> values) {
+            this.rowNumber = rowNumber;
+            this.columns = columns;
+            this.values = values;
+        }
+
+        // Blank cells and missing columns are null
+        String get(String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+                return null;
+            }
+            return values.get(index);
+        }
+    }
+
+    private static class Candidate {
+        private int rowNumber;
+        private String fullName;
+        private String email;
+        private String phone;
+        private String position;
+        private LocalDate hireDate;
+        private LocalDate dateOfBirth;
+        private String gender;
+        private String address;
+        private String idCard;
+        private String taxCode;
+        private String bankAccount;
+        private String bankName;
+        private String emergencyContact;
+        private String emergencyPhone;
+        private String notes;
+        private Employee.EmploymentStatus status;
+        private Department department;
+        private Role role;
+        private String username;
+        private String password;
+        private String passwordHash;
+    }
+
+    // State of one import run
+    private class ImportContext {
+        private final boolean dryRun;
+        private final List<EmployeeImportResponse.RowResult> results = new ArrayList<>();
+        private final Set<String> emailsInFile = new HashSet<>();
+        private final Set<String> phonesInFile = new HashSet<>();
+        private final Map<Integer, Department> departmentsById = new HashMap<>();
+        private final Map<String, Department> departmentsByName = new HashMap<>();
+        private final Map<Integer, Role> rolesById = new HashMap<>();
+        private final Map<String, Role> rolesByKey = new HashMap<>();
+        // Dry runs only: usernames already previewed per base, so rows sharing a base get distinct names
+        private final Map<String, Integer> previewedByBase = new HashMap<>();
+        private boolean referenceDataLoaded;
+        private int created;
+
+        ImportContext(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        // Departments and roles are read once per import
+        void loadReferenceData() {
+            if (referenceDataLoaded) {
+                return;
+            }
+            referenceDataLoaded = true;
+            for (Department department : departmentRepository.findAll()) {
+                departmentsById.put(department.getDepartmentId(), department);
+                if (department.getDepartmentName() != null) {
+                    departmentsByName.putIfAbsent(VietnameseTextUtil.normalize(department.getDepartmentName()), department);
+                }
+            }
+            for (Role role : roleRepository.findAll()) {
+                rolesById.put(role.getRoleId(), role);
+                if (role.getRoleKey() != null) {
+                    rolesByKey.put(role.getRoleKey().toUpperCase(Locale.ROOT), role);
+                }
+            }
+        }
+
+        // Same scheme as single creates; one reservation per distinct base name in the chunk
+        void assignUsernames(List<Candidate> candidates) {
+            Map<String, List<Candidate>> byBase = new LinkedHashMap<>();
+            for (Candidate candidate : candidates) {
+                byBase.computeIfAbsent(EmployeeService.baseUsername(candidate.fullName), base -> new ArrayList<>())
+                        .add(candidate);
+            }
+            byBase.forEach((base, group) -> {
+                List<String> usernames;
+                if (dryRun) {
+                    int previewed = previewedByBase.getOrDefault(base, 0);
+                    usernames = usernameAllocator.preview(base, previewed, group.size());
+                    previewedByBase.put(base, previewed + group.size());
+                } else {
+                    usernames = usernameAllocator.allocate(base, group.size());
+                }
+                for (int i = 0; i < group.size(); i++) {
+                    group.get(i).username = usernames.get(i);
+                }
+            });
+        }
+
+        void succeed(Candidate candidate, Integer employeeId) {
+            created++;
+            results.add(EmployeeImportResponse.RowResult.builder()
+                    .rowNumber(candidate.rowNumber)
+                    .email(candidate.email)
+                    .success(true)
+                    .employeeId(employeeId)
+                    .username(candidate.username)
+                    .message(dryRun ? "Valid" : "Created")
+                    .build());
+        }
+
+        void fail(int rowNumber, String email, String message) {
+            results.add(EmployeeImportResponse.RowResult.builder()
+                    .rowNumber(rowNumber)
+                    .email(email)
+                    .success(false)
+                    .message(message)
+                    .build());
+        }
+    }
+}
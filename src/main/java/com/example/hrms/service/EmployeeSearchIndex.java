@@ -0,0 +1,489 @@
+package com.example.hrms.service;
+
+import com.example.hrms.repository.EmployeeRepository;
+import com.example.hrms.util.VietnameseTextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process substring index over accent-folded employee name, email, phone and user account fields.
+ * Every field is split into trigrams; each trigram maps to a sorted array of employee IDs, so a search
+ * intersects a few posting lists and only verifies the surviving candidates.
+ * Name tokens and initials are precomputed per employee for ranked name search.
+ * Built at startup and refreshed per employee after create/update/delete commits. The index is per process,
+ * so EmployeeSearchIndexScheduler also rebuilds it periodically to pick up changes made on other instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeSearchIndex {
+    private final EmployeeRepository employeeRepository;
+
+    private static final int GRAM = 3;
+    private static final int[] EMPTY = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, IndexedEmployee> documents = new HashMap<>();
+    private Map<String, int[]> postings = new HashMap<>();
+    private Map<String, Set<Integer>> byInitials = new HashMap<>();
+    private volatile boolean ready;
+    // IDs reloaded while a rebuild is reading the database; replayed once the rebuilt maps are swapped in
+    private Set<Integer> reloadedDuringRebuild;
+
+    /**
+     * Indexed view of one employee; searchable fields are stored normalized (lowercase, accent-free)
+     */
+    public record IndexedEmployee(Integer employeeId, String fullName, String email, Integer departmentId,
+                                  String[] fields, String normalizedName, String[] nameTokens, String initials) {
+        boolean contains(String needle) {
+            for (String field : fields) {
+                if (field.contains(needle)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Build the index from a fresh read of every employee and swap it in. Employees reloaded while the
+     * rebuild runs are reloaded again after the swap, since the rebuild may have read them before their change.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            reloadedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Object[]> rows;
+        try {
+            rows = employeeRepository.findSearchDocuments();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                reloadedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        Map<Integer, IndexedEmployee> newDocuments = new HashMap<>();
+        for (Object[] row : rows) {
+            IndexedEmployee document = toDocument(row);
+            newDocuments.put(document.employeeId(), document);
+        }
+
+        Map<String, IntArrayBuilder> builders = new HashMap<>();
+        for (IndexedEmployee document : newDocuments.values()) {
+            for (String gram : grams(document)) {
+                builders.computeIfAbsent(gram, key -> new IntArrayBuilder()).add(document.employeeId());
+            }
+        }
+        Map<String, int[]> newPostings = new HashMap<>(builders.size() * 2);
+        builders.forEach((gram, builder) -> newPostings.put(gram, builder.toSortedArray()));
+
+        Map<String, Set<Integer>> newInitials = new HashMap<>();
+        for (IndexedEmployee document : newDocuments.values()) {
+            if (!document.initials().isEmpty()) {
+                newInitials.computeIfAbsent(document.initials(), key -> new HashSet<>()).add(document.employeeId());
+            }
+        }
+
+        Set<Integer> replay;
+        lock.writeLock().lock();
+        try {
+            documents = newDocuments;
+            postings = newPostings;
+            byInitials = newInitials;
+            replay = reloadedDuringRebuild;
+            reloadedDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!replay.isEmpty()) {
+            reload(replay);
+        }
+        log.info("Employee search index built: {} employees, {} trigrams in {} ms",
+                newDocuments.size(), newPostings.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Re-read the given employees from the database. Inside a transaction this runs after commit.
+     * Employees that no longer exist are dropped from the index.
+     */
+    public void refresh(Integer... employeeIds) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Integer id : employeeIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(ids);
+                }
+            });
+        } else {
+            reload(ids);
+        }
+    }
+
+    /**
+     * Employees whose name, email, phone, username or account email contains the term, ignoring case and accents.
+     * @param departmentIds restrict to these departments, or null for all
+     */
+    public List<IndexedEmployee> search(String term, Collection<Integer> departmentIds) {
+        String needle = VietnameseTextUtil.normalize(term);
+        List<IndexedEmployee> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Collection<IndexedEmployee> candidates;
+            if (needle.length() < GRAM) {
+                // Too short for trigrams: scan the in-memory documents
+                candidates = documents.values();
+            } else {
+                candidates = new ArrayList<>();
+                for (int id : candidateIds(needle)) {
+                    candidates.add(documents.get(id));
+                }
+            }
+            for (IndexedEmployee document : candidates) {
+                if (document != null && inDepartments(document, departmentIds) && document.contains(needle)) {
+                    result.add(document);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Employee with its relevance score for a ranked search
+     */
+    public record ScoredEmployee(IndexedEmployee employee, int score) {
+    }
+
+    /**
+     * Top-K employees for a free-text name query, best first.
+     * Matches accent-insensitively on the whole name, token prefixes ("nguy v" -> "Nguyễn Văn"),
+     * initials ("nva" -> "Nguyễn Văn An"), email/username prefixes and finally any substring.
+     */
+    public List<ScoredEmployee> rank(String query, Collection<Integer> departmentIds, int limit) {
+        String needle = VietnameseTextUtil.normalize(query);
+        if (needle.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String[] queryTokens = needle.split(" ");
+        String longestToken = queryTokens[0];
+        for (String token : queryTokens) {
+            if (token.length() > longestToken.length()) {
+                longestToken = token;
+            }
+        }
+
+        // Min-heap of the best `limit` matches
+        Comparator<ScoredEmployee> worstFirst = Comparator.comparingInt(ScoredEmployee::score)
+                .thenComparing(match -> match.employee().normalizedName(), Comparator.reverseOrder());
+        PriorityQueue<ScoredEmployee> best = new PriorityQueue<>(limit + 1, worstFirst);
+
+        lock.readLock().lock();
+        try {
+            Collection<IndexedEmployee> candidates;
+            if (longestToken.length() < GRAM) {
+                candidates = documents.values();
+            } else {
+                // Every match kind below implies the longest token occurs somewhere in the document
+                Set<IndexedEmployee> union = new LinkedHashSet<>();
+                for (int id : candidateIds(longestToken)) {
+                    union.add(documents.get(id));
+                }
+                if (queryTokens.length == 1) {
+                    for (Integer id : byInitials.getOrDefault(needle, Set.of())) {
+                        union.add(documents.get(id));
+                    }
+                }
+                candidates = union;
+            }
+
+            for (IndexedEmployee document : candidates) {
+                if (document == null || !inDepartments(document, departmentIds)) {
+                    continue;
+                }
+                int score = score(document, needle, queryTokens);
+                if (score > 0) {
+                    best.add(new ScoredEmployee(document, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ScoredEmployee> result = new ArrayList<>(best);
+        result.sort(worstFirst.reversed());
+        return result;
+    }
+
+    private static int score(IndexedEmployee document, String needle, String[] queryTokens) {
+        String name = document.normalizedName();
+        if (name.equals(needle)) {
+            return 100;
+        }
+        if (name.startsWith(needle)) {
+            return 90;
+        }
+
+        // Every query token must match a distinct name token, exactly or as a prefix
+        String[] nameTokens = document.nameTokens();
+        if (queryTokens.length <= nameTokens.length) {
+            boolean[] used = new boolean[nameTokens.length];
+            int tokenScore = 0;
+            int lastPosition = -1;
+            boolean inOrder = true;
+            boolean allMatched = true;
+            for (String token : queryTokens) {
+                int match = -1;
+                boolean exact = false;
+                for (int i = 0; i < nameTokens.length; i++) {
+                    if (used[i] || !nameTokens[i].startsWith(token)) {
+                        continue;
+                    }
+                    boolean isExact = nameTokens[i].length() == token.length();
+                    if (match < 0 || (isExact && !exact)) {
+                        match = i;
+                        exact = isExact;
+                    }
+                }
+                if (match < 0) {
+                    allMatched = false;
+                    break;
+                }
+                used[match] = true;
+                tokenScore += exact ? 4 : 2;
+                inOrder &= match > lastPosition;
+                lastPosition = match;
+            }
+            if (allMatched) {
+                // Vietnamese given name is the last token and the most distinctive one
+                boolean givenNameMatched = used[nameTokens.length - 1];
+                return 60 + Math.min(tokenScore, 16) + (inOrder ? 5 : 0) + (givenNameMatched ? 5 : 0);
+            }
+        }
+
+        if (queryTokens.length == 1 && needle.equals(document.initials())) {
+            return 55;
+        }
+
+        // Email, phone or username prefix (the name prefix case returned above)
+        for (String field : document.fields()) {
+            if (field.startsWith(needle)) {
+                return 45;
+            }
+        }
+        return document.contains(needle) ? 30 : 0;
+    }
+
+    private static boolean inDepartments(IndexedEmployee document, Collection<Integer> departmentIds) {
+        return departmentIds == null
+                || (document.departmentId() != null && departmentIds.contains(document.departmentId()));
+    }
+
+    private void reload(Set<Integer> ids) {
+        Map<Integer, IndexedEmployee> fresh = new HashMap<>();
+        for (Object[] row : employeeRepository.findSearchDocumentsByIds(ids)) {
+            IndexedEmployee document = toDocument(row);
+            fresh.put(document.employeeId(), document);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (reloadedDuringRebuild != null) {
+                reloadedDuringRebuild.addAll(ids);
+            }
+            for (Integer id : ids) {
+                IndexedEmployee previous = documents.remove(id);
+                if (previous != null) {
+                    for (String gram : grams(previous)) {
+                        removePosting(gram, id);
+                    }
+                    Set<Integer> sameInitials = byInitials.get(previous.initials());
+                    if (sameInitials != null && sameInitials.remove(id) && sameInitials.isEmpty()) {
+                        byInitials.remove(previous.initials());
+                    }
+                }
+                IndexedEmployee current = fresh.get(id);
+                if (current != null) {
+                    documents.put(id, current);
+                    for (String gram : grams(current)) {
+                        addPosting(gram, id);
+                    }
+                    if (!current.initials().isEmpty()) {
+                        byInitials.computeIfAbsent(current.initials(), key -> new HashSet<>()).add(id);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Intersect posting lists, smallest first
+    private int[] candidateIds(String needle) {
+        Set<String> needleGrams = new HashSet<>();
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            needleGrams.add(needle.substring(i, i + GRAM));
+        }
+        List<int[]> lists = new ArrayList<>(needleGrams.size());
+        for (String gram : needleGrams) {
+            int[] list = postings.get(gram);
+            if (list == null) {
+                return EMPTY;
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+
+        int[] current = lists.get(0);
+        for (int i = 1; i < lists.size() && current.length > 0; i++) {
+            current = intersect(current, lists.get(i));
+        }
+        return current;
+    }
+
+    private void addPosting(String gram, int id) {
+        int[] list = postings.getOrDefault(gram, EMPTY);
+        int index = Arrays.binarySearch(list, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        int[] updated = new int[list.length + 1];
+        System.arraycopy(list, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(list, insertAt, updated, insertAt + 1, list.length - insertAt);
+        postings.put(gram, updated);
+    }
+
+    private void removePosting(String gram, int id) {
+        int[] list = postings.get(gram);
+        if (list == null) {
+            return;
+        }
+        int index = Arrays.binarySearch(list, id);
+        if (index < 0) {
+            return;
+        }
+        if (list.length == 1) {
+            postings.remove(gram);
+            return;
+        }
+        int[] updated = new int[list.length - 1];
+        System.arraycopy(list, 0, updated, 0, index);
+        System.arraycopy(list, index + 1, updated, index, list.length - index - 1);
+        postings.put(gram, updated);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static Set<String> grams(IndexedEmployee document) {
+        Set<String> grams = new HashSet<>();
+        for (String field : document.fields()) {
+            for (int i = 0; i + GRAM <= field.length(); i++) {
+                grams.add(field.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    // Row layout: [employeeId, fullName, email, phone, departmentId, username, userEmail]
+    private static IndexedEmployee toDocument(Object[] row) {
+        String normalizedName = VietnameseTextUtil.normalize((String) row[1]);
+        List<String> fields = new ArrayList<>(5);
+        if (!normalizedName.isEmpty()) {
+            fields.add(normalizedName);
+        }
+        for (int column : new int[]{2, 3, 5, 6}) {
+            String value = VietnameseTextUtil.normalize((String) row[column]);
+            if (!value.isEmpty()) {
+                fields.add(value);
+            }
+        }
+
+        String[] nameTokens = normalizedName.isEmpty() ? new String[0] : normalizedName.split(" ");
+        StringBuilder initials = new StringBuilder();
+        for (String token : nameTokens) {
+            initials.append(token.charAt(0));
+        }
+        return new IndexedEmployee((Integer) row[0], (String) row[1], (String) row[2], (Integer) row[4],
+                fields.toArray(new String[0]), normalizedName, nameTokens, initials.toString());
+    }
+
+    private static final class IntArrayBuilder {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toSortedArray() {
+            int[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
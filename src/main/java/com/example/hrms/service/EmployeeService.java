@@ -9,10 +9,15 @@ import com.example.hrms.repository.DepartmentRepository;
 import com.example.hrms.repository.EmployeeRepository;
 import com.example.hrms.repository.RoleRepository;
 import com.example.hrms.repository.UserRepository;
+import com.example.hrms.security.PrincipalCache;
+import com.example.hrms.util.VietnameseTextUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -20,7 +25,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -32,6 +44,19 @@ public class EmployeeService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final PrincipalCache principalCache;
+    private final EmployeeSearchIndex employeeSearchIndex;
+    private final LeaveBalanceService leaveBalanceService;
+    private final DashboardCache dashboardCache;
+    private final UsernameAllocator usernameAllocator;
+    private final AttendanceRollupService attendanceRollupService;
+
+    // Default orders for search-index pages, matching the database listings
+    private static final Comparator<EmployeeSearchIndex.IndexedEmployee> BY_EMPLOYEE_ID =
+            Comparator.comparing(EmployeeSearchIndex.IndexedEmployee::employeeId);
+    private static final Comparator<EmployeeSearchIndex.IndexedEmployee> BY_FULL_NAME =
+            Comparator.comparing(EmployeeSearchIndex.IndexedEmployee::fullName,
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)).thenComparing(BY_EMPLOYEE_ID);
 
     @Transactional
     public EmployeeResponse createEmployee(CreateEmployeeRequest request) {
@@ -42,14 +67,6 @@ public class EmployeeService {
             throw new RuntimeException("Email already exists: " + email);
         }
 
-        // Generate username from fullName using algorithm: tên.viết tắt họ, tên đệm
-        String username = generateUsernameFromFullName(request.getFullName());
-        
-        // Check if username already exists
-        if (userRepository.findByUsername(username).isPresent()) {
-            throw new RuntimeException("Username already exists: " + username);
-        }
-
         // Generate random password if not provided
         String password = request.getPassword();
         if (password == null || password.trim().isEmpty()) {
@@ -105,6 +122,10 @@ public class EmployeeService {
 
         employee = employeeRepository.save(employee);
 
+        // Generate username from fullName using algorithm: tên.viết tắt họ, tên đệm
+        // Reserved after validation so rejected requests do not use up suffixes
+        String username = generateUsernameFromFullName(request.getFullName());
+
         // Create User (username is separate from email)
         // Set mustChangePassword = true for new users
         User user = User.builder()
@@ -119,6 +140,8 @@ public class EmployeeService {
                 .build();
 
         user = userRepository.save(user);
+        employeeSearchIndex.refresh(employee.getEmployeeId());
+        dashboardCache.invalidate(DashboardCache.Source.EMPLOYEE);
 
         // Send email with account information (username and password)
         try {
@@ -128,7 +151,7 @@ public class EmployeeService {
                 username,
                 password // Send plain password in email (this is the only time it's sent)
             );
-            log.info("Account creation email sent to: {}", email);
+            log.info("Account creation email queued for: {}", email);
         } catch (Exception e) {
             log.error("Failed to send account creation email to: {}", email, e);
             // Don't throw exception - account is already created, email failure shouldn't fail the operation
@@ -139,12 +162,13 @@ public class EmployeeService {
     }
 
     public Page<EmployeeResponse> getAllEmployees(String search, Integer departmentId, Pageable pageable) {
-        Page<Employee> employees = employeeRepository.searchEmployees(search, departmentId, pageable);
-        return employees.map(employee -> {
-            User user = userRepository.findByEmployee(employee)
-                    .orElse(null);
-            return mapToResponse(employee, user);
-        });
+        if (search != null && !search.trim().isEmpty() && employeeSearchIndex.isReady()) {
+            List<EmployeeSearchIndex.IndexedEmployee> matches = employeeSearchIndex.search(
+                    search, departmentId != null ? Set.of(departmentId) : null);
+            return pageSearchMatches(matches, pageable, BY_EMPLOYEE_ID);
+        }
+        // Single projection query: no per-row user or department lookups
+        return employeeRepository.searchEmployeeResponses(search, departmentId, pageable);
     }
 
     public EmployeeResponse getEmployeeById(Integer id) {
@@ -157,6 +181,61 @@ public class EmployeeService {
         return mapToResponse(employee, user);
     }
 
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+
+    /**
+     * Ranked, accent-insensitive employee search ("nguyen van a" finds "Nguyễn Văn A"), best matches first
+     */
+    public List<EmployeeSearchResultResponse> searchEmployeesRanked(String keyword, Integer departmentId, Integer limit) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return List.of();
+        }
+        int topK = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+
+        if (!employeeSearchIndex.isReady()) {
+            // Index still loading: plain LIKE search, unranked
+            return employeeRepository.searchEmployeeResponses(keyword, departmentId, PageRequest.of(0, topK))
+                    .map(row -> toSearchResult(row, null))
+                    .getContent();
+        }
+
+        List<EmployeeSearchIndex.ScoredEmployee> ranked = employeeSearchIndex.rank(
+                keyword, departmentId != null ? Set.of(departmentId) : null, topK);
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> ids = ranked.stream().map(match -> match.employee().employeeId()).toList();
+        Map<Integer, EmployeeResponse> rows = new HashMap<>();
+        for (EmployeeResponse row : employeeRepository.findEmployeeResponsesByIds(ids)) {
+            rows.putIfAbsent(row.getEmployeeId(), row);
+        }
+
+        List<EmployeeSearchResultResponse> results = new ArrayList<>(ranked.size());
+        for (EmployeeSearchIndex.ScoredEmployee match : ranked) {
+            EmployeeResponse row = rows.get(match.employee().employeeId());
+            if (row != null) {
+                results.add(toSearchResult(row, match.score()));
+            }
+        }
+        return results;
+    }
+
+    private static EmployeeSearchResultResponse toSearchResult(EmployeeResponse row, Integer score) {
+        return EmployeeSearchResultResponse.builder()
+                .employeeId(row.getEmployeeId())
+                .fullName(row.getFullName())
+                .email(row.getEmail())
+                .phone(row.getPhone())
+                .position(row.getPosition())
+                .departmentId(row.getDepartmentId())
+                .departmentName(row.getDepartmentName())
+                .username(row.getUsername())
+                .status(row.getStatus())
+                .score(score)
+                .build();
+    }
+
     /**
      * Get employees of the department(s) managed by the current admin user
      * Admin can manage multiple departments, so this returns all employees from all managed departments
@@ -181,21 +260,71 @@ public class EmployeeService {
             return Page.empty(pageable);
         }
 
-        // Get all employees from all managed departments
-        Page<Employee> employees;
-        if (search != null && !search.trim().isEmpty()) {
-            // Search in all managed departments
-            employees = employeeRepository.findByDepartmentsAndSearch(managedDepartments, search, pageable);
-        } else {
-            // Get all employees from all managed departments
-            employees = employeeRepository.findByDepartments(managedDepartments, pageable);
+        // Get all employees from all managed departments in a single projection query
+        List<Integer> departmentIds = managedDepartments.stream()
+                .map(Department::getDepartmentId)
+                .toList();
+        String keyword = search != null && !search.trim().isEmpty() ? search : null;
+        if (keyword != null && employeeSearchIndex.isReady()) {
+            List<EmployeeSearchIndex.IndexedEmployee> matches = employeeSearchIndex.search(
+                    keyword, new HashSet<>(departmentIds));
+            return pageSearchMatches(matches, pageable, BY_FULL_NAME);
         }
+        return employeeRepository.findEmployeeResponsesByDepartments(departmentIds, keyword, pageable);
+    }
 
-        return employees.map(employee -> {
-            User user = userRepository.findByEmployee(employee)
-                    .orElse(null);
-            return mapToResponse(employee, user);
-        });
+    /**
+     * Page search-index matches: sort and slice in memory, then load only the page rows in one query.
+     * Sorting on a field the index does not hold falls back to the database with the matching IDs.
+     */
+    private Page<EmployeeResponse> pageSearchMatches(List<EmployeeSearchIndex.IndexedEmployee> matches,
+                                                     Pageable pageable,
+                                                     Comparator<EmployeeSearchIndex.IndexedEmployee> defaultOrder) {
+        if (matches.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Comparator<EmployeeSearchIndex.IndexedEmployee> comparator = defaultOrder;
+        if (pageable.getSort().isSorted()) {
+            comparator = null;
+            for (Sort.Order order : pageable.getSort()) {
+                Comparator<EmployeeSearchIndex.IndexedEmployee> next = switch (order.getProperty()) {
+                    case "employeeId" -> BY_EMPLOYEE_ID;
+                    case "fullName" -> Comparator.comparing(EmployeeSearchIndex.IndexedEmployee::fullName,
+                            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                    case "email" -> Comparator.comparing(EmployeeSearchIndex.IndexedEmployee::email,
+                            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                    default -> null;
+                };
+                if (next == null) {
+                    List<Integer> ids = matches.stream().map(EmployeeSearchIndex.IndexedEmployee::employeeId).toList();
+                    return employeeRepository.findEmployeeResponsesByIds(ids, pageable);
+                }
+                next = order.isDescending() ? next.reversed() : next;
+                comparator = comparator == null ? next : comparator.thenComparing(next);
+            }
+        }
+
+        List<EmployeeSearchIndex.IndexedEmployee> sorted = new ArrayList<>(matches);
+        sorted.sort(comparator);
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), sorted.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), sorted.size()) : sorted.size();
+        List<Integer> pageIds = sorted.subList(from, to).stream()
+                .map(EmployeeSearchIndex.IndexedEmployee::employeeId)
+                .toList();
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, sorted.size());
+        }
+
+        Map<Integer, EmployeeResponse> rows = new HashMap<>();
+        for (EmployeeResponse row : employeeRepository.findEmployeeResponsesByIds(pageIds)) {
+            rows.putIfAbsent(row.getEmployeeId(), row);
+        }
+        List<EmployeeResponse> content = pageIds.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, sorted.size());
     }
 
     public EmployeeResponse getMyEmployee(User currentUser) {
@@ -267,6 +396,7 @@ public class EmployeeService {
 
         employee.setUpdatedAt(LocalDateTime.now());
         employee = employeeRepository.save(employee);
+        employeeSearchIndex.refresh(employee.getEmployeeId());
 
         return mapToMyProfileResponse(employee, currentUser);
     }
@@ -304,6 +434,8 @@ public class EmployeeService {
 
         User user = userRepository.findByEmployee(employee)
                 .orElseThrow(() -> new RuntimeException("User not found for employee id: " + id));
+        String previousEmail = user.getEmail();
+        Integer previousDepartmentId = employee.getDepartment() != null ? employee.getDepartment().getDepartmentId() : null;
 
         // Update Employee fields
         if (request.getDepartmentId() != null) {
@@ -315,6 +447,10 @@ public class EmployeeService {
             employee.setPosition(request.getPosition());
         }
         if (request.getHireDate() != null) {
+            if (!request.getHireDate().equals(employee.getHireDate())) {
+                // Entitlement depends on the hire date
+                leaveBalanceService.evictEmployee(employee.getEmployeeId());
+            }
             employee.setHireDate(request.getHireDate());
         }
         if (request.getDateOfBirth() != null) {
@@ -341,6 +477,11 @@ public class EmployeeService {
         employee.setUpdatedAt(LocalDateTime.now());
 
         employee = employeeRepository.save(employee);
+        Integer departmentId = employee.getDepartment() != null ? employee.getDepartment().getDepartmentId() : null;
+        if (!Objects.equals(previousDepartmentId, departmentId)) {
+            // Rollup buckets are per department: carry the employee's history over
+            attendanceRollupService.moveEmployee(employee.getEmployeeId(), previousDepartmentId, departmentId);
+        }
 
         // Update Employee fullName
         if (request.getFullName() != null) {
@@ -354,6 +495,7 @@ public class EmployeeService {
                 throw new RuntimeException("Username already exists: " + request.getUsername());
             }
             user.setUsername(request.getUsername());
+            usernameAllocator.recordUsername(request.getUsername());
         }
         
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
@@ -375,6 +517,9 @@ public class EmployeeService {
         user.setUpdatedAt(LocalDateTime.now());
 
         user = userRepository.save(user);
+        principalCache.evict(previousEmail, user.getEmail());
+        employeeSearchIndex.refresh(employee.getEmployeeId());
+        dashboardCache.invalidate(DashboardCache.Source.EMPLOYEE);
 
         return mapToResponse(employee, user);
     }
@@ -388,6 +533,7 @@ public class EmployeeService {
         employee.setStatus(Employee.EmploymentStatus.Inactive);
         employee.setUpdatedAt(LocalDateTime.now());
         employeeRepository.save(employee);
+        dashboardCache.invalidate(DashboardCache.Source.EMPLOYEE);
     }
 
     private EmployeeResponse mapToResponse(Employee employee, User user) {
@@ -438,6 +584,16 @@ public class EmployeeService {
      * If exists, append number: "cong.hvt1", "cong.hvt2", etc.
      */
     private String generateUsernameFromFullName(String fullName) {
+        String baseUsername = baseUsername(fullName);
+
+        // B7: Lấy hậu tố kế tiếp từ bộ đếm theo tiền tố (không dò từng username)
+        return usernameAllocator.allocate(baseUsername);
+    }
+
+    /**
+     * Username before de-duplication (steps B1-B6), also used by the bulk import
+     */
+    static String baseUsername(String fullName) {
         if (fullName == null || fullName.trim().isEmpty()) {
             throw new RuntimeException("Full name cannot be empty for username generation");
         }
@@ -446,7 +602,7 @@ public class EmployeeService {
         String normalized = fullName.trim().toLowerCase();
 
         // B2: Chuyển về không dấu
-        normalized = removeVietnameseAccent(normalized);
+        normalized = VietnameseTextUtil.removeAccent(normalized);
 
         // B3: Tách phần họ, tên đệm, tên
         String[] parts = normalized.split("\\s+");
@@ -466,55 +622,14 @@ public class EmployeeService {
         }
 
         // B6: Ghép lại theo định dạng: ten.hoTenDemVietTat
-        String baseUsername = ten + "." + initials;
-
-        // B7: Kiểm tra trùng username (không phân biệt hoa/thường)
-        int counter = 1;
-        String username = baseUsername;
-
-        while (userRepository.findByUsernameIgnoreCase(username).isPresent()) {
-            username = baseUsername + counter;
-            counter++;
-
-            // tránh vòng lặp vô hạn nếu trùng quá nhiều
-            if (counter > 1000) {
-                username = baseUsername + System.currentTimeMillis();
-                break;
-            }
-        }
-
-        return username;
+        return ten + "." + initials;
     }
 
 
-    /**
-     * Remove Vietnamese accents from a character
-     */
-    private String removeVietnameseAccent(String text) {
-        if (text == null || text.isEmpty()) {
-            return text;
-        }
-        // Convert Vietnamese characters to ASCII equivalents
-        return text.replaceAll("[àáạảãâầấậẩẫăằắặẳẵ]", "a")
-                .replaceAll("[èéẹẻẽêềếệểễ]", "e")
-                .replaceAll("[ìíịỉĩ]", "i")
-                .replaceAll("[òóọỏõôồốộổỗơờớợởỡ]", "o")
-                .replaceAll("[ùúụủũưừứựửữ]", "u")
-                .replaceAll("[ỳýỵỷỹ]", "y")
-                .replaceAll("[đ]", "d")
-                .replaceAll("[ÀÁẠẢÃÂẦẤẬẨẪĂẰẮẶẲẴ]", "A")
-                .replaceAll("[ÈÉẸẺẼÊỀẾỆỂỄ]", "E")
-                .replaceAll("[ÌÍỊỈĨ]", "I")
-                .replaceAll("[ÒÓỌỎÕÔỒỐỘỔỖƠỜỚỢỞỠ]", "O")
-                .replaceAll("[ÙÚỤỦŨƯỪỨỰỬỮ]", "U")
-                .replaceAll("[ỲÝỴỶỸ]", "Y")
-                .replaceAll("[Đ]", "D");
-    }
-
     /**
      * Generate a random password
      */
-    private String generateRandomPassword() {
+    static String generateRandomPassword() {
         String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*";
         SecureRandom random = new SecureRandom();
         StringBuilder password = new StringBuilder();
@@ -0,0 +1,225 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.HolidayCalendar;
+import com.example.hrms.repository.HolidayCalendarRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide, in-memory view of the holiday calendar and working-day calendar.
+ * The whole holiday table is loaded once and kept as a name map plus a per-year prefix-sum table of working days,
+ * so holiday/weekend checks never hit the database and "working days between A and B" costs two table lookups
+ * for the end years plus a binary search over the holidays for any full years in between.
+ * HolidayService calls {@link #invalidate()} after holidays are created or deleted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HolidayCalendarIndex {
+    private final HolidayCalendarRepository holidayCalendarRepository;
+
+    private volatile Snapshot snapshot;
+
+    // Prefix tables are cached for this window around the current year; other years are built per call
+    private static final int CACHED_YEARS_BACK = 10;
+    private static final int CACHED_YEARS_AHEAD = 5;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Returns the holiday name if the date is a holiday, null otherwise
+     */
+    public String getHolidayName(LocalDate date) {
+        return current().holidayNames.get(date);
+    }
+
+    public boolean isHoliday(LocalDate date) {
+        return current().holidayNames.containsKey(date);
+    }
+
+    /**
+     * Check if the date is a weekend (Saturday or Sunday)
+     */
+    public boolean isWeekend(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+    }
+
+    public boolean isHolidayOrWeekend(LocalDate date) {
+        return isWeekend(date) || isHoliday(date);
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        int[] prefix = current().workingDays(date.getYear());
+        return prefix[date.getDayOfYear()] > prefix[date.getDayOfYear() - 1];
+    }
+
+    /**
+     * Number of working days (not weekend, not holiday) between two dates, both inclusive.
+     * Returns 0 when either date is null or startDate is after endDate.
+     */
+    public int countWorkingDays(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            return 0;
+        }
+        Snapshot current = current();
+        if (startDate.getYear() == endDate.getYear()) {
+            int[] prefix = current.workingDays(startDate.getYear());
+            return prefix[endDate.getDayOfYear()] - prefix[startDate.getDayOfYear() - 1];
+        }
+
+        // Tail of the first year, full middle years, head of the last year
+        int[] first = current.workingDays(startDate.getYear());
+        long total = first[first.length - 1] - first[startDate.getDayOfYear() - 1];
+        if (endDate.getYear() - startDate.getYear() > 1) {
+            // Middle years are counted arithmetically, so the cost does not grow with the span
+            total += current.countWithoutTables(LocalDate.of(startDate.getYear() + 1, 1, 1),
+                    LocalDate.of(endDate.getYear() - 1, 12, 31));
+        }
+        total += current.workingDays(endDate.getYear())[endDate.getDayOfYear()];
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Working days in a calendar month
+     */
+    public int countWorkingDaysInMonth(int year, int month) {
+        LocalDate startDate = LocalDate.of(year, month, 1);
+        return countWorkingDays(startDate, startDate.withDayOfMonth(startDate.lengthOfMonth()));
+    }
+
+    /**
+     * Drop the cached calendar. When called inside a transaction the reload waits for the commit,
+     * so readers never rebuild the index from uncommitted (or rolled back) holiday rows.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized void reload() {
+        snapshot = load();
+    }
+
+    private Snapshot load() {
+        Map<LocalDate, String> names = new HashMap<>();
+        for (HolidayCalendar holiday : holidayCalendarRepository.findAll()) {
+            names.put(holiday.getHolidayDate(), holiday.getHolidayName());
+        }
+        log.info("Loaded holiday calendar index with {} holidays", names.size());
+        return new Snapshot(Map.copyOf(names));
+    }
+
+    private static boolean isWeekend(DayOfWeek dayOfWeek) {
+        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+    }
+
+    /**
+     * Immutable holiday map; per-year prefix tables are built on first use and never modified afterwards.
+     * Only years near the load date are kept, so callers passing far-off dates cannot grow the cache.
+     */
+    private static final class Snapshot {
+        private final Map<LocalDate, String> holidayNames;
+        // Holidays that fall on a weekday, sorted; weekend holidays do not change the count
+        private final LocalDate[] weekdayHolidays;
+        private final ConcurrentMap<Integer, int[]> workingDaysByYear = new ConcurrentHashMap<>();
+        private final int firstCachedYear;
+        private final int lastCachedYear;
+
+        private Snapshot(Map<LocalDate, String> holidayNames) {
+            this.holidayNames = holidayNames;
+            this.weekdayHolidays = holidayNames.keySet().stream()
+                    .filter(date -> !isWeekend(date.getDayOfWeek()))
+                    .sorted()
+                    .toArray(LocalDate[]::new);
+            int currentYear = LocalDate.now().getYear();
+            this.firstCachedYear = currentYear - CACHED_YEARS_BACK;
+            this.lastCachedYear = currentYear + CACHED_YEARS_AHEAD;
+        }
+
+        private int[] workingDays(int year) {
+            if (year < firstCachedYear || year > lastCachedYear) {
+                return buildYear(year);
+            }
+            return workingDaysByYear.computeIfAbsent(year, this::buildYear);
+        }
+
+        // Weekdays in the range minus weekday holidays in it, both inclusive
+        private long countWithoutTables(LocalDate startDate, LocalDate endDate) {
+            long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+            long weekdays = days / 7 * 5;
+            DayOfWeek dayOfWeek = startDate.getDayOfWeek();
+            for (long i = 0; i < days % 7; i++, dayOfWeek = dayOfWeek.plus(1)) {
+                if (!isWeekend(dayOfWeek)) {
+                    weekdays++;
+                }
+            }
+            return weekdays - (indexAfter(endDate) - indexAfter(startDate.minusDays(1)));
+        }
+
+        // Number of weekday holidays on or before the date
+        private int indexAfter(LocalDate date) {
+            int low = 0;
+            int high = weekdayHolidays.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (weekdayHolidays[mid].isAfter(date)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        // prefix[n] = number of working days among the first n days of the year
+        private int[] buildYear(int year) {
+            int[] prefix = new int[LocalDate.of(year, 1, 1).lengthOfYear() + 1];
+            for (int i = 1; i < prefix.length; i++) {
+                // ofYearDay rather than plusDays, which would overflow after the last day of LocalDate.MAX's year
+                LocalDate date = LocalDate.ofYearDay(year, i);
+                boolean weekend = isWeekend(date.getDayOfWeek());
+                prefix[i] = prefix[i - 1] + (weekend || holidayNames.containsKey(date) ? 0 : 1);
+            }
+            return prefix;
+        }
+    }
+}
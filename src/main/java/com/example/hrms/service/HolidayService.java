@@ -17,6 +17,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class HolidayService {
     private final HolidayCalendarRepository holidayCalendarRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final LeaveBalanceService leaveBalanceService;
 
     /**
      * Lấy danh sách ngày nghỉ lễ
@@ -53,7 +55,7 @@ public class HolidayService {
      * Kiểm tra một ngày có phải là ngày nghỉ lễ không
      */
     public boolean isHoliday(LocalDate date) {
-        return holidayCalendarRepository.existsByHolidayDate(date);
+        return holidayCalendarIndex.isHoliday(date);
     }
 
     /**
@@ -73,6 +75,9 @@ public class HolidayService {
                 .build();
 
         holiday = holidayCalendarRepository.save(holiday);
+        holidayCalendarIndex.invalidate();
+        // Leave day counts of that year change; balances are re-seeded on next access
+        leaveBalanceService.evictYear(holiday.getHolidayDate().getYear());
         return mapToResponse(holiday);
     }
 
@@ -85,6 +90,8 @@ public class HolidayService {
                 .orElseThrow(() -> new RuntimeException("Holiday not found with id: " + holidayId));
         
         holidayCalendarRepository.delete(holiday);
+        holidayCalendarIndex.invalidate();
+        leaveBalanceService.evictYear(holiday.getHolidayDate().getYear());
     }
 
     /**
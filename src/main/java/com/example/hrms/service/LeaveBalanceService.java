@@ -0,0 +1,202 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.Employee;
+import com.example.hrms.entity.LeaveBalance;
+import com.example.hrms.entity.OnLeave;
+import com.example.hrms.repository.LeaveBalanceRepository;
+import com.example.hrms.repository.OnLeaveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maintains the per-employee, per-year annual leave ledger (leave_balance).
+ * Balance checks read a single keyed row; every change to an annual leave request applies
+ * a delta to that row in the same transaction. A missing row is seeded from the employee's
+ * annual leave history, so rows can be dropped whenever their inputs change (hire date, holidays).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaveBalanceService {
+    private final LeaveBalanceRepository leaveBalanceRepository;
+    private final OnLeaveRepository onLeaveRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
+
+    // Standard entitlement: 12 days per year, pro-rated in the hire year
+    private static final int ANNUAL_ENTITLEMENT_DAYS = 12;
+
+    /**
+     * Ledger row of an employee for a year, seeded on first access
+     */
+    @Transactional
+    public LeaveBalance getBalance(Employee employee, int year) {
+        return leaveBalanceRepository.findByEmployeeIdAndYear(employee.getEmployeeId(), year)
+                .orElseGet(() -> {
+                    seed(employee, year);
+                    return leaveBalanceRepository.findByEmployeeIdAndYear(employee.getEmployeeId(), year)
+                            .orElseThrow(() -> new RuntimeException(
+                                    "Leave balance not found for employee " + employee.getEmployeeId() + " in " + year));
+                });
+    }
+
+    /**
+     * Working days of a leave period counted against each year's entitlement, keyed by year
+     */
+    public Map<Integer, Integer> countDaysByYear(Employee employee, LocalDate fromDate, LocalDate toDate) {
+        Map<Integer, Integer> days = new LinkedHashMap<>();
+        if (fromDate == null || toDate == null) {
+            return days;
+        }
+        for (int year = fromDate.getYear(); year <= toDate.getYear(); year++) {
+            int count = countDaysInYear(employee, fromDate, toDate, year);
+            if (count > 0) {
+                days.put(year, count);
+            }
+        }
+        return days;
+    }
+
+    @Transactional
+    public void addPending(Employee employee, LocalDate fromDate, LocalDate toDate) {
+        applyDelta(employee, fromDate, toDate, 0, 1);
+    }
+
+    @Transactional
+    public void removePending(Employee employee, LocalDate fromDate, LocalDate toDate) {
+        applyDelta(employee, fromDate, toDate, 0, -1);
+    }
+
+    // Pending -> used
+    @Transactional
+    public void approvePending(Employee employee, LocalDate fromDate, LocalDate toDate) {
+        applyDelta(employee, fromDate, toDate, 1, -1);
+    }
+
+    // Batch variants: one delta per employee and year instead of one per request
+    @Transactional
+    public void removePending(Collection<OnLeave> leaves) {
+        applyDeltas(leaves, 0, -1);
+    }
+
+    @Transactional
+    public void approvePending(Collection<OnLeave> leaves) {
+        applyDeltas(leaves, 1, -1);
+    }
+
+    /**
+     * Drop an employee's ledger rows (e.g. hire date changed); they are re-seeded on next access
+     */
+    @Transactional
+    public void evictEmployee(Integer employeeId) {
+        leaveBalanceRepository.deleteByEmployeeId(employeeId);
+    }
+
+    /**
+     * Drop all ledger rows of a year (e.g. holiday calendar changed); they are re-seeded on next access
+     */
+    @Transactional
+    public void evictYear(int year) {
+        leaveBalanceRepository.deleteByYear(year);
+    }
+
+    /**
+     * The change must already be applied to the onleave row: when the ledger row is missing it is
+     * seeded from the current history, which then includes this change, so no delta is added on top.
+     */
+    private void applyDelta(Employee employee, LocalDate fromDate, LocalDate toDate, int usedSign, int pendingSign) {
+        for (Map.Entry<Integer, Integer> entry : countDaysByYear(employee, fromDate, toDate).entrySet()) {
+            int year = entry.getKey();
+            int days = entry.getValue();
+            if (leaveBalanceRepository.addDelta(employee.getEmployeeId(), year, usedSign * days, pendingSign * days) > 0) {
+                continue;
+            }
+            if (!seed(employee, year)) {
+                // Another transaction created the row between the update and the insert
+                leaveBalanceRepository.addDelta(employee.getEmployeeId(), year, usedSign * days, pendingSign * days);
+            }
+        }
+    }
+
+    private void applyDeltas(Collection<OnLeave> leaves, int usedSign, int pendingSign) {
+        Map<Integer, Employee> employees = new HashMap<>();
+        Map<Integer, Map<Integer, Integer>> daysByEmployee = new HashMap<>();
+        for (OnLeave leave : leaves) {
+            Employee employee = leave.getEmployee();
+            employees.putIfAbsent(employee.getEmployeeId(), employee);
+            Map<Integer, Integer> days = daysByEmployee.computeIfAbsent(employee.getEmployeeId(), id -> new HashMap<>());
+            countDaysByYear(employee, leave.getFromDate(), leave.getToDate()).forEach((year, count) -> days.merge(year, count, Integer::sum));
+        }
+
+        daysByEmployee.forEach((employeeId, days) -> days.forEach((year, count) -> {
+            if (leaveBalanceRepository.addDelta(employeeId, year, usedSign * count, pendingSign * count) == 0
+                    && !seed(employees.get(employeeId), year)) {
+                leaveBalanceRepository.addDelta(employeeId, year, usedSign * count, pendingSign * count);
+            }
+        }));
+    }
+
+    // Insert the row computed from the leave history; returns false if it already existed
+    private boolean seed(Employee employee, int year) {
+        LocalDate yearStart = LocalDate.of(year, 1, 1);
+        LocalDate yearEnd = LocalDate.of(year, 12, 31);
+
+        int used = 0;
+        int pending = 0;
+        for (Object[] row : onLeaveRepository.findAnnualLeavePeriods(
+                employee.getEmployeeId(), yearStart, yearEnd, OnLeave.Status.Rejected)) {
+            int days = countDaysInYear(employee, (LocalDate) row[0], (LocalDate) row[1], year);
+            if (row[2] == OnLeave.Status.Approved) {
+                used += days;
+            } else {
+                pending += days;
+            }
+        }
+
+        boolean inserted = leaveBalanceRepository.insertIfAbsent(
+                employee.getEmployeeId(), year, calculateEntitlement(employee, year), used, pending) > 0;
+        if (inserted) {
+            log.debug("Seeded leave balance of employee {} for {}: used={}, pending={}",
+                    employee.getEmployeeId(), year, used, pending);
+        }
+        return inserted;
+    }
+
+    /**
+     * Annual leave entitlement based on hire date: 12 days per year,
+     * pro-rated by months worked in the hire year, 12 days when the hire date is unknown
+     */
+    private int calculateEntitlement(Employee employee, int year) {
+        LocalDate hireDate = employee.getHireDate();
+        if (hireDate == null || hireDate.getYear() < year) {
+            return ANNUAL_ENTITLEMENT_DAYS;
+        }
+        if (hireDate.getYear() > year) {
+            return 0;
+        }
+        long monthsWorked = ChronoUnit.MONTHS.between(
+                hireDate.withDayOfMonth(1),
+                LocalDate.of(year + 1, 1, 1));
+        return (int) Math.round(ANNUAL_ENTITLEMENT_DAYS * monthsWorked / 12.0);
+    }
+
+    // Working days of the period inside the year, not counting days before the hire date
+    private int countDaysInYear(Employee employee, LocalDate fromDate, LocalDate toDate, int year) {
+        LocalDate start = LocalDate.of(year, 1, 1);
+        if (employee.getHireDate() != null && employee.getHireDate().isAfter(start)) {
+            start = employee.getHireDate();
+        }
+        LocalDate end = LocalDate.of(year, 12, 31);
+        LocalDate actualStart = fromDate.isBefore(start) ? start : fromDate;
+        LocalDate actualEnd = toDate.isAfter(end) ? end : toDate;
+        return holidayCalendarIndex.countWorkingDays(actualStart, actualEnd);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.OnLeave;
+import com.example.hrms.repository.OnLeaveRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Date-based leave lookups shared by leave, schedule and timekeeping code.
+ * Every method is a single range query on onleave served by idx_onleave_employee_dates
+ * or idx_onleave_status_dates; nothing loads an employee's whole leave history.
+ */
+@Service
+@RequiredArgsConstructor
+public class LeaveCalendarService {
+    private final OnLeaveRepository onLeaveRepository;
+
+    /**
+     * Pending or approved requests of an employee overlapping [fromDate, toDate]
+     * @param excludedRequestId request to ignore (the one being updated), may be null
+     */
+    public List<OnLeave> findConflictingRequests(Integer employeeId, LocalDate fromDate, LocalDate toDate,
+                                                 Integer excludedRequestId) {
+        return onLeaveRepository.findOverlapping(employeeId, fromDate, toDate,
+                OnLeave.Status.Rejected, excludedRequestId);
+    }
+
+    public boolean hasConflictingRequest(Integer employeeId, LocalDate fromDate, LocalDate toDate,
+                                         Integer excludedRequestId) {
+        return !findConflictingRequests(employeeId, fromDate, toDate, excludedRequestId).isEmpty();
+    }
+
+    public boolean isOnApprovedLeave(Integer employeeId, LocalDate date) {
+        if (employeeId == null || date == null) {
+            return false;
+        }
+        return onLeaveRepository.existsCovering(employeeId, date, OnLeave.Status.Approved);
+    }
+
+    /**
+     * Employees whose approved leave covers the date
+     */
+    public Set<Integer> getEmployeesOnApprovedLeave(LocalDate date) {
+        return new HashSet<>(onLeaveRepository.findEmployeeIdsCovering(date, OnLeave.Status.Approved));
+    }
+
+    /**
+     * Dates in [startDate, endDate] covered by approved leave, per employee
+     * @param employeeId restrict to one employee, or null for everyone
+     */
+    public Map<Integer, Set<LocalDate>> getApprovedLeaveDates(LocalDate startDate, LocalDate endDate, Integer employeeId) {
+        Map<Integer, Set<LocalDate>> dates = new HashMap<>();
+        for (Object[] row : onLeaveRepository.findPeriodsInRange(startDate, endDate, OnLeave.Status.Approved, employeeId)) {
+            LocalDate from = ((LocalDate) row[1]).isBefore(startDate) ? startDate : (LocalDate) row[1];
+            LocalDate to = ((LocalDate) row[2]).isAfter(endDate) ? endDate : (LocalDate) row[2];
+            Set<LocalDate> employeeDates = dates.computeIfAbsent((Integer) row[0], id -> new HashSet<>());
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                employeeDates.add(date);
+            }
+        }
+        return dates;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.hrms.service;
 import com.example.hrms.dto.request.*;
 import com.example.hrms.dto.response.*;
 import com.example.hrms.entity.Employee;
+import com.example.hrms.entity.LeaveBalance;
 import com.example.hrms.entity.LeaveType;
 import com.example.hrms.entity.OnLeave;
 import com.example.hrms.entity.User;
@@ -18,7 +19,13 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +34,15 @@ public class LeaveService {
     private final OnLeaveRepository onLeaveRepository;
     private final UserRepository userRepository;
     private final LeaveTypeRepository leaveTypeRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final LeaveBalanceService leaveBalanceService;
+    private final LeaveCalendarService leaveCalendarService;
+    private final NotificationService notificationService;
+    private final DashboardCache dashboardCache;
+
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_LEAVE_DAYS = 366;
+    private static final int MAX_LEAVE_HORIZON_YEARS = 2;
 
     public User getCurrentUser() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -55,6 +71,8 @@ public class LeaveService {
             throw new RuntimeException("From date cannot be in the past");
         }
 
+        validateLeavePeriod(request.getFromDate(), request.getToDate());
+
         // Find leave type by ID
         LeaveType leaveType = leaveTypeRepository.findById(request.getLeavetypeId())
                 .orElseThrow(() -> new RuntimeException("Leave type not found with id: " + request.getLeavetypeId()));
@@ -64,31 +82,20 @@ public class LeaveService {
             throw new RuntimeException("Leave type is not active: " + leaveType.getLeaveName());
         }
 
-        // Calculate number of leave days (inclusive of both start and end date)
-        long leaveDays = ChronoUnit.DAYS.between(request.getFromDate(), request.getToDate()) + 1;
+        // Calculate number of leave days (working days only, inclusive of both start and end date)
+        long leaveDays = holidayCalendarIndex.countWorkingDays(request.getFromDate(), request.getToDate());
+        if (leaveDays == 0) {
+            throw new RuntimeException("Leave period does not contain any working day");
+        }
 
         // Business logic: Check remaining annual leave days if it's annual leave
-        if (leaveType.getLeaveName() != null && 
-            (leaveType.getLeaveName().contains("Nghỉ phép năm") || 
-             leaveType.getLeaveName().contains("Annual") ||
-             leaveType.getLeaveName().toLowerCase().contains("annual leave"))) {
-            
-            int remainingDays = calculateRemainingAnnualLeaveDays(employee, LocalDate.now().getYear());
-            if (leaveDays > remainingDays) {
-                throw new RuntimeException(String.format(
-                    "Insufficient annual leave days. Requested: %d days, Remaining: %d days", 
-                    leaveDays, remainingDays));
-            }
+        if (leaveType.isAnnual()) {
+            checkAnnualLeaveBalance(employee, request.getFromDate(), request.getToDate(), null);
         }
 
         // Check for overlapping leave requests (same employee, overlapping dates, not rejected)
-        List<OnLeave> existingLeaves = onLeaveRepository.findByEmployee(employee).stream()
-                .filter(l -> l.getStatus() != OnLeave.Status.Rejected)
-                .filter(l -> !(l.getToDate().isBefore(request.getFromDate()) || 
-                              l.getFromDate().isAfter(request.getToDate())))
-                .collect(Collectors.toList());
-        
-        if (!existingLeaves.isEmpty()) {
+        if (leaveCalendarService.hasConflictingRequest(
+                employee.getEmployeeId(), request.getFromDate(), request.getToDate(), null)) {
             throw new RuntimeException("You already have a leave request for this period");
         }
 
@@ -115,63 +122,32 @@ public class LeaveService {
                 .build();
 
         leaveRequest = onLeaveRepository.save(leaveRequest);
+        if (leaveType.isAnnual()) {
+            leaveBalanceService.addPending(employee, leaveRequest.getFromDate(), leaveRequest.getToDate());
+        }
+        dashboardCache.invalidate(DashboardCache.Source.LEAVE);
         return mapToResponse(leaveRequest);
     }
 
     /**
-     * Calculate remaining annual leave days for an employee in a given year
-     * Logic: Based on hire date, calculate annual leave entitlement, 
-     * then subtract already approved/annual leave days
+     * Check the requested period against the annual leave ledger, year by year.
+     * Days already reserved by pending requests are not available; the request being
+     * updated (if it was annual leave) gives its own days back.
      */
-    private int calculateRemainingAnnualLeaveDays(Employee employee, int year) {
-        if (employee.getHireDate() == null) {
-            // Default to 12 days if employee info is not available
-            return 12;
-        }
-
-        LocalDate hireDate = employee.getHireDate();
-        LocalDate yearStart = LocalDate.of(year, 1, 1);
-        LocalDate yearEnd = LocalDate.of(year, 12, 31);
-        
-        // Calculate annual leave entitlement based on hire date
-        // Standard: 12 days per year, pro-rated based on months worked
-        int annualLeaveEntitlement;
-        
-        if (hireDate.getYear() == year) {
-            // First year: pro-rated based on months from hire date to end of year
-            long monthsWorked = ChronoUnit.MONTHS.between(
-                hireDate.withDayOfMonth(1), 
-                yearEnd.withDayOfMonth(1).plusMonths(1)
-            );
-            annualLeaveEntitlement = (int) Math.round(12.0 * monthsWorked / 12.0);
-        } else if (hireDate.getYear() < year) {
-            // Full year entitlement
-            annualLeaveEntitlement = 12;
-        } else {
-            // Future year (shouldn't happen)
-            return 0;
-        }
-        
-        // Calculate used annual leave days (only approved requests for this year)
-        LocalDate startDate = yearStart.isBefore(hireDate) ? hireDate : yearStart;
-        
-        List<OnLeave> approvedAnnualLeaves = onLeaveRepository.findByEmployee(employee).stream()
-                .filter(l -> l.getStatus() == OnLeave.Status.Approved)
-                .filter(l -> l.getLeaveType() != null && 
-                            (l.getLeaveType().getLeaveName().contains("Nghỉ phép năm") || 
-                             l.getLeaveType().getLeaveName().contains("Annual") ||
-                             l.getLeaveType().getLeaveName().toLowerCase().contains("annual leave")))
-                .filter(l -> !l.getToDate().isBefore(startDate) && !l.getFromDate().isAfter(yearEnd))
-                .collect(Collectors.toList());
-        
-        int usedDays = 0;
-        for (OnLeave leave : approvedAnnualLeaves) {
-            LocalDate actualStart = leave.getFromDate().isBefore(startDate) ? startDate : leave.getFromDate();
-            LocalDate actualEnd = leave.getToDate().isAfter(yearEnd) ? yearEnd : leave.getToDate();
-            usedDays += (int) (ChronoUnit.DAYS.between(actualStart, actualEnd) + 1);
+    private void checkAnnualLeaveBalance(Employee employee, LocalDate fromDate, LocalDate toDate, OnLeave current) {
+        Map<Integer, Integer> currentDays = current != null && current.getLeaveType() != null && current.getLeaveType().isAnnual()
+                ? leaveBalanceService.countDaysByYear(employee, current.getFromDate(), current.getToDate())
+                : Map.of();
+
+        for (Map.Entry<Integer, Integer> entry : leaveBalanceService.countDaysByYear(employee, fromDate, toDate).entrySet()) {
+            int remainingDays = leaveBalanceService.getBalance(employee, entry.getKey()).getAvailableDays()
+                    + currentDays.getOrDefault(entry.getKey(), 0);
+            if (entry.getValue() > remainingDays) {
+                throw new RuntimeException(String.format(
+                    "Insufficient annual leave days. Requested: %d days, Remaining: %d days",
+                    entry.getValue(), remainingDays));
+            }
         }
-        
-        return Math.max(0, annualLeaveEntitlement - usedDays);
     }
 
     public List<LeaveRequestResponse> getMyLeaveRequests(
@@ -277,18 +253,16 @@ public class LeaveService {
             }
         }
         
-        int entitlement = 12; // Default annual leave entitlement
-        int remaining = calculateRemainingAnnualLeaveDays(employee, LocalDate.now().getYear());
-        int used = entitlement - remaining;
-        
+        LeaveBalance balance = leaveBalanceService.getBalance(employee, LocalDate.now().getYear());
+
         return LeaveSummaryResponse.builder()
                 .totalLeaveDays(totalDays)
                 .approvedLeaveDays(approvedDays)
                 .pendingLeaveDays(pendingDays)
                 .rejectedLeaveDays(rejectedDays)
-                .annualLeaveEntitlement(entitlement)
-                .usedAnnualLeaveDays(Math.max(0, used))
-                .remainingAnnualLeaveDays(Math.max(0, remaining))
+                .annualLeaveEntitlement(balance.getEntitlementDays())
+                .usedAnnualLeaveDays(balance.getUsedDays())
+                .remainingAnnualLeaveDays(balance.getRemainingDays())
                 .leaveDaysByType(typeSummaryMap.entrySet().stream()
                         .collect(java.util.stream.Collectors.toMap(
                                 java.util.Map.Entry::getKey,
@@ -298,11 +272,21 @@ public class LeaveService {
                 .build();
     }
 
+    // Bounds what a single request can make the working-day count cover
+    private static void validateLeavePeriod(LocalDate fromDate, LocalDate toDate) {
+        if (ChronoUnit.DAYS.between(fromDate, toDate) + 1 > MAX_LEAVE_DAYS) {
+            throw new RuntimeException("Leave period cannot exceed " + MAX_LEAVE_DAYS + " days");
+        }
+        if (toDate.isAfter(LocalDate.now().plusYears(MAX_LEAVE_HORIZON_YEARS))) {
+            throw new RuntimeException("Leave can be requested at most " + MAX_LEAVE_HORIZON_YEARS + " years ahead");
+        }
+    }
+
     private int calculateLeaveDays(OnLeave request) {
         if (request.getFromDate() == null || request.getToDate() == null) {
             return 0;
         }
-        return (int) (java.time.temporal.ChronoUnit.DAYS.between(request.getFromDate(), request.getToDate()) + 1);
+        return holidayCalendarIndex.countWorkingDays(request.getFromDate(), request.getToDate());
     }
 
     @Transactional
@@ -332,6 +316,8 @@ public class LeaveService {
             throw new RuntimeException("From date cannot be in the past");
         }
 
+        validateLeavePeriod(request.getFromDate(), request.getToDate());
+
         // Find leave type by ID
         LeaveType leaveType = leaveTypeRepository.findById(request.getLeavetypeId())
                 .orElseThrow(() -> new RuntimeException("Leave type not found with id: " + request.getLeavetypeId()));
@@ -341,47 +327,27 @@ public class LeaveService {
             throw new RuntimeException("Leave type is not active: " + leaveType.getLeaveName());
         }
 
-        // Calculate number of leave days
-        long leaveDays = ChronoUnit.DAYS.between(request.getFromDate(), request.getToDate()) + 1;
+        // Calculate number of leave days (working days only)
+        long leaveDays = holidayCalendarIndex.countWorkingDays(request.getFromDate(), request.getToDate());
+        if (leaveDays == 0) {
+            throw new RuntimeException("Leave period does not contain any working day");
+        }
 
         // Business logic: Check remaining annual leave days if it's annual leave
-        if (leaveType.getLeaveName() != null && 
-            (leaveType.getLeaveName().contains("Nghỉ phép năm") || 
-             leaveType.getLeaveName().contains("Annual") ||
-             leaveType.getLeaveName().toLowerCase().contains("annual leave"))) {
-            
-            // Calculate remaining days excluding the current request
-            int remainingDays = calculateRemainingAnnualLeaveDays(employee, LocalDate.now().getYear());
-            
-            // If the current request was annual leave, add those days back
-            if (leaveRequest.getLeaveType() != null && 
-                (leaveRequest.getLeaveType().getLeaveName().contains("Nghỉ phép năm") || 
-                 leaveRequest.getLeaveType().getLeaveName().contains("Annual") ||
-                 leaveRequest.getLeaveType().getLeaveName().toLowerCase().contains("annual leave"))) {
-                long currentRequestDays = ChronoUnit.DAYS.between(
-                    leaveRequest.getFromDate(), leaveRequest.getToDate()) + 1;
-                remainingDays += (int) currentRequestDays;
-            }
-            
-            if (leaveDays > remainingDays) {
-                throw new RuntimeException(String.format(
-                    "Insufficient annual leave days. Requested: %d days, Remaining: %d days", 
-                    leaveDays, remainingDays));
-            }
+        if (leaveType.isAnnual()) {
+            checkAnnualLeaveBalance(employee, request.getFromDate(), request.getToDate(), leaveRequest);
         }
 
         // Check for overlapping leave requests (exclude current request)
-        List<OnLeave> existingLeaves = onLeaveRepository.findByEmployee(employee).stream()
-                .filter(l -> !l.getRequestId().equals(requestId)) // Exclude current request
-                .filter(l -> l.getStatus() != OnLeave.Status.Rejected)
-                .filter(l -> !(l.getToDate().isBefore(request.getFromDate()) || 
-                              l.getFromDate().isAfter(request.getToDate())))
-                .collect(Collectors.toList());
-        
-        if (!existingLeaves.isEmpty()) {
+        if (leaveCalendarService.hasConflictingRequest(
+                employee.getEmployeeId(), request.getFromDate(), request.getToDate(), requestId)) {
             throw new RuntimeException("You already have a leave request for this period");
         }
 
+        boolean wasAnnual = leaveRequest.getLeaveType() != null && leaveRequest.getLeaveType().isAnnual();
+        LocalDate previousFromDate = leaveRequest.getFromDate();
+        LocalDate previousToDate = leaveRequest.getToDate();
+
         // Update leave request
         leaveRequest.setLeaveType(leaveType);
         leaveRequest.setFromDate(request.getFromDate());
@@ -398,6 +364,13 @@ public class LeaveService {
         }
 
         leaveRequest = onLeaveRepository.save(leaveRequest);
+        if (wasAnnual) {
+            leaveBalanceService.removePending(employee, previousFromDate, previousToDate);
+        }
+        if (leaveType.isAnnual()) {
+            leaveBalanceService.addPending(employee, leaveRequest.getFromDate(), leaveRequest.getToDate());
+        }
+        dashboardCache.invalidate(DashboardCache.Source.LEAVE);
         return mapToResponse(leaveRequest);
     }
 
@@ -421,6 +394,10 @@ public class LeaveService {
 
         // Delete the leave request
         onLeaveRepository.delete(leaveRequest);
+        if (isAnnual(leaveRequest)) {
+            leaveBalanceService.removePending(leaveRequest.getEmployee(), leaveRequest.getFromDate(), leaveRequest.getToDate());
+        }
+        dashboardCache.invalidate(DashboardCache.Source.LEAVE);
     }
 
     public Page<LeaveRequestResponse> getPendingLeaveRequests(Pageable pageable) {
@@ -476,6 +453,11 @@ public class LeaveService {
         leaveRequest.setProcessedDate(LocalDateTime.now());
         leaveRequest.setUpdatedAt(LocalDateTime.now());
         leaveRequest = onLeaveRepository.save(leaveRequest);
+        if (isAnnual(leaveRequest)) {
+            leaveBalanceService.approvePending(leaveRequest.getEmployee(), leaveRequest.getFromDate(), leaveRequest.getToDate());
+        }
+        notifyDecision(List.of(leaveRequest), OnLeave.Status.Approved, null);
+        dashboardCache.invalidate(DashboardCache.Source.LEAVE);
 
         return mapToResponse(leaveRequest);
     }
@@ -504,10 +486,140 @@ public class LeaveService {
         
         leaveRequest.setUpdatedAt(LocalDateTime.now());
         leaveRequest = onLeaveRepository.save(leaveRequest);
+        if (isAnnual(leaveRequest)) {
+            leaveBalanceService.removePending(leaveRequest.getEmployee(), leaveRequest.getFromDate(), leaveRequest.getToDate());
+        }
+        notifyDecision(List.of(leaveRequest), OnLeave.Status.Rejected, request.getRejectionReason());
+        dashboardCache.invalidate(DashboardCache.Source.LEAVE);
 
         return mapToResponse(leaveRequest, request.getRejectionReason());
     }
 
+    @Transactional
+    public BatchLeaveActionResponse batchApproveLeaveRequests(BatchLeaveApproveRequest request) {
+        return processBatch(request.getRequestIds(), OnLeave.Status.Approved, null);
+    }
+
+    @Transactional
+    public BatchLeaveActionResponse batchRejectLeaveRequests(BatchLeaveRejectRequest request) {
+        return processBatch(request.getRequestIds(), OnLeave.Status.Rejected, request.getRejectionReason());
+    }
+
+    /**
+     * Load and validate all requests with one query, move the valid ones with a single UPDATE,
+     * then adjust leave balances and queue notifications for after commit.
+     * Invalid items are reported individually and do not block the others.
+     */
+    private BatchLeaveActionResponse processBatch(List<Integer> requestIds, OnLeave.Status decision, String rejectionReason) {
+        User admin = getCurrentUser();
+        List<Integer> ids = requestIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Cannot process more than " + MAX_BATCH_SIZE + " leave requests at once");
+        }
+
+        Map<Integer, OnLeave> found = new HashMap<>();
+        for (OnLeave leave : onLeaveRepository.findAllWithEmployeeByIdIn(ids)) {
+            found.put(leave.getRequestId(), leave);
+        }
+
+        String action = decision == OnLeave.Status.Approved ? "approved" : "rejected";
+        List<BatchLeaveActionResponse.ItemResult> results = new ArrayList<>(ids.size());
+        List<OnLeave> accepted = new ArrayList<>();
+        for (Integer id : ids) {
+            OnLeave leave = found.get(id);
+            if (leave == null) {
+                results.add(itemResult(id, false, null, "Leave request not found with id: " + id));
+            } else if (leave.getStatus() != OnLeave.Status.Pending) {
+                results.add(itemResult(id, false, leave.getStatus(), "Only pending requests can be " + action));
+            } else {
+                accepted.add(leave);
+                results.add(itemResult(id, true, decision, "Leave request " + action + " successfully"));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<Integer> acceptedIds = accepted.stream().map(OnLeave::getRequestId).toList();
+            LocalDateTime now = LocalDateTime.now();
+            int updated = decision == OnLeave.Status.Approved
+                    ? onLeaveRepository.updateStatus(acceptedIds, OnLeave.Status.Pending, decision, admin, now)
+                    : onLeaveRepository.updateStatusWithReason(acceptedIds, OnLeave.Status.Pending, decision, admin, now, rejectionReason);
+            if (updated != acceptedIds.size()) {
+                // Someone else processed part of the batch between the read and the update
+                throw new RuntimeException("Some leave requests were processed concurrently, please reload and try again");
+            }
+
+            List<OnLeave> annualLeaves = accepted.stream().filter(LeaveService::isAnnual).toList();
+            if (!annualLeaves.isEmpty()) {
+                if (decision == OnLeave.Status.Approved) {
+                    leaveBalanceService.approvePending(annualLeaves);
+                } else {
+                    leaveBalanceService.removePending(annualLeaves);
+                }
+            }
+            notifyDecision(accepted, decision, rejectionReason);
+            dashboardCache.invalidate(DashboardCache.Source.LEAVE);
+        }
+
+        return BatchLeaveActionResponse.builder()
+                .requested(ids.size())
+                .succeeded(accepted.size())
+                .failed(ids.size() - accepted.size())
+                .results(results)
+                .build();
+    }
+
+    private static BatchLeaveActionResponse.ItemResult itemResult(Integer requestId, boolean success,
+                                                                  OnLeave.Status status, String message) {
+        return BatchLeaveActionResponse.ItemResult.builder()
+                .requestId(requestId)
+                .success(success)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    // Tell each employee about the decision on their request (written asynchronously after commit)
+    private void notifyDecision(List<OnLeave> requests, OnLeave.Status decision, String rejectionReason) {
+        Set<Integer> employeeIds = new HashSet<>();
+        for (OnLeave leave : requests) {
+            if (leave.getEmployee() != null) {
+                employeeIds.add(leave.getEmployee().getEmployeeId());
+            }
+        }
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> userIdByEmployee = new HashMap<>();
+        for (Object[] row : userRepository.findUserIdsByEmployeeIds(employeeIds)) {
+            userIdByEmployee.put((Integer) row[0], (Integer) row[1]);
+        }
+
+        List<NotificationService.PendingNotification> notifications = new ArrayList<>();
+        for (OnLeave leave : requests) {
+            Integer userId = leave.getEmployee() != null ? userIdByEmployee.get(leave.getEmployee().getEmployeeId()) : null;
+            if (userId == null) {
+                continue;
+            }
+            String message = String.format("Đơn nghỉ phép từ %s đến %s %s",
+                    leave.getFromDate(), leave.getToDate(),
+                    decision == OnLeave.Status.Approved ? "đã được duyệt" : "đã bị từ chối");
+            if (decision == OnLeave.Status.Rejected && rejectionReason != null && !rejectionReason.trim().isEmpty()) {
+                message += ": " + rejectionReason.trim();
+            }
+            notifications.add(new NotificationService.PendingNotification(userId, message, null));
+        }
+        notificationService.sendAsync(notifications);
+    }
+
+    private static boolean isAnnual(OnLeave leaveRequest) {
+        return leaveRequest.getEmployee() != null
+                && leaveRequest.getLeaveType() != null
+                && leaveRequest.getLeaveType().isAnnual();
+    }
+
     private LeaveRequestResponse mapToResponse(OnLeave leaveRequest) {
         return mapToResponse(leaveRequest, null);
     }
@@ -0,0 +1,313 @@
+package com.example.hrms.service;
+
+import com.example.hrms.dto.response.MailOutboxStatsResponse;
+import com.example.hrms.entity.MailOutbox;
+import com.example.hrms.repository.MailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends mail queued in mail_outbox.
+ * Due rows are claimed in small batches and each batch goes out through one JavaMailSender call,
+ * i.e. one SMTP connection. No database connection is held while talking to SMTP.
+ * Failed messages are retried with exponential backoff and dead-lettered after max-attempts.
+ * Point spring.mail.host/port at a local fake SMTP server to try it without a real mailbox.
+ */
+@Slf4j
+@Service
+public class MailOutboxDispatcher {
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.mail.from}")
+    private String fromEmail;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${app.mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${app.mail.outbox.claim-lease-seconds:300}")
+    private long claimLeaseSeconds;
+
+    @Value("${app.mail.outbox.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${spring.mail.properties.mail.smtp.connectiontimeout:5000}")
+    private long smtpConnectionTimeoutMs;
+
+    @Value("${spring.mail.properties.mail.smtp.timeout:5000}")
+    private long smtpReadTimeoutMs;
+
+    @Value("${spring.mail.properties.mail.smtp.writetimeout:5000}")
+    private long smtpWriteTimeoutMs;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    // MAIL FROM, RCPT TO, DATA and the end of the message each wait for a server reply
+    private static final int SMTP_REPLIES_PER_MESSAGE = 4;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder lostClaims = new LongAdder();
+    private volatile LocalDateTime lastBatchAt;
+    private volatile String lastError;
+
+    // At most one drain queued behind the one running; further wake-ups are absorbed
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mail-outbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MailOutboxDispatcher(MailOutboxRepository mailOutboxRepository,
+                                JavaMailSender mailSender,
+                                PlatformTransactionManager transactionManager) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Ask for a drain of everything due; returns immediately
+     */
+    public void wakeUp() {
+        if (drainQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    drainQueued.set(false);
+                    drain();
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the rows stay Pending for the next start
+                drainQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Rows left Sending by a process that stopped mid-batch go back to the queue
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        releaseExpiredClaims();
+        wakeUp();
+    }
+
+    public void releaseExpiredClaims() {
+        Integer released = transactionTemplate.execute(status -> mailOutboxRepository.releaseExpiredClaims(
+                MailOutbox.Status.Sending, MailOutbox.Status.Pending,
+                LocalDateTime.now().minusSeconds(leaseSeconds())));
+        if (released != null && released > 0) {
+            log.warn("Released {} mail outbox rows with an expired claim", released);
+        }
+    }
+
+    /**
+     * Delete sent and dead-lettered mail older than retention-days
+     */
+    public int purgeFinished() {
+        Integer deleted = transactionTemplate.execute(status -> mailOutboxRepository.deleteFinishedBefore(
+                MailOutbox.Status.Sent, MailOutbox.Status.Dead, LocalDateTime.now().minusDays(retentionDays)));
+        return deleted != null ? deleted : 0;
+    }
+
+    public MailOutboxStatsResponse getStats() {
+        Map<MailOutbox.Status, Long> byStatus = new EnumMap<>(MailOutbox.Status.class);
+        for (Object[] row : mailOutboxRepository.countGroupByStatus()) {
+            if (row[0] != null) {
+                byStatus.put((MailOutbox.Status) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        return MailOutboxStatsResponse.builder()
+                .pending(byStatus.getOrDefault(MailOutbox.Status.Pending, 0L))
+                .sending(byStatus.getOrDefault(MailOutbox.Status.Sending, 0L))
+                .sent(byStatus.getOrDefault(MailOutbox.Status.Sent, 0L))
+                .dead(byStatus.getOrDefault(MailOutbox.Status.Dead, 0L))
+                .sentSinceStart(sent.sum())
+                .failedAttemptsSinceStart(failedAttempts.sum())
+                .deadLetteredSinceStart(deadLettered.sum())
+                .batchesSinceStart(batches.sum())
+                .lostClaimsSinceStart(lostClaims.sum())
+                .lastBatchAt(lastBatchAt)
+                .lastError(lastError)
+                .build();
+    }
+
+    /**
+     * A claim must outlive the slowest possible batch, or a poll could hand a batch that is still being
+     * sent to another drain and the mail would go out twice. The configured lease is therefore raised to
+     * the SMTP timeouts allow for one connection plus batch-size messages.
+     */
+    long leaseSeconds() {
+        long perMessageMs = SMTP_REPLIES_PER_MESSAGE * smtpReadTimeoutMs + smtpWriteTimeoutMs;
+        long worstBatchMs = smtpConnectionTimeoutMs + smtpReadTimeoutMs + Math.max(1, batchSize) * perMessageMs;
+        return Math.max(claimLeaseSeconds, TimeUnit.MILLISECONDS.toSeconds(worstBatchMs) + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void drain() {
+        try {
+            int effectiveBatchSize = Math.max(1, batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                List<MailOutbox> batch = claimBatch(effectiveBatchSize);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                sendBatch(batch);
+            }
+        } catch (Exception e) {
+            // The next scheduled poll tries again
+            log.error("Mail outbox drain failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<MailOutbox> claimBatch(int size) {
+        String claimToken = UUID.randomUUID().toString();
+        List<MailOutbox> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = mailOutboxRepository.findDueIds(MailOutbox.Status.Pending, now, PageRequest.of(0, size));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            mailOutboxRepository.claim(ids, MailOutbox.Status.Pending, MailOutbox.Status.Sending, claimToken, now);
+            return mailOutboxRepository.findByClaimTokenAndStatusOrderById(claimToken, MailOutbox.Status.Sending);
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    private void sendBatch(List<MailOutbox> batch) {
+        Map<SimpleMailMessage, MailOutbox> rowsByMessage = new IdentityHashMap<>();
+        for (MailOutbox row : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(row.getRecipient());
+            message.setSubject(row.getSubject());
+            message.setText(row.getBody());
+            rowsByMessage.put(message, row);
+        }
+
+        Map<MailOutbox, Exception> failures = new IdentityHashMap<>();
+        try {
+            mailSender.send(rowsByMessage.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            // Per-message failures; messages not listed were accepted by the server
+            e.getFailedMessages().forEach((message, error) -> {
+                MailOutbox row = message instanceof SimpleMailMessage simple ? rowsByMessage.get(simple) : null;
+                if (row != null) {
+                    failures.put(row, error);
+                }
+            });
+            if (failures.isEmpty()) {
+                batch.forEach(row -> failures.put(row, e));
+            }
+        } catch (MailException e) {
+            // Connection or authentication problem: nothing in the batch went out
+            batch.forEach(row -> failures.put(row, e));
+        }
+
+        List<Long> sentIds = new ArrayList<>();
+        for (MailOutbox row : batch) {
+            if (!failures.containsKey(row)) {
+                sentIds.add(row.getId());
+            }
+        }
+        String claimToken = batch.get(0).getClaimToken();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                int marked = mailOutboxRepository.markSent(sentIds, claimToken, MailOutbox.Status.Sent, LocalDateTime.now());
+                if (marked < sentIds.size()) {
+                    lostClaim(sentIds.size() - marked, "sent");
+                }
+            }
+            failures.forEach((row, error) -> recordFailure(row, claimToken, error));
+        });
+
+        sent.add(sentIds.size());
+        batches.increment();
+        lastBatchAt = LocalDateTime.now();
+        log.info("Mail outbox batch: {} sent, {} failed", sentIds.size(), failures.size());
+    }
+
+    private void recordFailure(MailOutbox row, String claimToken, Exception error) {
+        int attempts = (row.getAttempts() != null ? row.getAttempts() : 0) + 1;
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        failedAttempts.increment();
+        lastError = message;
+
+        if (attempts >= maxAttempts) {
+            if (mailOutboxRepository.markDead(row.getId(), claimToken, MailOutbox.Status.Dead, attempts, message) == 0) {
+                lostClaim(1, "dead-lettered");
+                return;
+            }
+            deadLettered.increment();
+            log.error("Mail {} to {} dead-lettered after {} attempts: {}", row.getId(), row.getRecipient(), attempts, message);
+            return;
+        }
+        if (mailOutboxRepository.markFailed(row.getId(), claimToken, MailOutbox.Status.Pending, attempts,
+                LocalDateTime.now().plusSeconds(backoffSeconds(attempts)), message) == 0) {
+            lostClaim(1, "failed");
+            return;
+        }
+        log.warn("Mail {} to {} failed (attempt {}), retrying in {}s: {}",
+                row.getId(), row.getRecipient(), attempts, backoffSeconds(attempts), message);
+    }
+
+    // The row's claim expired and it was released while this batch was sending, so it may be sent twice
+    private void lostClaim(int rows, String outcome) {
+        lostClaims.add(rows);
+        log.warn("{} mail outbox rows could not be marked {}: their claim expired mid-batch (lease {}s)",
+                rows, outcome, leaseSeconds());
+    }
+
+    // initial, 2x, 4x, ... capped at max-backoff-seconds
+    private long backoffSeconds(int attempts) {
+        long backoff = Math.max(1, initialBackoffSeconds);
+        for (int i = 1; i < attempts && backoff < maxBackoffSeconds; i++) {
+            backoff *= 2;
+        }
+        return Math.min(backoff, maxBackoffSeconds);
+    }
+}
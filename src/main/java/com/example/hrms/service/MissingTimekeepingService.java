@@ -0,0 +1,306 @@
+package com.example.hrms.service;
+
+import com.example.hrms.dto.response.MissingTimekeepingRunResponse;
+import com.example.hrms.dto.response.TimekeepingBackfillResponse;
+import com.example.hrms.entity.Employee;
+import com.example.hrms.entity.Timekeeping;
+import com.example.hrms.entity.TimekeepingDailyRollup;
+import com.example.hrms.repository.EmployeeRepository;
+import com.example.hrms.repository.TimekeepingDailyRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates Pending timekeeping records for active employees who did not check in on a working day
+ * and are not on approved leave.
+ * Candidates come from one anti-join query and are inserted with one multi-row INSERT per chunk, one transaction per chunk.
+ */
+@Slf4j
+@Service
+public class MissingTimekeepingService {
+    private final EmployeeRepository employeeRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final LeaveCalendarService leaveCalendarService;
+    private final TimekeepingDailyRollupRepository rollupRepository;
+    private final DashboardCache dashboardCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // Shared by all backfills; only one backfill runs at a time
+    private final ThreadPoolExecutor backfillExecutor;
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    @Value("${app.timekeeping.missing-records.chunk-size:500}")
+    private int chunkSize;
+
+    private static final int MAX_BACKFILL_DAYS = 366;
+
+    private static final BigDecimal DEFAULT_WORK_HOURS = BigDecimal.valueOf(8);
+    private static final LocalTime DEFAULT_CHECK_IN = LocalTime.of(8, 0);
+    private static final LocalTime DEFAULT_CHECK_OUT = LocalTime.of(17, 0);
+    private static final String MISSING_NOTE = "Không thực hiện chấm công";
+
+    // INSERT IGNORE keeps the job idempotent against uk_employee_workdate; one VALUES group per employee
+    private static final String INSERT_SQL = "INSERT IGNORE INTO timekeeping " +
+            "(employee_id, work_date, holiday_name, status, work_hours, overtime_hours, admin_note, " +
+            "expected_check_in_time, expected_check_out_time, required_work_hours, created_at, updated_at) VALUES ";
+    private static final String INSERT_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public MissingTimekeepingService(EmployeeRepository employeeRepository,
+                                     HolidayCalendarIndex holidayCalendarIndex,
+                                     LeaveCalendarService leaveCalendarService,
+                                     TimekeepingDailyRollupRepository rollupRepository,
+                                     DashboardCache dashboardCache,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.timekeeping.missing-records.backfill-parallelism:4}") int backfillParallelism) {
+        this.employeeRepository = employeeRepository;
+        this.holidayCalendarIndex = holidayCalendarIndex;
+        this.leaveCalendarService = leaveCalendarService;
+        this.rollupRepository = rollupRepository;
+        this.dashboardCache = dashboardCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, backfillParallelism);
+        this.backfillExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_BACKFILL_DAYS),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "timekeeping-backfill-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    public MissingTimekeepingRunResponse createMissingRecords(LocalDate workDate) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+
+        // Skip Saturday, Sunday and holidays
+        if (holidayCalendarIndex.isWeekend(workDate)) {
+            return skipped(workDate, startedAt, startNanos, "Weekend");
+        }
+        String holidayName = holidayCalendarIndex.getHolidayName(workDate);
+        if (holidayName != null) {
+            return skipped(workDate, startedAt, startNanos, "Holiday: " + holidayName);
+        }
+
+        return generateForWorkingDay(workDate, startedAt, startNanos);
+    }
+
+    /**
+     * Regenerate missing Pending records for every working day in a range.
+     * Weekends and holidays are filtered up front; remaining days run in parallel.
+     * Only completed days can be backfilled: today's employees may still check in.
+     * Safe to repeat: rows that already exist are ignored by uk_employee_workdate.
+     */
+    public TimekeepingBackfillResponse backfill(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("startDate cannot be after endDate");
+        }
+        if (!endDate.isBefore(LocalDate.now())) {
+            throw new RuntimeException("endDate must be before today");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) + 1 > MAX_BACKFILL_DAYS) {
+            throw new RuntimeException("Backfill range cannot exceed " + MAX_BACKFILL_DAYS + " days");
+        }
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new RuntimeException("A timekeeping backfill is already running, please try again later");
+        }
+        try {
+            return runBackfill(startDate, endDate);
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    private TimekeepingBackfillResponse runBackfill(LocalDate startDate, LocalDate endDate) {
+        long startNanos = System.nanoTime();
+
+        List<MissingTimekeepingRunResponse> days = new ArrayList<>();
+        List<LocalDate> workingDays = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            String holidayName = holidayCalendarIndex.getHolidayName(date);
+            if (holidayCalendarIndex.isWeekend(date)) {
+                days.add(skipped(date, LocalDateTime.now(), System.nanoTime(), "Weekend"));
+            } else if (holidayName != null) {
+                days.add(skipped(date, LocalDateTime.now(), System.nanoTime(), "Holiday: " + holidayName));
+            } else {
+                workingDays.add(date);
+            }
+        }
+
+        List<Future<MissingTimekeepingRunResponse>> futures = new ArrayList<>();
+        try {
+            for (LocalDate date : workingDays) {
+                futures.add(backfillExecutor.submit(() -> generateForWorkingDay(date, LocalDateTime.now(), System.nanoTime())));
+            }
+            for (Future<MissingTimekeepingRunResponse> future : futures) {
+                days.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Timekeeping backfill interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Timekeeping backfill failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Timekeeping backfill is shutting down");
+        } finally {
+            // Days not started yet are dropped when the backfill fails part way
+            futures.forEach(future -> future.cancel(false));
+        }
+
+        days.sort(Comparator.comparing(MissingTimekeepingRunResponse::getWorkDate));
+        int rowsCreated = days.stream().mapToInt(MissingTimekeepingRunResponse::getRowsCreated).sum();
+        long durationMs = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+
+        log.info("Timekeeping backfill {} - {}: {} rows created over {} working days ({} ms)",
+                startDate, endDate, rowsCreated, workingDays.size(), durationMs);
+
+        return TimekeepingBackfillResponse.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .daysProcessed(workingDays.size())
+                .daysSkipped(days.size() - workingDays.size())
+                .rowsCreated(rowsCreated)
+                .durationMs(durationMs)
+                .days(days)
+                .build();
+    }
+
+    private MissingTimekeepingRunResponse generateForWorkingDay(LocalDate workDate, LocalDateTime startedAt, long startNanos) {
+        List<Object[]> candidates = employeeRepository.findIdsWithoutTimekeeping(
+                Employee.EmploymentStatus.Active, workDate);
+
+        // Employees on approved leave are not expected to check in
+        Set<Integer> onLeave = leaveCalendarService.getEmployeesOnApprovedLeave(workDate);
+        if (!onLeave.isEmpty()) {
+            candidates = candidates.stream()
+                    .filter(row -> !onLeave.contains((Integer) row[0]))
+                    .toList();
+        }
+
+        int effectiveChunkSize = Math.max(1, chunkSize);
+        int created = 0;
+        int chunks = 0;
+        int failedChunks = 0;
+
+        for (int from = 0; from < candidates.size(); from += effectiveChunkSize) {
+            List<Object[]> chunk = candidates.subList(from, Math.min(from + effectiveChunkSize, candidates.size()));
+            chunks++;
+            try {
+                Integer inserted = transactionTemplate.execute(status -> insertChunk(workDate, chunk));
+                created += inserted != null ? inserted : 0;
+            } catch (Exception e) {
+                failedChunks++;
+                log.error("Error creating missing timekeeping chunk {} for {}: {}", chunks, workDate, e.getMessage());
+            }
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        MissingTimekeepingRunResponse summary = MissingTimekeepingRunResponse.builder()
+                .workDate(workDate)
+                .result(failedChunks == 0 ? "COMPLETED" : "FAILED")
+                .candidates(candidates.size())
+                .rowsCreated(created)
+                .chunks(chunks)
+                .failedChunks(failedChunks)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .durationMs(Duration.ofNanos(System.nanoTime() - startNanos).toMillis())
+                .build();
+
+        log.info("Missing timekeeping run for {}: {} created from {} candidates in {} chunks ({} failed, {} ms)",
+                workDate, created, candidates.size(), chunks, failedChunks, summary.getDurationMs());
+        return summary;
+    }
+
+    private int insertChunk(LocalDate workDate, List<Object[]> chunk) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        StringJoiner values = new StringJoiner(", ");
+        List<Object> args = new ArrayList<>(chunk.size() * 12);
+        for (Object[] row : chunk) {
+            values.add(INSERT_VALUES);
+            args.addAll(Arrays.asList(row[0], Date.valueOf(workDate), null, Timekeeping.Status.Pending.name(),
+                    BigDecimal.ZERO, BigDecimal.ZERO, MISSING_NOTE, Time.valueOf(DEFAULT_CHECK_IN),
+                    Time.valueOf(DEFAULT_CHECK_OUT), DEFAULT_WORK_HOURS, now, now));
+        }
+        // One multi-row statement: the affected-row count is exact, ignored duplicates count as 0
+        int inserted = jdbcTemplate.update(INSERT_SQL + values, args.toArray());
+        if (inserted == 0) {
+            return 0;
+        }
+
+        if (inserted < chunk.size()) {
+            // Some employees got a record concurrently and which rows were ignored is not reported,
+            // so recompute the day's buckets from timekeeping instead of guessing the departments
+            rollupRepository.deleteByWorkDateBetween(workDate, workDate);
+            rollupRepository.rebuildRange(workDate, workDate);
+        } else {
+            // Every candidate was inserted: count them per department so the daily rollup stays in sync
+            Map<Integer, Long> insertedByDepartment = new HashMap<>();
+            for (Object[] row : chunk) {
+                Integer departmentId = row[1] != null ? (Integer) row[1] : TimekeepingDailyRollup.NO_DEPARTMENT;
+                insertedByDepartment.merge(departmentId, 1L, Long::sum);
+            }
+            for (Map.Entry<Integer, Long> entry : insertedByDepartment.entrySet()) {
+                rollupRepository.addDelta(workDate, entry.getKey(), entry.getValue(), 0, 0, 0,
+                        BigDecimal.ZERO, BigDecimal.ZERO);
+            }
+        }
+        dashboardCache.invalidate(DashboardCache.Source.TIMEKEEPING);
+        return inserted;
+    }
+
+    private MissingTimekeepingRunResponse skipped(LocalDate workDate, LocalDateTime startedAt, long startNanos, String reason) {
+        log.info("Skipping missing timekeeping generation for {}: {}", workDate, reason);
+        return MissingTimekeepingRunResponse.builder()
+                .workDate(workDate)
+                .result("SKIPPED")
+                .message(reason)
+                .candidates(0)
+                .rowsCreated(0)
+                .chunks(0)
+                .failedChunks(0)
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .durationMs(Duration.ofNanos(System.nanoTime() - startNanos).toMillis())
+                .build();
+    }
+}
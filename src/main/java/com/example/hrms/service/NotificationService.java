@@ -5,19 +5,84 @@ import com.example.hrms.entity.Notification;
 import com.example.hrms.entity.User;
 import com.example.hrms.repository.NotificationRepository;
 import com.example.hrms.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Notifications are written off the request thread, one batch at a time
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public record PendingNotification(Integer userId, String message, String link) {
+    }
+
+    /**
+     * Create UNREAD notifications in the background. Inside a transaction they are queued
+     * after commit, so a rolled back operation never notifies anyone.
+     */
+    public void sendAsync(List<PendingNotification> notifications) {
+        if (notifications == null || notifications.isEmpty()) {
+            return;
+        }
+        List<PendingNotification> batch = List.copyOf(notifications);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(batch);
+                }
+            });
+        } else {
+            dispatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    private void dispatch(List<PendingNotification> batch) {
+        dispatcher.execute(() -> {
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                transactionTemplate.executeWithoutResult(status -> notificationRepository.saveAll(batch.stream()
+                        .map(item -> Notification.builder()
+                                .user(userRepository.getReferenceById(item.userId()))
+                                .message(item.message())
+                                .link(item.link())
+                                .status(Notification.Status.UNREAD)
+                                .createdAt(now)
+                                .build())
+                        .collect(Collectors.toList())));
+            } catch (Exception e) {
+                log.error("Could not create {} notifications: {}", batch.size(), e.getMessage());
+            }
+        });
+    }
 
     private User getCurrentUser() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
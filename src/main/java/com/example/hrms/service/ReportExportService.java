@@ -0,0 +1,99 @@
+package com.example.hrms.service;
+
+import com.example.hrms.dto.response.TimekeepingSummaryResponse;
+import com.example.hrms.entity.OnLeave;
+import com.example.hrms.entity.Timekeeping;
+import com.example.hrms.repository.OnLeaveRepository;
+import com.example.hrms.repository.TimekeepingRepository;
+import com.example.hrms.util.TabularFileWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * CSV/XLSX downloads of timekeeping records, leave requests and the monthly timekeeping summary.
+ * Rows go straight from a forward-only database cursor to the response stream, so memory use does not
+ * depend on the number of rows. The read-only transaction, and its connection, stay open for the whole download.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportExportService {
+    private final TimekeepingRepository timekeepingRepository;
+    private final OnLeaveRepository onLeaveRepository;
+    private final ReportService reportService;
+
+    private static final List<String> TIMEKEEPING_HEADER = List.of(
+            "Record ID", "Employee ID", "Full name", "Email", "Department", "Work date", "Check in", "Check out",
+            "Required hours", "Work hours", "Overtime hours", "Status", "Holiday", "Reason", "Admin note");
+
+    private static final List<String> LEAVE_HEADER = List.of(
+            "Request ID", "Employee ID", "Full name", "Email", "Department", "Leave type", "From date", "To date",
+            "Status", "Reason", "Processed at", "Processed by", "Created at");
+
+    private static final List<String> SUMMARY_HEADER = List.of(
+            "Employee ID", "Full name", "Email", "Work days", "Work hours", "Overtime hours",
+            "Late arrivals", "Early departures", "Attendance rate (%)");
+
+    /**
+     * Same filters as the /api/admin/timekeeping/all listing
+     */
+    @Transactional(readOnly = true)
+    public void exportTimekeeping(TabularFileWriter.Format format, Timekeeping.Status status, LocalDate workDate,
+                                  Integer employeeId, LocalDate startDate, LocalDate endDate,
+                                  OutputStream output) throws IOException {
+        try (Stream<Object[]> rows = timekeepingRepository.streamForExport(status, workDate, employeeId, startDate, endDate)) {
+            write("Timekeeping", format, TIMEKEEPING_HEADER, rows, Arrays::asList, output);
+        }
+    }
+
+    /**
+     * Same filters as the /api/admin/leave-requests/all listing
+     */
+    @Transactional(readOnly = true)
+    public void exportLeaveRequests(TabularFileWriter.Format format, OnLeave.Status status, Integer employeeId,
+                                    Integer leaveTypeId, LocalDate startDate, LocalDate endDate,
+                                    OutputStream output) throws IOException {
+        try (Stream<Object[]> rows = onLeaveRepository.streamForExport(status, employeeId, leaveTypeId, startDate, endDate)) {
+            write("Leave requests", format, LEAVE_HEADER, rows, Arrays::asList, output);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportTimekeepingSummary(TabularFileWriter.Format format, Integer month, Integer year,
+                                         Integer employeeId, OutputStream output) throws IOException {
+        try (Stream<TimekeepingSummaryResponse> rows = reportService.streamTimekeepingSummary(month, year, employeeId)) {
+            write("Timekeeping summary", format, SUMMARY_HEADER, rows, summary -> Arrays.asList(
+                    summary.getEmployeeId(), summary.getEmployeeName(), summary.getEmployeeEmail(),
+                    summary.getTotalWorkDays(), summary.getTotalWorkHours(), summary.getTotalOvertimeHours(),
+                    summary.getLateArrivals(), summary.getEarlyDepartures(), summary.getAttendanceRate()), output);
+        }
+    }
+
+    private <T> void write(String title, TabularFileWriter.Format format, List<String> header, Stream<T> rows,
+                           Function<T, List<?>> toCells, OutputStream output) throws IOException {
+        long startNanos = System.nanoTime();
+        int count = 0;
+        try (TabularFileWriter writer = TabularFileWriter.open(format, output, title)) {
+            writer.writeRow(header);
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeRow(toCells.apply(iterator.next()));
+                count++;
+            }
+        }
+        log.info("{} export ({}): {} rows in {} ms", title, format.getExtension(), count,
+                Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.hrms.service;
 
 import com.example.hrms.entity.*;
 import com.example.hrms.repository.*;
+import com.example.hrms.util.NumberUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -9,8 +10,10 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import com.example.hrms.dto.request.*;
 import com.example.hrms.dto.response.*;
 @Service
@@ -22,11 +25,32 @@ public class ReportService {
     private final UserRepository userRepository;
     private final DepartmentRepository departmentRepository;
     private final LeaveTypeRepository leaveTypeRepository;
+    private final TimekeepingDailyRollupRepository timekeepingDailyRollupRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final StatusCountService statusCountService;
+
+    private static final LocalTime LATE_ARRIVAL_AFTER = LocalTime.of(8, 30);
+    private static final LocalTime EARLY_DEPARTURE_BEFORE = LocalTime.of(17, 30);
+
+    /**
+     * Report month from optional month/year parameters, defaulting to the current month
+     * @throws RuntimeException when month or year is out of range
+     */
+    public static YearMonth resolveMonth(Integer month, Integer year) {
+        YearMonth current = YearMonth.now();
+        if (month != null && (month < 1 || month > 12)) {
+            throw new RuntimeException("Month must be between 1 and 12");
+        }
+        if (year != null && (year < 1000 || year > 9999)) {
+            throw new RuntimeException("Year must be between 1000 and 9999");
+        }
+        return YearMonth.of(year != null ? year : current.getYear(), month != null ? month : current.getMonthValue());
+    }
 
     public List<TimekeepingSummaryResponse> getTimekeepingSummary(Integer month, Integer year, Integer employeeId) {
-        LocalDate now = LocalDate.now();
-        int targetMonth = month != null ? month : now.getMonthValue();
-        int targetYear = year != null ? year : now.getYear();
+        YearMonth period = resolveMonth(month, year);
+        int targetMonth = period.getMonthValue();
+        int targetYear = period.getYear();
 
         LocalDate startDate = LocalDate.of(targetYear, targetMonth, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
@@ -41,66 +65,83 @@ public class ReportService {
             employees = employeeRepository.findAll();
         }
 
-        List<TimekeepingSummaryResponse> summaries = new ArrayList<>();
+        // Aggregate the whole month in one grouped query instead of scanning per employee
+        Map<Integer, Object[]> aggregates = new HashMap<>();
+        for (Object[] row : timekeepingRepository.summarizeByEmployee(
+                Timekeeping.Status.Confirmed, startDate, endDate, employeeId, LATE_ARRIVAL_AFTER, EARLY_DEPARTURE_BEFORE)) {
+            aggregates.put((Integer) row[0], row);
+        }
 
-        for (Employee employee : employees) {
-            List<com.example.hrms.entity.Timekeeping> timekeepingRecords = timekeepingRepository
-                    .findAll().stream()
-                    .filter(t -> t.getEmployee() != null && t.getEmployee().getEmployeeId().equals(employee.getEmployeeId()))
-                    .filter(t -> !t.getWorkDate().isBefore(startDate) && !t.getWorkDate().isAfter(endDate))
-                    .filter(t -> t.getStatus() == com.example.hrms.entity.Timekeeping.Status.Confirmed)
-                    .collect(Collectors.toList());
-
-            int totalWorkDays = timekeepingRecords.size();
-            BigDecimal totalWorkHours = timekeepingRecords.stream()
-                    .filter(t -> t.getWorkHours() != null)
-                    .map(com.example.hrms.entity.Timekeeping::getWorkHours)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Calculate attendance rate (work days / total working days in month)
+        int totalWorkingDaysInMonth = calculateWorkingDaysInMonth(targetYear, targetMonth);
 
-            BigDecimal totalOvertimeHours = timekeepingRecords.stream()
-                    .filter(t -> t.getOvertimeHours() != null)
-                    .map(com.example.hrms.entity.Timekeeping::getOvertimeHours)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<TimekeepingSummaryResponse> summaries = new ArrayList<>(employees.size());
 
-            // Count late arrivals (check-in after 8:30 AM) and early departures (check-out before 5:30 PM)
-            int lateArrivals = (int) timekeepingRecords.stream()
-                    .filter(t -> t.getCheckIn() != null)
-                    .filter(t -> t.getCheckIn().toLocalTime().isAfter(LocalTime.of(8, 30)))
-                    .count();
-
-            int earlyDepartures = (int) timekeepingRecords.stream()
-                    .filter(t -> t.getCheckOut() != null)
-                    .filter(t -> t.getCheckOut().toLocalTime().isBefore(LocalTime.of(17, 30)))
-                    .count();
-
-            // Calculate attendance rate (work days / total working days in month)
-            int totalWorkingDaysInMonth = calculateWorkingDaysInMonth(targetYear, targetMonth);
-            BigDecimal attendanceRate = totalWorkingDaysInMonth > 0
-                    ? BigDecimal.valueOf(totalWorkDays)
-                            .divide(BigDecimal.valueOf(totalWorkingDaysInMonth), 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                    : BigDecimal.ZERO;
-
-            summaries.add(TimekeepingSummaryResponse.builder()
-                    .employeeId(employee.getEmployeeId())
-                    .employeeName(employee.getFullName())
-                    .employeeEmail(employee.getEmail())
-                    .totalWorkDays(totalWorkDays)
-                    .totalWorkHours(totalWorkHours)
-                    .totalOvertimeHours(totalOvertimeHours)
-                    .lateArrivals(lateArrivals)
-                    .earlyDepartures(earlyDepartures)
-                    .attendanceRate(attendanceRate)
-                    .build());
+        for (Employee employee : employees) {
+            Object[] row = aggregates.get(employee.getEmployeeId());
+
+            // Late arrivals (check-in after 8:30 AM) and early departures (check-out before 5:30 PM)
+            summaries.add(toSummary(employee.getEmployeeId(), employee.getFullName(), employee.getEmail(),
+                    row != null ? NumberUtil.toInt(row[1]) : 0,
+                    row != null ? NumberUtil.toBigDecimal(row[2]) : BigDecimal.ZERO,
+                    row != null ? NumberUtil.toBigDecimal(row[3]) : BigDecimal.ZERO,
+                    row != null ? NumberUtil.toInt(row[4]) : 0,
+                    row != null ? NumberUtil.toInt(row[5]) : 0,
+                    totalWorkingDaysInMonth));
         }
 
         return summaries;
     }
 
+    /**
+     * Same rows as getTimekeepingSummary, read from a forward-only cursor in employee id order (exports).
+     * Must be consumed and closed inside a transaction.
+     */
+    public Stream<TimekeepingSummaryResponse> streamTimekeepingSummary(Integer month, Integer year, Integer employeeId) {
+        YearMonth period = resolveMonth(month, year);
+        int targetMonth = period.getMonthValue();
+        int targetYear = period.getYear();
+
+        LocalDate startDate = LocalDate.of(targetYear, targetMonth, 1);
+        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        int totalWorkingDaysInMonth = calculateWorkingDaysInMonth(targetYear, targetMonth);
+
+        return timekeepingRepository.streamSummaryByEmployee(
+                        Timekeeping.Status.Confirmed, startDate, endDate, employeeId, LATE_ARRIVAL_AFTER, EARLY_DEPARTURE_BEFORE)
+                .map(row -> toSummary((Integer) row[0], (String) row[1], (String) row[2],
+                        NumberUtil.toInt(row[3]), NumberUtil.toBigDecimal(row[4]), NumberUtil.toBigDecimal(row[5]),
+                        NumberUtil.toInt(row[6]), NumberUtil.toInt(row[7]),
+                        totalWorkingDaysInMonth));
+    }
+
+    // Attendance rate = work days / working days in the month, in percent
+    private static TimekeepingSummaryResponse toSummary(Integer employeeId, String employeeName, String employeeEmail,
+                                                        int totalWorkDays, BigDecimal totalWorkHours,
+                                                        BigDecimal totalOvertimeHours, int lateArrivals,
+                                                        int earlyDepartures, int totalWorkingDaysInMonth) {
+        BigDecimal attendanceRate = totalWorkingDaysInMonth > 0
+                ? BigDecimal.valueOf(totalWorkDays)
+                        .divide(BigDecimal.valueOf(totalWorkingDaysInMonth), 4, RoundingMode.HALF_UP)
+                        .multiply(BigDecimal.valueOf(100))
+                : BigDecimal.ZERO;
+
+        return TimekeepingSummaryResponse.builder()
+                .employeeId(employeeId)
+                .employeeName(employeeName)
+                .employeeEmail(employeeEmail)
+                .totalWorkDays(totalWorkDays)
+                .totalWorkHours(totalWorkHours)
+                .totalOvertimeHours(totalOvertimeHours)
+                .lateArrivals(lateArrivals)
+                .earlyDepartures(earlyDepartures)
+                .attendanceRate(attendanceRate)
+                .build();
+    }
+
     public LeaveSummaryResponse getLeaveSummary(Integer month, Integer year) {
-        LocalDate now = LocalDate.now();
-        int targetMonth = month != null ? month : now.getMonthValue();
-        int targetYear = year != null ? year : now.getYear();
+        YearMonth period = resolveMonth(month, year);
+        int targetMonth = period.getMonthValue();
+        int targetYear = period.getYear();
 
         LocalDate startDate = LocalDate.of(targetYear, targetMonth, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
@@ -126,8 +167,8 @@ public class ReportService {
             LocalDate actualStart = leave.getFromDate().isBefore(startDate) ? startDate : leave.getFromDate();
             LocalDate actualEnd = leave.getToDate().isAfter(endDate) ? endDate : leave.getToDate();
 
-            long days = java.time.temporal.ChronoUnit.DAYS.between(actualStart, actualEnd) + 1;
-            int daysInt = (int) days;
+            // Only working days inside the month count as leave days
+            int daysInt = holidayCalendarIndex.countWorkingDays(actualStart, actualEnd);
 
             totalLeaveDays += daysInt;
 
@@ -174,18 +215,16 @@ public class ReportService {
     public DashboardStatsResponse getDashboardStats() {
         // Total employees
         long totalEmployees = employeeRepository.count();
-        long activeEmployees = employeeRepository.findAll().stream()
-                .filter(e -> e.getStatus() == Employee.EmploymentStatus.Active)
-                .count();
+        long activeEmployees = employeeRepository.countByStatus(Employee.EmploymentStatus.Active);
 
         // Total departments
         long totalDepartments = departmentRepository.count();
 
         // Pending leave requests
-        long pendingLeaveRequests = onLeaveRepository.findByStatus(OnLeave.Status.Pending).size();
+        long pendingLeaveRequests = statusCountService.getLeaveCounts().get(OnLeave.Status.Pending);
 
         // Pending timekeeping records
-        long pendingTimekeepingRecords = timekeepingRepository.findByStatus(Timekeeping.Status.Pending).size();
+        long pendingTimekeepingRecords = statusCountService.getTimekeepingCounts().get(Timekeeping.Status.Pending);
 
         // Calculate overall attendance rate (this month)
         LocalDate now = LocalDate.now();
@@ -203,14 +242,9 @@ public class ReportService {
 
         // Today's check-ins and absences
         LocalDate today = LocalDate.now();
-        long todayCheckIns = timekeepingRepository.findAll().stream()
-                .filter(t -> t.getWorkDate().equals(today) && t.getCheckIn() != null)
-                .count();
+        long todayCheckIns = timekeepingDailyRollupRepository.sumCheckInsByWorkDate(today);
 
-        long todayExpectedEmployees = employeeRepository.findAll().stream()
-                .filter(e -> e.getStatus() == Employee.EmploymentStatus.Active)
-                .count();
-        long todayAbsences = todayExpectedEmployees - todayCheckIns;
+        long todayAbsences = Math.max(0, activeEmployees - todayCheckIns);
 
         return DashboardStatsResponse.builder()
                 .totalEmployees((int) totalEmployees)
@@ -224,21 +258,8 @@ public class ReportService {
                 .build();
     }
 
+    // Working days exclude weekends and holidays from HolidayCalendar
     private int calculateWorkingDaysInMonth(int year, int month) {
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
-
-        int workingDays = 0;
-        LocalDate current = startDate;
-        while (!current.isAfter(endDate)) {
-            // Exclude weekends (Saturday = 6, Sunday = 7)
-            int dayOfWeek = current.getDayOfWeek().getValue();
-            if (dayOfWeek != 6 && dayOfWeek != 7) {
-                workingDays++;
-            }
-            current = current.plusDays(1);
-        }
-        return workingDays;
+        return holidayCalendarIndex.countWorkingDaysInMonth(year, month);
     }
 }
-
@@ -32,6 +32,7 @@ public class ScheduleService {
     private final EmployeeRepository employeeRepository;
     private final DepartmentRepository departmentRepository;
     private final EntityManager entityManager;
+    private final DashboardCache dashboardCache;
 
     private Employee getCurrentEmployee() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -150,6 +151,7 @@ public class ScheduleService {
         }
 
         schedule = workScheduleRepository.save(schedule);
+        dashboardCache.invalidate(DashboardCache.Source.SCHEDULE);
         return mapToResponse(schedule);
     }
 
@@ -271,7 +273,8 @@ public class ScheduleService {
 
         schedule.setUpdatedAt(LocalDateTime.now());
         schedule = workScheduleRepository.save(schedule);
-        
+        dashboardCache.invalidate(DashboardCache.Source.SCHEDULE);
+
         return mapToResponse(schedule);
     }
 
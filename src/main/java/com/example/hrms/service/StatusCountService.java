@@ -0,0 +1,101 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.OnLeave;
+import com.example.hrms.entity.Timekeeping;
+import com.example.hrms.repository.OnLeaveRepository;
+import com.example.hrms.repository.TimekeepingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Timekeeping and leave counts per status for the stats and dashboard endpoints.
+ * Each is one GROUP BY query, cached for a few seconds: the numbers are informational
+ * and may lag behind writes by at most the TTL. The dashboard summary, which DashboardCache
+ * invalidates on writes, reads them uncached so an invalidation is not undone by stale counts.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatusCountService {
+    private final TimekeepingRepository timekeepingRepository;
+    private final OnLeaveRepository onLeaveRepository;
+
+    @Value("${app.stats.status-counts.ttl-seconds:15}")
+    private long ttlSeconds;
+
+    private volatile Cached<Timekeeping.Status> timekeepingCounts;
+    private volatile Cached<OnLeave.Status> leaveCounts;
+
+    /**
+     * Immutable counts per status; statuses without rows are 0
+     * @param total all rows, including any without a status
+     */
+    public record StatusCounts<S extends Enum<S>>(Map<S, Long> byStatus, long total) {
+        public long get(S status) {
+            return byStatus.getOrDefault(status, 0L);
+        }
+    }
+
+    public StatusCounts<Timekeeping.Status> getTimekeepingCounts() {
+        Cached<Timekeeping.Status> cached = timekeepingCounts;
+        if (cached == null || cached.isExpired()) {
+            cached = load(Timekeeping.Status.class, timekeepingRepository::countGroupByStatus);
+            timekeepingCounts = cached;
+        }
+        return cached.counts();
+    }
+
+    public StatusCounts<OnLeave.Status> getLeaveCounts() {
+        Cached<OnLeave.Status> cached = leaveCounts;
+        if (cached == null || cached.isExpired()) {
+            cached = load(OnLeave.Status.class, onLeaveRepository::countGroupByStatus);
+            leaveCounts = cached;
+        }
+        return cached.counts();
+    }
+
+    /**
+     * Timekeeping counts read from the database now, for callers that cache their own result and are
+     * invalidated on writes (the dashboard summary). The fresh counts also replace the cached ones.
+     */
+    public StatusCounts<Timekeeping.Status> loadTimekeepingCounts() {
+        Cached<Timekeeping.Status> cached = load(Timekeeping.Status.class, timekeepingRepository::countGroupByStatus);
+        timekeepingCounts = cached;
+        return cached.counts();
+    }
+
+    /**
+     * Leave counts read from the database now; see loadTimekeepingCounts
+     */
+    public StatusCounts<OnLeave.Status> loadLeaveCounts() {
+        Cached<OnLeave.Status> cached = load(OnLeave.Status.class, onLeaveRepository::countGroupByStatus);
+        leaveCounts = cached;
+        return cached.counts();
+    }
+
+    private <S extends Enum<S>> Cached<S> load(Class<S> statusType, Supplier<List<Object[]>> query) {
+        Map<S, Long> byStatus = new EnumMap<>(statusType);
+        long total = 0;
+        for (Object[] row : query.get()) {
+            long count = ((Number) row[1]).longValue();
+            total += count;
+            if (row[0] != null) {
+                byStatus.put(statusType.cast(row[0]), count);
+            }
+        }
+        return new Cached<>(new StatusCounts<>(Collections.unmodifiableMap(byStatus), total),
+                System.nanoTime() + ttlSeconds * 1_000_000_000L);
+    }
+
+    private record Cached<S extends Enum<S>>(StatusCounts<S> counts, long expiresAtNanos) {
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos >= 0;
+        }
+    }
+}
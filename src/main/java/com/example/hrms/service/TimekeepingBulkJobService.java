@@ -0,0 +1,240 @@
+package com.example.hrms.service;
+
+import com.example.hrms.dto.request.BatchApproveRequest;
+import com.example.hrms.dto.request.BatchRejectRequest;
+import com.example.hrms.dto.request.TimekeepingBulkJobRequest;
+import com.example.hrms.dto.response.TimekeepingBatchResultResponse;
+import com.example.hrms.dto.response.TimekeepingBulkJobResponse;
+import com.example.hrms.entity.Timekeeping;
+import com.example.hrms.repository.TimekeepingRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Approves or rejects every Pending timekeeping record matching a filter as a background job.
+ * Matching IDs are read chunk by chunk with keyset pagination and each chunk goes through the
+ * set-based batch approve/reject in its own transaction, so no request ever holds the full result set.
+ * Jobs run one at a time; their progress is kept in memory for polling.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimekeepingBulkJobService {
+    private final TimekeepingRepository timekeepingRepository;
+    private final TimekeepingService timekeepingService;
+
+    @Value("${app.timekeeping.bulk-jobs.chunk-size:1000}")
+    private int chunkSize;
+
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+    private static final int MAX_RETAINED_JOBS = 50;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "timekeeping-bulk-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TimekeepingBulkJobResponse submit(TimekeepingBulkJobRequest request) {
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getStartDate().isAfter(request.getEndDate())) {
+            throw new RuntimeException("startDate cannot be after endDate");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), request,
+                SecurityContextHolder.getContext().getAuthentication().getName());
+        evictFinishedJobs();
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job));
+        log.info("Queued timekeeping bulk {} job {} requested by {}", request.getAction(), job.id, job.requestedBy);
+        return job.toResponse();
+    }
+
+    public TimekeepingBulkJobResponse getJob(String jobId) {
+        return findJob(jobId).toResponse();
+    }
+
+    public List<TimekeepingBulkJobResponse> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job job) -> job.createdAt).reversed())
+                .map(Job::toResponse)
+                .toList();
+    }
+
+    /**
+     * Stop a queued or running job after the chunk in progress; chunks already committed stay applied
+     */
+    public TimekeepingBulkJobResponse cancel(String jobId) {
+        Job job = findJob(jobId);
+        job.cancelRequested = true;
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job) {
+        if (job.cancelRequested) {
+            job.finish("CANCELLED", "Cancelled before start");
+            return;
+        }
+        TimekeepingBulkJobRequest filter = job.request;
+        job.status = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+
+        try {
+            job.totalMatched = timekeepingRepository.countForBulkAction(Timekeeping.Status.Pending,
+                    filter.getEmployeeId(), filter.getDepartmentId(), filter.getStartDate(), filter.getEndDate(),
+                    filter.getHasReason());
+
+            int effectiveChunkSize = Math.max(1, chunkSize);
+            int afterId = 0;
+            int attempts = 0;
+            while (!job.cancelRequested) {
+                List<Integer> ids = timekeepingRepository.findIdsForBulkAction(Timekeeping.Status.Pending,
+                        filter.getEmployeeId(), filter.getDepartmentId(), filter.getStartDate(), filter.getEndDate(),
+                        filter.getHasReason(), afterId, PageRequest.of(0, effectiveChunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                try {
+                    TimekeepingBatchResultResponse result = processChunk(filter, ids);
+                    job.succeeded += result.getSucceeded();
+                    job.failed += result.getFailed();
+                } catch (RuntimeException e) {
+                    // Usually a concurrent change; re-read the same range, rows no longer Pending drop out
+                    if (++attempts < MAX_CHUNK_ATTEMPTS) {
+                        log.warn("Bulk job {} chunk after id {} failed (attempt {}): {}", job.id, afterId, attempts, e.getMessage());
+                        continue;
+                    }
+                    log.error("Bulk job {} giving up on chunk after id {}: {}", job.id, afterId, e.getMessage());
+                    job.failed += ids.size();
+                }
+                attempts = 0;
+                job.processed += ids.size();
+                job.chunks++;
+                afterId = ids.get(ids.size() - 1);
+            }
+
+            if (job.cancelRequested) {
+                job.finish("CANCELLED", "Cancelled after " + job.processed + " records");
+            } else {
+                job.finish("COMPLETED", null);
+            }
+        } catch (Exception e) {
+            log.error("Bulk job {} failed: {}", job.id, e.getMessage(), e);
+            job.finish("FAILED", e.getMessage());
+        }
+        log.info("Timekeeping bulk {} job {} {}: {} succeeded, {} failed in {} chunks",
+                filter.getAction(), job.id, job.status, job.succeeded, job.failed, job.chunks);
+    }
+
+    private TimekeepingBatchResultResponse processChunk(TimekeepingBulkJobRequest filter, List<Integer> ids) {
+        if (filter.getAction() == TimekeepingBulkJobRequest.Action.APPROVE) {
+            BatchApproveRequest request = new BatchApproveRequest();
+            request.setRecordIds(ids);
+            request.setAdminNote(filter.getNote());
+            return timekeepingService.batchApproveTimekeeping(request, false);
+        }
+        BatchRejectRequest request = new BatchRejectRequest();
+        request.setRecordIds(ids);
+        request.setReason(filter.getNote());
+        return timekeepingService.batchRejectTimekeeping(request, false);
+    }
+
+    private Job findJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Bulk job not found: " + jobId);
+        }
+        return job;
+    }
+
+    // Keep memory bounded: drop the oldest finished jobs beyond MAX_RETAINED_JOBS
+    private void evictFinishedJobs() {
+        List<Job> finished = new ArrayList<>(jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing((Job job) -> job.finishedAt))
+                .toList());
+        int excess = jobs.size() + 1 - MAX_RETAINED_JOBS;
+        for (int i = 0; i < excess && i < finished.size(); i++) {
+            jobs.remove(finished.get(i).id);
+        }
+    }
+
+    // Mutated only by the job thread, read by pollers
+    private static class Job {
+        private final String id;
+        private final TimekeepingBulkJobRequest request;
+        private final String requestedBy;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile String status = "QUEUED";
+        private volatile String message;
+        private volatile long totalMatched;
+        private volatile long processed;
+        private volatile long succeeded;
+        private volatile long failed;
+        private volatile int chunks;
+        private volatile boolean cancelRequested;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        Job(String id, TimekeepingBulkJobRequest request, String requestedBy) {
+            this.id = id;
+            this.request = request;
+            this.requestedBy = requestedBy;
+        }
+
+        void finish(String finalStatus, String finalMessage) {
+            message = finalMessage;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        TimekeepingBulkJobResponse toResponse() {
+            int percent;
+            if ("COMPLETED".equals(status)) {
+                percent = 100;
+            } else if (totalMatched > 0) {
+                percent = (int) Math.min(100, processed * 100 / totalMatched);
+            } else {
+                percent = 0;
+            }
+            return TimekeepingBulkJobResponse.builder()
+                    .jobId(id)
+                    .action(request.getAction())
+                    .status(status)
+                    .message(message)
+                    .totalMatched(totalMatched)
+                    .processed(processed)
+                    .succeeded(succeeded)
+                    .failed(failed)
+                    .chunks(chunks)
+                    .progressPercent(percent)
+                    .requestedBy(requestedBy)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
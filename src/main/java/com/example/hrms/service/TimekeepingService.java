@@ -1,11 +1,9 @@
 package com.example.hrms.service;
 
 import com.example.hrms.entity.Employee;
-import com.example.hrms.entity.HolidayCalendar;
 import com.example.hrms.entity.Timekeeping;
 import com.example.hrms.entity.User;
 import com.example.hrms.repository.EmployeeRepository;
-import com.example.hrms.repository.HolidayCalendarRepository;
 import com.example.hrms.repository.TimekeepingRepository;
 import com.example.hrms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -18,13 +16,17 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -38,13 +40,18 @@ public class TimekeepingService {
     private final TimekeepingRepository timekeepingRepository;
     private final UserRepository userRepository;
     private final EmployeeRepository employeeRepository;
-    private final HolidayCalendarRepository holidayCalendarRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final AttendanceRollupService attendanceRollupService;
+    private final StatusCountService statusCountService;
 
     // Default work hours (standard working hours)
     private static final BigDecimal DEFAULT_WORK_HOURS = BigDecimal.valueOf(8);
     private static final LocalTime DEFAULT_CHECK_IN = LocalTime.of(8, 0);
     private static final LocalTime DEFAULT_CHECK_OUT = LocalTime.of(17, 0);
 
+    // IN-list size for batch approve/reject queries
+    private static final int BATCH_CHUNK_SIZE = 1000;
+
     private Employee getCurrentEmployee() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         User user = userRepository.findByEmail(email)
@@ -72,24 +79,14 @@ public class TimekeepingService {
      * Returns null if not a holiday
      */
     private String getHolidayName(LocalDate date) {
-        return holidayCalendarRepository.findByHolidayDate(date)
-                .map(HolidayCalendar::getHolidayName)
-                .orElse(null);
-    }
-
-    /**
-     * Check if a date is a holiday
-     */
-    private boolean isHoliday(LocalDate date) {
-        return holidayCalendarRepository.existsByHolidayDate(date);
+        return holidayCalendarIndex.getHolidayName(date);
     }
 
     /**
      * Check if a date is a weekend (Saturday or Sunday)
      */
     private boolean isWeekend(LocalDate date) {
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+        return holidayCalendarIndex.isWeekend(date);
     }
 
     /**
@@ -97,7 +94,7 @@ public class TimekeepingService {
      * Returns true if the date is either a holiday or weekend
      */
     private boolean isHolidayOrWeekend(LocalDate date) {
-        return isHoliday(date) || isWeekend(date);
+        return holidayCalendarIndex.isHolidayOrWeekend(date);
     }
 
     @Transactional
@@ -122,6 +119,7 @@ public class TimekeepingService {
             if (existingRecord.getCheckIn() != null && existingRecord.getCheckOut() == null) {
                 throw new RuntimeException("You have already checked in today. Please check out first.");
             }
+            AttendanceRollupService.Contribution before = attendanceRollupService.snapshot(existingRecord);
             // If there's a record but with check-out, update check-in time
             existingRecord.setCheckIn(now);
             if (request != null && request.getReason() != null && !request.getReason().trim().isEmpty()) {
@@ -137,6 +135,7 @@ public class TimekeepingService {
             setExpectedTimes(existingRecord);
 
             existingRecord = timekeepingRepository.save(existingRecord);
+            attendanceRollupService.recordChange(before, existingRecord);
             return mapToResponse(existingRecord);
         }
 
@@ -167,6 +166,7 @@ public class TimekeepingService {
         setExpectedTimes(timekeeping);
 
         timekeeping = timekeepingRepository.save(timekeeping);
+        attendanceRollupService.recordCreated(timekeeping);
         return mapToResponse(timekeeping);
     }
 
@@ -178,6 +178,7 @@ public class TimekeepingService {
 
         Timekeeping timekeeping = timekeepingRepository.findByEmployeeAndWorkDate(employee, today)
                 .orElseThrow(() -> new RuntimeException("No check-in found for today. Please check in first."));
+        AttendanceRollupService.Contribution before = attendanceRollupService.snapshot(timekeeping);
 
         // Check if today is a holiday or weekend (check from database, not just from
         // record)
@@ -255,6 +256,7 @@ public class TimekeepingService {
 
         timekeeping.setUpdatedAt(LocalDateTime.now());
         timekeeping = timekeepingRepository.save(timekeeping);
+        attendanceRollupService.recordChange(before, timekeeping);
 
         return mapToResponse(timekeeping);
     }
@@ -389,6 +391,7 @@ public class TimekeepingService {
         if (timekeeping.getStatus() != Timekeeping.Status.Pending) {
             throw new RuntimeException("Only pending records can be approved");
         }
+        AttendanceRollupService.Contribution before = attendanceRollupService.snapshot(timekeeping);
 
         timekeeping.setStatus(Timekeeping.Status.Confirmed);
         if (request != null && request.getAdminNote() != null && !request.getAdminNote().trim().isEmpty()) {
@@ -401,78 +404,115 @@ public class TimekeepingService {
         }
         timekeeping.setUpdatedAt(LocalDateTime.now());
         timekeeping = timekeepingRepository.save(timekeeping);
+        attendanceRollupService.recordChange(before, timekeeping);
 
         return mapToResponse(timekeeping);
     }
 
     @Transactional
-    public List<TimekeepingResponse> batchApproveTimekeeping(BatchApproveRequest request) {
-        List<TimekeepingResponse> results = new java.util.ArrayList<>();
-
-        for (Integer recordId : request.getRecordIds()) {
-            try {
-                Timekeeping timekeeping = timekeepingRepository.findById(recordId)
-                        .orElseThrow(() -> new RuntimeException("Timekeeping record not found with id: " + recordId));
-
-                if (timekeeping.getStatus() != Timekeeping.Status.Pending) {
-                    log.warn("Skipping record {} - not in Pending status", recordId);
-                    continue;
-                }
-
-                timekeeping.setStatus(Timekeeping.Status.Confirmed);
-                if (request.getAdminNote() != null && !request.getAdminNote().trim().isEmpty()) {
-                    if (timekeeping.getAdminNote() != null && !timekeeping.getAdminNote().trim().isEmpty()) {
-                        timekeeping.setAdminNote(timekeeping.getAdminNote() + "\n" + request.getAdminNote());
-                    } else {
-                        timekeeping.setAdminNote(request.getAdminNote());
-                    }
-                }
-                timekeeping.setUpdatedAt(LocalDateTime.now());
-                timekeeping = timekeepingRepository.save(timekeeping);
-
-                results.add(mapToResponse(timekeeping));
-            } catch (Exception e) {
-                log.error("Error approving timekeeping record {}: {}", recordId, e.getMessage());
-            }
-        }
-
-        return results;
+    public TimekeepingBatchResultResponse batchApproveTimekeeping(BatchApproveRequest request, boolean includeRecords) {
+        String note = request.getAdminNote() != null && !request.getAdminNote().trim().isEmpty()
+                ? request.getAdminNote() : null;
+        return processBatch(request.getRecordIds(), Timekeeping.Status.Confirmed, includeRecords, ids -> note == null
+                ? timekeepingRepository.updateStatus(ids, Timekeeping.Status.Pending, Timekeeping.Status.Confirmed, LocalDateTime.now())
+                : timekeepingRepository.updateStatusAppendingNote(ids, Timekeeping.Status.Pending, Timekeeping.Status.Confirmed,
+                        note, "\n", LocalDateTime.now()));
     }
 
     @Transactional
-    public List<TimekeepingResponse> batchRejectTimekeeping(BatchRejectRequest request) {
-        List<TimekeepingResponse> results = new java.util.ArrayList<>();
+    public TimekeepingBatchResultResponse batchRejectTimekeeping(BatchRejectRequest request, boolean includeRecords) {
+        String reason = request.getReason() != null && !request.getReason().trim().isEmpty()
+                ? request.getReason() : null;
+        return processBatch(request.getRecordIds(), Timekeeping.Status.Error, includeRecords, ids -> reason == null
+                ? timekeepingRepository.updateStatus(ids, Timekeeping.Status.Pending, Timekeeping.Status.Error, LocalDateTime.now())
+                : timekeepingRepository.updateStatusReplacingNote(ids, Timekeeping.Status.Pending, Timekeeping.Status.Error,
+                        reason, LocalDateTime.now()));
+    }
 
-        for (Integer recordId : request.getRecordIds()) {
-            try {
-                Timekeeping timekeeping = timekeepingRepository.findById(recordId)
-                        .orElseThrow(() -> new RuntimeException("Timekeeping record not found with id: " + recordId));
+    /**
+     * Load the records with one IN query per chunk, validate them, apply the change with one bulk
+     * UPDATE per chunk and adjust the rollup once per (work date, department) bucket.
+     */
+    private TimekeepingBatchResultResponse processBatch(List<Integer> recordIds, Timekeeping.Status newStatus,
+                                                        boolean includeRecords,
+                                                        ToIntFunction<List<Integer>> bulkUpdate) {
+        List<Integer> ids = recordIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        List<TimekeepingBatchResultResponse.FailedItem> failures = new ArrayList<>();
+        List<Integer> acceptedIds = new ArrayList<>();
+        List<AttendanceRollupService.Contribution> before = new ArrayList<>();
+
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+            Map<Integer, Timekeeping> found = new HashMap<>();
+            for (Timekeeping timekeeping : timekeepingRepository.findAllWithEmployeeByIdIn(chunk)) {
+                found.put(timekeeping.getId(), timekeeping);
+            }
 
-                if (timekeeping.getStatus() != Timekeeping.Status.Pending) {
-                    log.warn("Skipping record {} - not in Pending status", recordId);
-                    continue;
+            List<Integer> chunkAccepted = new ArrayList<>();
+            for (Integer recordId : chunk) {
+                Timekeeping timekeeping = found.get(recordId);
+                if (timekeeping == null) {
+                    failures.add(failedItem(recordId, "Timekeeping record not found with id: " + recordId));
+                } else if (timekeeping.getStatus() != Timekeeping.Status.Pending) {
+                    failures.add(failedItem(recordId, "Record is not in Pending status: " + timekeeping.getStatus()));
+                } else {
+                    chunkAccepted.add(recordId);
+                    before.add(attendanceRollupService.snapshot(timekeeping));
                 }
+            }
+            if (chunkAccepted.isEmpty()) {
+                continue;
+            }
 
-                timekeeping.setStatus(Timekeeping.Status.Error);
-                if (request.getReason() != null && !request.getReason().trim().isEmpty()) {
-                    timekeeping.setAdminNote(request.getReason());
-                }
-                timekeeping.setUpdatedAt(LocalDateTime.now());
-                timekeeping = timekeepingRepository.save(timekeeping);
+            int updated = bulkUpdate.applyAsInt(chunkAccepted);
+            if (updated != chunkAccepted.size()) {
+                // Someone else changed part of the batch between the read and the update
+                throw new RuntimeException("Some timekeeping records were modified concurrently, please reload and try again");
+            }
+            acceptedIds.addAll(chunkAccepted);
+        }
 
-                results.add(mapToResponse(timekeeping));
-            } catch (Exception e) {
-                log.error("Error rejecting timekeeping record {}: {}", recordId, e.getMessage());
+        attendanceRollupService.recordChanges(before, before.stream()
+                .map(contribution -> contribution != null ? contribution.withStatus(newStatus) : null)
+                .toList());
+
+        List<TimekeepingResponse> records = null;
+        if (includeRecords) {
+            records = new ArrayList<>(acceptedIds.size());
+            for (int from = 0; from < acceptedIds.size(); from += BATCH_CHUNK_SIZE) {
+                List<Integer> chunk = acceptedIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, acceptedIds.size()));
+                timekeepingRepository.findAllWithEmployeeByIdIn(chunk).stream()
+                        .map(this::mapToResponse)
+                        .forEach(records::add);
             }
         }
 
-        return results;
+        log.info("Batch {} of timekeeping records: {} succeeded, {} failed", newStatus, acceptedIds.size(), failures.size());
+        return TimekeepingBatchResultResponse.builder()
+                .requested(ids.size())
+                .succeeded(acceptedIds.size())
+                .failed(failures.size())
+                .failures(failures)
+                .records(records)
+                .build();
+    }
+
+    private static TimekeepingBatchResultResponse.FailedItem failedItem(Integer recordId, String reason) {
+        return TimekeepingBatchResultResponse.FailedItem.builder()
+                .recordId(recordId)
+                .reason(reason)
+                .build();
     }
 
     @Transactional
     public TimekeepingResponse markTimekeepingAsError(Integer recordId, String reason) {
         Timekeeping timekeeping = timekeepingRepository.findById(recordId)
                 .orElseThrow(() -> new RuntimeException("Timekeeping record not found with id: " + recordId));
+        AttendanceRollupService.Contribution before = attendanceRollupService.snapshot(timekeeping);
 
         timekeeping.setStatus(Timekeeping.Status.Error);
         if (reason != null && !reason.trim().isEmpty()) {
@@ -484,6 +524,7 @@ public class TimekeepingService {
         }
         timekeeping.setUpdatedAt(LocalDateTime.now());
         timekeeping = timekeepingRepository.save(timekeeping);
+        attendanceRollupService.recordChange(before, timekeeping);
 
         return mapToResponse(timekeeping);
     }
@@ -494,16 +535,13 @@ public class TimekeepingService {
     }
 
     public TimekeepingStatsResponse getTimekeepingStats() {
-        long totalPending = timekeepingRepository.findByStatus(Timekeeping.Status.Pending).size();
-        long totalConfirmed = timekeepingRepository.findByStatus(Timekeeping.Status.Confirmed).size();
-        long totalError = timekeepingRepository.findByStatus(Timekeeping.Status.Error).size();
-        long totalRecords = timekeepingRepository.count();
+        StatusCountService.StatusCounts<Timekeeping.Status> counts = statusCountService.getTimekeepingCounts();
 
         return TimekeepingStatsResponse.builder()
-                .totalPending(totalPending)
-                .totalConfirmed(totalConfirmed)
-                .totalError(totalError)
-                .totalRecords(totalRecords)
+                .totalPending(counts.get(Timekeeping.Status.Pending))
+                .totalConfirmed(counts.get(Timekeeping.Status.Confirmed))
+                .totalError(counts.get(Timekeeping.Status.Error))
+                .totalRecords(counts.total())
                 .build();
     }
 
@@ -515,6 +553,7 @@ public class TimekeepingService {
         if (timekeeping.getStatus() != Timekeeping.Status.Pending) {
             throw new RuntimeException("Only pending records can be rejected");
         }
+        AttendanceRollupService.Contribution before = attendanceRollupService.snapshot(timekeeping);
 
         // Update times if corrected times are provided
         if (request.getCorrectedTimeIn() != null) {
@@ -570,6 +609,7 @@ public class TimekeepingService {
         }
         timekeeping.setUpdatedAt(LocalDateTime.now());
         timekeeping = timekeepingRepository.save(timekeeping);
+        attendanceRollupService.recordChange(before, timekeeping);
 
         return mapToResponse(timekeeping);
     }
@@ -590,6 +630,7 @@ public class TimekeepingService {
     public TimekeepingResponse updateTimekeeping(Integer recordId, UpdateTimekeepingRequest request) {
         Timekeeping timekeeping = timekeepingRepository.findById(recordId)
                 .orElseThrow(() -> new RuntimeException("Timekeeping record not found with id: " + recordId));
+        AttendanceRollupService.Contribution before = attendanceRollupService.snapshot(timekeeping);
 
         boolean recalculate = false;
 
@@ -679,6 +720,7 @@ public class TimekeepingService {
 
         timekeeping.setUpdatedAt(LocalDateTime.now());
         timekeeping = timekeepingRepository.save(timekeeping);
+        attendanceRollupService.recordChange(before, timekeeping);
 
         return mapToResponse(timekeeping);
     }
@@ -700,6 +742,8 @@ public class TimekeepingService {
             throw new RuntimeException("You can only update your own timekeeping records");
         }
 
+        AttendanceRollupService.Contribution before = attendanceRollupService.snapshot(timekeeping);
+
         // Update reason
         timekeeping.setReason(request.getReason());
         timekeeping.setUpdatedAt(LocalDateTime.now());
@@ -712,6 +756,7 @@ public class TimekeepingService {
         }
 
         timekeeping = timekeepingRepository.save(timekeeping);
+        attendanceRollupService.recordChange(before, timekeeping);
         return mapToResponse(timekeeping);
     }
 
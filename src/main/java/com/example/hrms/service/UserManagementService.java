@@ -7,6 +7,7 @@ import com.example.hrms.entity.User;
 import com.example.hrms.repository.EmployeeRepository;
 import com.example.hrms.repository.RoleRepository;
 import com.example.hrms.repository.UserRepository;
+import com.example.hrms.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +16,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,10 +26,16 @@ public class UserManagementService {
     private final RoleRepository roleRepository;
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final AvatarService avatarService;
+    private final EmployeeSearchIndex employeeSearchIndex;
+    private final UsernameAllocator usernameAllocator;
 
     public Page<UserResponse> getAllUsers(String search, Integer roleId, Pageable pageable) {
         Page<User> users = userRepository.searchUsers(search, roleId, pageable);
-        return users.map(this::mapToResponse);
+        Map<Integer, String> avatarUrls = avatarService.getAvatarUrls(
+                users.getContent().stream().map(User::getUserId).collect(Collectors.toList()));
+        return users.map(user -> mapToResponse(user, avatarUrls.get(user.getUserId())));
     }
 
     public UserResponse getUserById(Integer id) {
@@ -74,7 +83,6 @@ public class UserManagementService {
                 .username(request.getUsername())
                 .email(request.getEmail())
                 .password(passwordEncoder.encode(request.getPassword()))
-                .avatarData(request.getAvatarBase64())
                 .role(role)
                 .employee(employee)
                 .createdAt(LocalDateTime.now())
@@ -82,6 +90,13 @@ public class UserManagementService {
                 .build();
 
         user = userRepository.save(user);
+        usernameAllocator.recordUsername(user.getUsername());
+        if (employee != null) {
+            employeeSearchIndex.refresh(employee.getEmployeeId());
+        }
+        if (request.getAvatarBase64() != null && !request.getAvatarBase64().isBlank()) {
+            avatarService.store(user.getUserId(), request.getAvatarBase64());
+        }
         return mapToResponse(user);
     }
 
@@ -89,6 +104,8 @@ public class UserManagementService {
     public UserResponse updateUser(Integer id, UpdateUserRequest request) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        String previousEmail = user.getEmail();
+        Integer previousEmployeeId = user.getEmployee() != null ? user.getEmployee().getEmployeeId() : null;
 
         if (request.getUsername() != null && !request.getUsername().equals(user.getUsername())) {
             // Check if username already exists
@@ -96,6 +113,7 @@ public class UserManagementService {
                 throw new RuntimeException("Username already exists: " + request.getUsername());
             }
             user.setUsername(request.getUsername());
+            usernameAllocator.recordUsername(request.getUsername());
         }
 
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
@@ -127,11 +145,18 @@ public class UserManagementService {
         }
 
         if (request.getAvatarBase64() != null) {
-            user.setAvatarData(request.getAvatarBase64());
+            if (request.getAvatarBase64().isBlank()) {
+                avatarService.delete(user.getUserId());
+            } else {
+                avatarService.store(user.getUserId(), request.getAvatarBase64());
+            }
         }
 
         user.setUpdatedAt(LocalDateTime.now());
         user = userRepository.save(user);
+        principalCache.evict(previousEmail, user.getEmail());
+        employeeSearchIndex.refresh(previousEmployeeId,
+                user.getEmployee() != null ? user.getEmployee().getEmployeeId() : null);
 
         return mapToResponse(user);
     }
@@ -147,6 +172,7 @@ public class UserManagementService {
         user.setRole(role);
         user.setUpdatedAt(LocalDateTime.now());
         user = userRepository.save(user);
+        principalCache.evict(user.getEmail());
 
         return mapToResponse(user);
     }
@@ -163,6 +189,7 @@ public class UserManagementService {
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        principalCache.evict(user.getEmail());
     }
 
     @Transactional
@@ -172,16 +199,25 @@ public class UserManagementService {
 
         // Soft delete: just remove the employee link and clear some fields
         // Or we can add an active field to User entity in the future
+        avatarService.delete(user.getUserId());
         userRepository.delete(user);
+        principalCache.evict(user.getEmail());
+        if (user.getEmployee() != null) {
+            employeeSearchIndex.refresh(user.getEmployee().getEmployeeId());
+        }
     }
 
     private UserResponse mapToResponse(User user) {
+        return mapToResponse(user, avatarService.getAvatarUrl(user.getUserId()));
+    }
+
+    private UserResponse mapToResponse(User user, String avatarUrl) {
         UserResponse.UserResponseBuilder builder = UserResponse.builder()
                 .userId(user.getUserId())
                 .username(user.getUsername())
                 .email(user.getEmail())
                 .active(true) // Default to true, can be enhanced with status field later
-                .avatarBase64(user.getAvatarData())
+                .avatarUrl(avatarUrl)
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt());
 
@@ -0,0 +1,130 @@
+package com.example.hrms.service;
+
+import com.example.hrms.repository.UserRepository;
+import com.example.hrms.repository.UsernameSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Hands out generated usernames: base, base1, base2, ...
+ * Each base has a counter row in username_sequence that is advanced with one atomic UPDATE, so
+ * concurrent creates get different suffixes without probing the user table. A counter is seeded on
+ * first use from a single prefix query over existing usernames.
+ * Reservations join the caller's transaction, so a create uses one connection and a create that rolls
+ * back also rolls its suffix back. The counter row stays locked until the caller commits, which orders
+ * concurrent creates for the same base; the unique username constraint remains the final guard.
+ */
+@Slf4j
+@Service
+public class UsernameAllocator {
+    private final UsernameSequenceRepository usernameSequenceRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Longer digit runs (e.g. old timestamp fallbacks) cannot be reached by the counter, so they do not seed it
+    private static final int MAX_SUFFIX_DIGITS = 9;
+
+    public UsernameAllocator(UsernameSequenceRepository usernameSequenceRepository,
+                             UserRepository userRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.usernameSequenceRepository = usernameSequenceRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public String allocate(String base) {
+        return allocate(base, 1).get(0);
+    }
+
+    /**
+     * Reserve count consecutive usernames for one base in a single round trip
+     */
+    public List<String> allocate(String base, int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        String prefix = base.toLowerCase(Locale.ROOT);
+        Long last = transactionTemplate.execute(status -> reserve(prefix, count));
+        List<String> usernames = new ArrayList<>(count);
+        for (long suffix = last - count + 1; suffix <= last; suffix++) {
+            usernames.add(withSuffix(prefix, suffix));
+        }
+        return usernames;
+    }
+
+    /**
+     * The usernames allocate would return next, without reserving them (dry runs)
+     * @param alreadyPreviewed names previewed earlier in the same run for this base
+     */
+    public List<String> preview(String base, int alreadyPreviewed, int count) {
+        String prefix = base.toLowerCase(Locale.ROOT);
+        long last = usernameSequenceRepository.findById(prefix)
+                .map(sequence -> (long) sequence.getLastSuffix())
+                .orElseGet(() -> (long) highestUsedSuffix(prefix)) + alreadyPreviewed;
+        List<String> usernames = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            usernames.add(withSuffix(prefix, last + i));
+        }
+        return usernames;
+    }
+
+    /**
+     * Keep counters ahead of a username chosen by hand, e.g. "cong.hvt7" moves the cong.hvt counter to at least 7.
+     * Counters that do not exist yet need nothing: their seed query will see the name.
+     */
+    public void recordUsername(String username) {
+        if (username == null || username.isBlank()) {
+            return;
+        }
+        String name = username.trim().toLowerCase(Locale.ROOT);
+        int digitsStart = name.length();
+        while (digitsStart > 0 && Character.isDigit(name.charAt(digitsStart - 1))) {
+            digitsStart--;
+        }
+        String prefix = name.substring(0, digitsStart);
+        String digits = name.substring(digitsStart);
+        transactionTemplate.executeWithoutResult(status -> {
+            usernameSequenceRepository.raiseTo(name, 0);
+            if (!prefix.isEmpty() && !digits.isEmpty() && digits.length() <= MAX_SUFFIX_DIGITS) {
+                usernameSequenceRepository.raiseTo(prefix, Integer.parseInt(digits));
+            }
+        });
+    }
+
+    private long reserve(String prefix, int count) {
+        // Plain read first: a locking UPDATE on a missing key would take a gap lock and could deadlock two first users
+        if (!usernameSequenceRepository.existsById(prefix)) {
+            usernameSequenceRepository.insertIfAbsent(prefix, highestUsedSuffix(prefix));
+        }
+        if (usernameSequenceRepository.advance(prefix, count) == 0) {
+            throw new RuntimeException("Could not reserve a username for " + prefix);
+        }
+        return usernameSequenceRepository.lastInsertId();
+    }
+
+    // -1 when neither the base nor any base<n> is taken
+    private int highestUsedSuffix(String prefix) {
+        int highest = -1;
+        String pattern = prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        for (String username : userRepository.findUsernamesStartingWith(pattern)) {
+            String rest = username.toLowerCase(Locale.ROOT).substring(Math.min(prefix.length(), username.length()));
+            if (rest.isEmpty()) {
+                highest = Math.max(highest, 0);
+            } else if (rest.length() <= MAX_SUFFIX_DIGITS && rest.chars().allMatch(Character::isDigit)) {
+                highest = Math.max(highest, Integer.parseInt(rest));
+            }
+        }
+        log.debug("Seeded username counter {} at {}", prefix, highest);
+        return highest;
+    }
+
+    private static String withSuffix(String prefix, long suffix) {
+        return suffix == 0 ? prefix : prefix + suffix;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.hrms.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions for numeric columns of native and aggregate query rows, whose Java type depends on the
+ * driver and the SQL expression (Long, BigInteger, BigDecimal, Double, ...). Null and non-numeric values
+ * read as zero, like an aggregate over no rows.
+ */
+public class NumberUtil {
+
+    private NumberUtil() {
+    }
+
+    public static int toInt(Object value) {
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    public static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    public static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return value instanceof Number number ? BigDecimal.valueOf(number.doubleValue()) : BigDecimal.ZERO;
+    }
+}
@@ -1,8 +1,17 @@
 package com.example.hrms.util;
 
 import com.example.hrms.dto.base.ApiResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import com.example.hrms.dto.request.*;
 import com.example.hrms.dto.response.*;
 /**
@@ -52,5 +61,19 @@ public class ResponseHelper {
     public static <T> ResponseEntity<ApiResponse<T>> notFound(String message) {
         return error(message, HttpStatus.NOT_FOUND);
     }
-}
 
+    /**
+     * File download streamed by body, e.g. "timekeeping-20241231.csv". Validate parameters before calling this:
+     * the headers are sent once body starts writing, so later failures can no longer become a JSON error.
+     */
+    public static ResponseEntity<StreamingResponseBody> fileDownload(TabularFileWriter.Format format, String baseName,
+                                                                     StreamingResponseBody body) {
+        String fileName = baseName + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString())
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+}
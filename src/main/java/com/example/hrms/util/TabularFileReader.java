@@ -0,0 +1,341 @@
+package com.example.hrms.util;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Forward-only row reader for uploaded CSV and XLSX files; one row is in memory at a time.
+ * XLSX is read straight from the OOXML parts (first worksheet, shared strings table) with StAX,
+ * so no spreadsheet library is needed. Cells are returned as trimmed strings.
+ */
+public abstract class TabularFileReader implements Closeable {
+
+    /**
+     * @return the next row, or null at the end of the file
+     */
+    public abstract List<String> nextRow() throws IOException;
+
+    /**
+     * 1-based row number of the last row returned, as shown in a spreadsheet
+     */
+    public abstract int getRowNumber();
+
+    /**
+     * Pick the format from the file name (.csv, .xlsx)
+     */
+    public static TabularFileReader open(String fileName, InputStream input) throws IOException {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return new Csv(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+        if (name.endsWith(".xlsx")) {
+            return new Xlsx(input);
+        }
+        throw new IOException("Unsupported file type, expected .csv or .xlsx");
+    }
+
+    /**
+     * RFC 4180 CSV: quoted fields may contain commas, quotes ("") and line breaks; a UTF-8 BOM is skipped
+     */
+    private static class Csv extends TabularFileReader {
+        private final Reader reader;
+        private int rowNumber;
+        private boolean firstChar = true;
+        private boolean eof;
+
+        Csv(Reader reader) {
+            this.reader = new BufferedReader(reader);
+        }
+
+        @Override
+        public List<String> nextRow() throws IOException {
+            if (eof) {
+                return null;
+            }
+            List<String> row = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (firstChar) {
+                    firstChar = false;
+                    if (c == '\uFEFF') {
+                        continue;
+                    }
+                }
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    row.add(field.toString().trim());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (c == -1) {
+                eof = true;
+                if (!any) {
+                    return null;
+                }
+            }
+            row.add(field.toString().trim());
+            rowNumber++;
+            return row;
+        }
+
+        @Override
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Limits keep a small crafted file from expanding into a large heap: the shared strings table is loaded
+     * whole, and a cell reference such as XFD1 would otherwise pad the row with thousands of empty cells.
+     */
+    private static class Xlsx extends TabularFileReader {
+        // Excel's own column limit (XFD)
+        private static final int MAX_COLUMNS = 16_384;
+        private static final int MAX_SHARED_STRINGS = 1_000_000;
+        private static final int MAX_SHARED_STRING_CHARS = 10_000_000;
+
+        private final Path tempFile;
+        private final ZipFile zip;
+        private final InputStream sheetStream;
+        private final XMLStreamReader sheet;
+        private final List<String> sharedStrings;
+        private int rowNumber;
+        // Width of the first row (the header); later rows may not have values beyond it
+        private int headerWidth = -1;
+
+        Xlsx(InputStream input) throws IOException {
+            // Zip parts can come in any order, so random access is needed to read shared strings first
+            tempFile = Files.createTempFile("import-", ".xlsx");
+            ZipFile openedZip = null;
+            try {
+                Files.copy(input, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                openedZip = new ZipFile(tempFile.toFile());
+                sharedStrings = readSharedStrings(openedZip);
+                sheetStream = openedZip.getInputStream(findFirstSheet(openedZip));
+                sheet = xmlFactory().createXMLStreamReader(sheetStream);
+                zip = openedZip;
+            } catch (IOException | XMLStreamException | RuntimeException e) {
+                if (openedZip != null) {
+                    openedZip.close();
+                }
+                Files.deleteIfExists(tempFile);
+                throw e instanceof IOException io ? io : new IOException("Invalid XLSX file: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public List<String> nextRow() throws IOException {
+            try {
+                while (sheet.hasNext()) {
+                    if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                        String r = sheet.getAttributeValue(null, "r");
+                        rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                        List<String> row = readRow();
+                        if (headerWidth < 0) {
+                            headerWidth = row.size();
+                        }
+                        return row;
+                    }
+                }
+                return null;
+            } catch (XMLStreamException | NumberFormatException e) {
+                throw new IOException("Invalid XLSX worksheet: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        private List<String> readRow() throws XMLStreamException, IOException {
+            List<String> row = new ArrayList<>();
+            String type = null;
+            int column = -1;
+            StringBuilder value = null;
+            while (sheet.hasNext()) {
+                int event = sheet.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String element = sheet.getLocalName();
+                    if ("c".equals(element)) {
+                        type = sheet.getAttributeValue(null, "t");
+                        String ref = sheet.getAttributeValue(null, "r");
+                        column = ref != null ? columnIndex(ref) : row.size();
+                        value = new StringBuilder();
+                    } else if (("v".equals(element) || "t".equals(element)) && value != null) {
+                        value.append(sheet.getElementText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String element = sheet.getLocalName();
+                    if ("c".equals(element) && value != null) {
+                        String text = cellText(type, value.toString());
+                        value = null;
+                        if (column < row.size()) {
+                            throw new IOException("Row " + rowNumber + " has cells out of order");
+                        }
+                        if (headerWidth >= 0 && column >= headerWidth) {
+                            // Formatted but empty cells past the header are common and carry nothing
+                            if (text.isEmpty()) {
+                                continue;
+                            }
+                            throw new IOException("Row " + rowNumber + " has a value in column " + (column + 1)
+                                    + ", beyond the " + headerWidth + " header columns");
+                        }
+                        // Missing cells are empty strings so columns stay aligned with the header
+                        while (row.size() < column) {
+                            row.add("");
+                        }
+                        row.add(text);
+                    } else if ("row".equals(element)) {
+                        return row;
+                    }
+                }
+            }
+            return row;
+        }
+
+        private String cellText(String type, String raw) {
+            if ("s".equals(type)) {
+                int index = Integer.parseInt(raw.trim());
+                return index >= 0 && index < sharedStrings.size() ? sharedStrings.get(index).trim() : "";
+            }
+            if ("b".equals(type)) {
+                return "1".equals(raw.trim()) ? "TRUE" : "FALSE";
+            }
+            return raw.trim();
+        }
+
+        private static int columnIndex(String cellRef) throws IOException {
+            int index = 0;
+            for (int i = 0; i < cellRef.length() && Character.isLetter(cellRef.charAt(i)); i++) {
+                index = index * 26 + (Character.toUpperCase(cellRef.charAt(i)) - 'A' + 1);
+                if (index > MAX_COLUMNS) {
+                    throw new IOException("Invalid cell reference " + cellRef + ": beyond column XFD");
+                }
+            }
+            return index - 1;
+        }
+
+        private static List<String> readSharedStrings(ZipFile zip) throws IOException, XMLStreamException {
+            List<String> strings = new ArrayList<>();
+            ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+            if (entry == null) {
+                return strings;
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                XMLStreamReader reader = xmlFactory().createXMLStreamReader(in);
+                StringBuilder current = null;
+                long totalChars = 0;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if ("si".equals(reader.getLocalName())) {
+                            current = new StringBuilder();
+                        } else if ("t".equals(reader.getLocalName()) && current != null) {
+                            String text = reader.getElementText();
+                            totalChars += text.length();
+                            if (totalChars > MAX_SHARED_STRING_CHARS) {
+                                throw new IOException("XLSX shared strings exceed " + MAX_SHARED_STRING_CHARS + " characters");
+                            }
+                            current.append(text);
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "si".equals(reader.getLocalName())) {
+                        if (strings.size() >= MAX_SHARED_STRINGS) {
+                            throw new IOException("XLSX file has more than " + MAX_SHARED_STRINGS + " shared strings");
+                        }
+                        strings.add(current != null ? current.toString() : "");
+                        current = null;
+                    }
+                }
+                reader.close();
+            }
+            return strings;
+        }
+
+        private static ZipEntry findFirstSheet(ZipFile zip) throws IOException {
+            ZipEntry entry = zip.getEntry("xl/worksheets/sheet1.xml");
+            if (entry != null) {
+                return entry;
+            }
+            ZipEntry first = null;
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry candidate = entries.nextElement();
+                if (candidate.getName().startsWith("xl/worksheets/sheet") && candidate.getName().endsWith(".xml")
+                        && (first == null || candidate.getName().compareTo(first.getName()) < 0)) {
+                    first = candidate;
+                }
+            }
+            if (first == null) {
+                throw new IOException("XLSX file has no worksheet");
+            }
+            return first;
+        }
+
+        private static XMLInputFactory xmlFactory() {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return factory;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                sheet.close();
+            } catch (XMLStreamException e) {
+                // Closing anyway
+            }
+            sheetStream.close();
+            zip.close();
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
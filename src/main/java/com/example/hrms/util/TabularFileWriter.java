@@ -0,0 +1,256 @@
+package com.example.hrms.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Forward-only row writer for CSV and XLSX downloads; nothing is buffered beyond the current row.
+ * XLSX is written as the minimal set of OOXML parts with inline strings, so no spreadsheet library
+ * and no shared strings table are needed. Closing finishes the file but leaves the target stream open.
+ */
+public abstract class TabularFileWriter implements Closeable {
+
+    public enum Format {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            if (value != null) {
+                for (Format format : values()) {
+                    if (format.extension.equalsIgnoreCase(value.trim())) {
+                        return format;
+                    }
+                }
+            }
+            throw new RuntimeException("Unsupported export format: " + value + " (expected csv or xlsx)");
+        }
+    }
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    /**
+     * Cells may be null, numbers, dates/times, enums or anything with a useful toString
+     */
+    public abstract void writeRow(List<?> cells) throws IOException;
+
+    public static TabularFileWriter open(Format format, OutputStream output, String sheetName) throws IOException {
+        return format == Format.XLSX ? new Xlsx(output, sheetName) : new Csv(output);
+    }
+
+    static String text(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.format(DATE_TIME);
+        }
+        if (value instanceof LocalTime time) {
+            return time.format(TIME);
+        }
+        if (value instanceof LocalDate date) {
+            return date.toString();
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return value.toString();
+    }
+
+    /**
+     * RFC 4180 CSV with a UTF-8 BOM so Excel detects the encoding of Vietnamese names
+     */
+    private static class Csv extends TabularFileWriter {
+        private final Writer writer;
+
+        Csv(OutputStream output) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            writer.write('\uFEFF');
+        }
+
+        @Override
+        public void writeRow(List<?> cells) throws IOException {
+            for (int i = 0; i < cells.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(cells.get(i));
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(Object value) throws IOException {
+            String field = text(value);
+            // Free text starting like a formula is kept as text when the file is opened in a spreadsheet
+            if (value instanceof String && !field.isEmpty() && "=+-@\t\r".indexOf(field.charAt(0)) >= 0) {
+                field = "'" + field;
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(field.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(field);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static class Xlsx extends TabularFileWriter {
+        // Limits of the format
+        private static final int MAX_ROWS = 1_048_576;
+        private static final int MAX_CELL_LENGTH = 32_767;
+
+        private final ZipOutputStream zip;
+        private final Writer writer;
+        private int rowNumber;
+
+        Xlsx(OutputStream output, String sheetName) throws IOException {
+            this.zip = new ZipOutputStream(new BufferedOutputStream(output));
+            this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+
+            writeEntry("[Content_Types].xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                    + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                    + "</Types>");
+            writeEntry("_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            writeEntry("xl/workbook.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                    + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"" + escape(sheetName(sheetName)) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+                    + "</workbook>");
+            writeEntry("xl/_rels/workbook.xml.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                    + "</Relationships>");
+
+            // The worksheet entry stays open while rows are streamed into it
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+        }
+
+        @Override
+        public void writeRow(List<?> cells) throws IOException {
+            if (rowNumber >= MAX_ROWS) {
+                throw new IOException("XLSX row limit of " + MAX_ROWS + " reached, use CSV for this export");
+            }
+            rowNumber++;
+            writer.write("<row r=\"");
+            writer.write(Integer.toString(rowNumber));
+            writer.write("\">");
+            for (Object value : cells) {
+                if (value == null) {
+                    writer.write("<c/>");
+                } else if (value instanceof Number && isFinite((Number) value)) {
+                    writer.write("<c><v>");
+                    writer.write(text(value));
+                    writer.write("</v></c>");
+                } else {
+                    String text = text(value);
+                    if (text.length() > MAX_CELL_LENGTH) {
+                        text = text.substring(0, MAX_CELL_LENGTH);
+                    }
+                    writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                    writer.write(escape(text));
+                    writer.write("</t></is></c>");
+                }
+            }
+            writer.write("</row>");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+            zip.finish();
+            zip.flush();
+        }
+
+        private static boolean isFinite(Number number) {
+            return !(number instanceof Double || number instanceof Float) || Double.isFinite(number.doubleValue());
+        }
+
+        private void writeEntry(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            writer.write(content);
+            writer.flush();
+            zip.closeEntry();
+        }
+
+        // Excel sheet names: at most 31 characters, none of : \ / ? * [ ]
+        private static String sheetName(String name) {
+            String cleaned = name == null ? "" : name.replaceAll("[:\\\\/?*\\[\\]]", " ").trim();
+            if (cleaned.isEmpty()) {
+                return "Sheet1";
+            }
+            return cleaned.length() > 31 ? cleaned.substring(0, 31) : cleaned;
+        }
+
+        // XML escaping; control characters XML 1.0 cannot carry are dropped
+        private static String escape(String text) {
+            StringBuilder escaped = new StringBuilder(text.length() + 16);
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '&' -> escaped.append("&amp;");
+                    case '<' -> escaped.append("&lt;");
+                    case '>' -> escaped.append("&gt;");
+                    case '"' -> escaped.append("&quot;");
+                    default -> {
+                        if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                            if (c != '\uFFFE' && c != '\uFFFF') {
+                                escaped.append(c);
+                            }
+                        }
+                    }
+                }
+            }
+            return escaped.toString();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.hrms.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Accent folding for Vietnamese text, shared by username generation and employee search
+ */
+public class VietnameseTextUtil {
+
+    private static final Pattern[] PATTERNS = {
+            Pattern.compile("[àáạảãâầấậẩẫăằắặẳẵ]"),
+            Pattern.compile("[èéẹẻẽêềếệểễ]"),
+            Pattern.compile("[ìíịỉĩ]"),
+            Pattern.compile("[òóọỏõôồốộổỗơờớợởỡ]"),
+            Pattern.compile("[ùúụủũưừứựửữ]"),
+            Pattern.compile("[ỳýỵỷỹ]"),
+            Pattern.compile("[đ]"),
+            Pattern.compile("[ÀÁẠẢÃÂẦẤẬẨẪĂẰẮẶẲẴ]"),
+            Pattern.compile("[ÈÉẸẺẼÊỀẾỆỂỄ]"),
+            Pattern.compile("[ÌÍỊỈĨ]"),
+            Pattern.compile("[ÒÓỌỎÕÔỒỐỘỔỖƠỜỚỢỞỠ]"),
+            Pattern.compile("[ÙÚỤỦŨƯỪỨỰỬỮ]"),
+            Pattern.compile("[ỲÝỴỶỸ]"),
+            Pattern.compile("[Đ]")
+    };
+    private static final String[] REPLACEMENTS = {"a", "e", "i", "o", "u", "y", "d", "A", "E", "I", "O", "U", "Y", "D"};
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private VietnameseTextUtil() {
+    }
+
+    /**
+     * Remove Vietnamese accents: "Nguyễn Văn Đạt" -> "Nguyen Van Dat"
+     */
+    public static String removeAccent(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        String result = text;
+        for (int i = 0; i < PATTERNS.length; i++) {
+            result = PATTERNS[i].matcher(result).replaceAll(REPLACEMENTS[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Lowercase, accent-free, single-spaced form used for matching: "  Nguyễn  Văn A " -> "nguyen van a"
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(removeAccent(text.trim().toLowerCase())).replaceAll(" ");
+    }
+}
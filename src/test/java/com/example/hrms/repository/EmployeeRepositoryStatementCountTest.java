@@ -0,0 +1,118 @@
+package com.example.hrms.repository;
+
+import com.example.hrms.dto.response.EmployeeResponse;
+import com.example.hrms.entity.Department;
+import com.example.hrms.entity.Employee;
+import com.example.hrms.entity.Role;
+import com.example.hrms.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The projection listings must cost the same statements whatever the page size (content + count),
+ * i.e. no per-row lazy loading of department, user or role.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:hrms;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EmployeeRepositoryStatementCountTest {
+    private static final int EMPLOYEES = 150;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<Integer> departmentIds;
+
+    @BeforeEach
+    void setUp() {
+        Role role = entityManager.persist(Role.builder().roleKey("EMPLOYEE").roleName("Employee").build());
+        Department sales = entityManager.persist(Department.builder().departmentName("Sales").build());
+        Department support = entityManager.persist(Department.builder().departmentName("Support").build());
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = entityManager.persist(Employee.builder()
+                    .fullName("Nhân viên " + i)
+                    .email("employee" + i + "@hrms.test")
+                    .phone("090" + String.format("%07d", i))
+                    .department(i % 2 == 0 ? sales : support)
+                    .status(Employee.EmploymentStatus.Active)
+                    .build());
+            entityManager.persist(User.builder()
+                    .username("employee" + i)
+                    .email("employee" + i + "@hrms.test")
+                    .password("")
+                    .role(role)
+                    .employee(employee)
+                    .status(1)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        departmentIds = List.of(sales.getDepartmentId(), support.getDepartmentId());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void adminListingCostsTheSameStatementsForAnyPageSize() {
+        IntFunction<Page<EmployeeResponse>> listing = size -> employeeRepository.searchEmployeeResponses(
+                null, null, PageRequest.of(0, size, Sort.by("employeeId")));
+
+        long small = statementsFor(listing, 10);
+        long large = statementsFor(listing, 100);
+
+        assertThat(small).isEqualTo(2);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void departmentListingCostsTheSameStatementsForAnyPageSize() {
+        IntFunction<Page<EmployeeResponse>> listing = size -> employeeRepository.findEmployeeResponsesByDepartments(
+                departmentIds, null, PageRequest.of(0, size));
+
+        long small = statementsFor(listing, 10);
+        long large = statementsFor(listing, 100);
+
+        assertThat(small).isEqualTo(2);
+        assertThat(large).isEqualTo(small);
+    }
+
+    // Statements prepared while loading one full page and reading every row's joined fields
+    private long statementsFor(IntFunction<Page<EmployeeResponse>> listing, int size) {
+        entityManager.clear();
+        statistics.clear();
+        Page<EmployeeResponse> page = listing.apply(size);
+        assertThat(page.getContent()).hasSize(size);
+        assertThat(page.getTotalElements()).isEqualTo(EMPLOYEES);
+        assertThat(page.getContent()).allSatisfy(row -> {
+            assertThat(row.getDepartmentName()).isNotNull();
+            assertThat(row.getUsername()).isNotNull();
+            assertThat(row.getRoleKey()).isEqualTo("EMPLOYEE");
+        });
+        return statistics.getPrepareStatementCount();
+    }
+}
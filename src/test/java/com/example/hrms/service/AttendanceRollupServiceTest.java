@@ -0,0 +1,204 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.Department;
+import com.example.hrms.entity.Employee;
+import com.example.hrms.entity.Timekeeping;
+import com.example.hrms.entity.TimekeepingDailyRollup;
+import com.example.hrms.repository.TimekeepingDailyRollupRepository;
+import com.example.hrms.repository.TimekeepingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceRollupServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    @Mock
+    private TimekeepingDailyRollupRepository rollupRepository;
+    @Mock
+    private TimekeepingRepository timekeepingRepository;
+    @Mock
+    private DashboardCache dashboardCache;
+
+    @InjectMocks
+    private AttendanceRollupService service;
+
+    @Test
+    void confirmingPendingRecordMovesCountAndAddsHours() {
+        Timekeeping record = record(1, 10, Timekeeping.Status.Pending, "0", "0");
+        AttendanceRollupService.Contribution before = service.snapshot(record);
+
+        record.setStatus(Timekeeping.Status.Confirmed);
+        record.setWorkHours(new BigDecimal("8.00"));
+        record.setOvertimeHours(new BigDecimal("1.5"));
+        service.recordChange(before, record);
+
+        verify(rollupRepository).addDelta(eq(DAY), eq(10), eq(-1L), eq(0L), eq(0L), eq(-1L),
+                decimal("0"), decimal("0"));
+        verify(rollupRepository).addDelta(eq(DAY), eq(10), eq(0L), eq(1L), eq(0L), eq(1L),
+                decimal("8"), decimal("1.5"));
+        verify(dashboardCache).invalidate(DashboardCache.Source.TIMEKEEPING);
+    }
+
+    @Test
+    void hoursOfUnconfirmedRecordsAreNotCounted() {
+        Timekeeping record = record(1, 10, Timekeeping.Status.Pending, "0", "0");
+        AttendanceRollupService.Contribution before = service.snapshot(record);
+
+        record.setStatus(Timekeeping.Status.Error);
+        record.setWorkHours(new BigDecimal("3"));
+        service.recordChange(before, record);
+
+        verify(rollupRepository).addDelta(eq(DAY), eq(10), eq(0L), eq(0L), eq(1L), eq(1L),
+                decimal("0"), decimal("0"));
+    }
+
+    @Test
+    void unchangedContributionWritesNothing() {
+        Timekeeping record = record(1, 10, Timekeeping.Status.Confirmed, "8.0", "0");
+        AttendanceRollupService.Contribution before = service.snapshot(record);
+
+        // Same value at a different scale, e.g. after a reload from the database
+        record.setWorkHours(new BigDecimal("8.00"));
+        service.recordChange(before, record);
+
+        verifyNoInteractions(rollupRepository, dashboardCache);
+    }
+
+    @Test
+    void newRecordHasNoSnapshot() {
+        Timekeeping unsaved = record(null, 10, Timekeeping.Status.Pending, "0", "0");
+
+        service.recordChange(service.snapshot(unsaved), record(1, 10, Timekeeping.Status.Pending, "0", "0"));
+
+        verify(rollupRepository).addDelta(eq(DAY), eq(10), eq(1L), eq(0L), eq(0L), eq(1L),
+                decimal("0"), decimal("0"));
+    }
+
+    @Test
+    void recordWithoutDepartmentGoesToNoDepartmentBucket() {
+        Timekeeping record = record(1, null, Timekeeping.Status.Pending, "0", "0");
+
+        service.recordCreated(record);
+
+        verify(rollupRepository).addDelta(eq(DAY), eq(TimekeepingDailyRollup.NO_DEPARTMENT), eq(1L), eq(0L),
+                eq(0L), eq(1L), decimal("0"), decimal("0"));
+    }
+
+    @Test
+    void bulkChangesAreSummedPerBucket() {
+        AttendanceRollupService.Contribution pendingA = contribution(10, Timekeeping.Status.Pending, "0", "0");
+        AttendanceRollupService.Contribution pendingB = contribution(10, Timekeeping.Status.Pending, "0", "0");
+        AttendanceRollupService.Contribution otherDepartment = contribution(20, Timekeeping.Status.Pending, "0", "0");
+
+        service.recordChanges(
+                Arrays.asList(pendingA, pendingB, otherDepartment, null),
+                Arrays.asList(pendingA.withStatus(Timekeeping.Status.Error),
+                        confirmed(pendingB, "7.5", "0"),
+                        otherDepartment.withStatus(Timekeeping.Status.Error),
+                        contribution(20, Timekeeping.Status.Pending, "0", "0")));
+
+        // Only the confirmed record checked in
+        verify(rollupRepository).addDelta(eq(DAY), eq(10), eq(-2L), eq(1L), eq(1L), eq(1L),
+                decimal("7.5"), decimal("0"));
+        verify(rollupRepository).addDelta(eq(DAY), eq(20), eq(0L), eq(0L), eq(1L), eq(0L),
+                decimal("0"), decimal("0"));
+        verifyNoMoreInteractions(rollupRepository);
+        verify(dashboardCache).invalidate(DashboardCache.Source.TIMEKEEPING);
+    }
+
+    @Test
+    void bulkChangesThatCancelOutSkipTheUpsert() {
+        AttendanceRollupService.Contribution first = contribution(10, Timekeeping.Status.Pending, "0", "0");
+        AttendanceRollupService.Contribution second = contribution(10, Timekeeping.Status.Error, "0", "0");
+
+        // One record goes Pending -> Error while another goes Error -> Pending in the same bucket
+        service.recordChanges(List.of(first, second), List.of(second, first));
+
+        verify(rollupRepository, never()).addDelta(any(), anyInt(), anyLong(), anyLong(), anyLong(), anyLong(),
+                any(), any());
+    }
+
+    @Test
+    void movingEmployeeShiftsEveryDayBetweenBuckets() {
+        LocalDate nextDay = DAY.plusDays(1);
+        when(timekeepingRepository.summarizeRollupContributionByWorkDate(7, Timekeeping.Status.Pending,
+                Timekeeping.Status.Confirmed, Timekeeping.Status.Error))
+                .thenReturn(List.of(
+                        new Object[]{DAY, 0L, 1L, 0L, 1L, new BigDecimal("8"), new BigDecimal("2")},
+                        new Object[]{nextDay, 1L, 0L, 0L, 0L, BigDecimal.ZERO, BigDecimal.ZERO}));
+
+        service.moveEmployee(7, null, 20);
+
+        verify(rollupRepository).addDelta(eq(DAY), eq(TimekeepingDailyRollup.NO_DEPARTMENT), eq(0L), eq(-1L),
+                eq(0L), eq(-1L), decimal("-8"), decimal("-2"));
+        verify(rollupRepository).addDelta(eq(DAY), eq(20), eq(0L), eq(1L), eq(0L), eq(1L),
+                decimal("8"), decimal("2"));
+        verify(rollupRepository).addDelta(eq(nextDay), eq(TimekeepingDailyRollup.NO_DEPARTMENT), eq(-1L), eq(0L),
+                eq(0L), eq(0L), decimal("0"), decimal("0"));
+        verify(rollupRepository).addDelta(eq(nextDay), eq(20), eq(1L), eq(0L), eq(0L), eq(0L),
+                decimal("0"), decimal("0"));
+        verify(dashboardCache).invalidate(DashboardCache.Source.TIMEKEEPING);
+    }
+
+    @Test
+    void movingWithinTheSameDepartmentDoesNothing() {
+        service.moveEmployee(7, 10, 10);
+        service.moveEmployee(7, null, TimekeepingDailyRollup.NO_DEPARTMENT);
+
+        verifyNoInteractions(timekeepingRepository, rollupRepository, dashboardCache);
+    }
+
+    private static Timekeeping record(Integer id, Integer departmentId, Timekeeping.Status status,
+                                      String workHours, String overtimeHours) {
+        Department department = departmentId != null ? Department.builder().departmentId(departmentId).build() : null;
+        return Timekeeping.builder()
+                .id(id)
+                .employee(Employee.builder().employeeId(7).department(department).build())
+                .workDate(DAY)
+                .checkIn(DAY.atTime(8, 0))
+                .status(status)
+                .workHours(new BigDecimal(workHours))
+                .overtimeHours(new BigDecimal(overtimeHours))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static AttendanceRollupService.Contribution contribution(Integer departmentId, Timekeeping.Status status,
+                                                                     String workHours, String overtimeHours) {
+        return new AttendanceRollupService.Contribution(DAY, departmentId, status, false,
+                new BigDecimal(workHours), new BigDecimal(overtimeHours));
+    }
+
+    private static AttendanceRollupService.Contribution confirmed(AttendanceRollupService.Contribution contribution,
+                                                                  String workHours, String overtimeHours) {
+        return new AttendanceRollupService.Contribution(contribution.workDate(), contribution.departmentId(),
+                Timekeeping.Status.Confirmed, true, new BigDecimal(workHours), new BigDecimal(overtimeHours));
+    }
+
+    // BigDecimal.equals compares scale too; the rollup only cares about the value
+    private static BigDecimal decimal(String expected) {
+        BigDecimal value = new BigDecimal(expected);
+        return argThat(actual -> actual != null && actual.compareTo(value) == 0);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.hrms.service;
+
+import com.example.hrms.dto.response.DashboardCacheStatsResponse;
+import com.example.hrms.service.DashboardCache.Key;
+import com.example.hrms.service.DashboardCache.Section;
+import com.example.hrms.service.DashboardCache.Source;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DashboardCacheTest {
+    private static final LocalDate START = LocalDate.of(2025, 6, 1);
+    private static final LocalDate END = LocalDate.of(2025, 6, 30);
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        DashboardCache cache = new DashboardCache(500, new MockEnvironment());
+        Key key = key(Section.SUMMARY);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<String> first = executor.submit(() -> cache.get(key, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "loaded";
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<String> second = executor.submit(() -> cache.get(key, () -> "second " + loads.incrementAndGet()));
+            Future<String> third = executor.submit(() -> cache.get(key, () -> "third " + loads.incrementAndGet()));
+            waitUntilCoalesced(cache, 2);
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+            assertThat(third.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+
+        assertThat(cache.get(key, () -> "reloaded")).isEqualTo("loaded");
+        DashboardCacheStatsResponse.SectionStats stats = stats(cache, Section.SUMMARY);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getCoalesced()).isEqualTo(2);
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getHitRatio()).isEqualTo(0.75);
+    }
+
+    @Test
+    void failedLoadIsRethrownToWaitersAndNotCached() throws Exception {
+        DashboardCache cache = new DashboardCache(500, new MockEnvironment());
+        Key key = key(Section.LEAVE_OVERVIEW);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> first = executor.submit(() -> cache.get(key, () -> {
+                loading.countDown();
+                await(release);
+                throw new IllegalStateException("database unavailable");
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<Object> waiter = executor.submit(() -> cache.get(key, () -> "unused"));
+            waitUntilCoalesced(cache, 1);
+            release.countDown();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("database unavailable");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(cache.get(key, () -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    void differentKeysAreCachedSeparately() {
+        DashboardCache cache = new DashboardCache(500, new MockEnvironment());
+
+        assertThat(cache.get(key(Section.SUMMARY), () -> 1)).isEqualTo(1);
+        assertThat(cache.get(new Key(Section.SUMMARY, START, END, 2, null), () -> 2)).isEqualTo(2);
+        assertThat(cache.get(key(Section.SUMMARY), () -> 3)).isEqualTo(1);
+        assertThat(cache.getStats().getEntries()).isEqualTo(2);
+    }
+
+    @Test
+    void zeroTtlDisablesCachingForThatSectionOnly() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.dashboard.cache.ttl-seconds.overtime-trend", "0")
+                .withProperty("app.dashboard.cache.ttl-seconds.summary", "30");
+        DashboardCache cache = new DashboardCache(500, environment);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key(Section.OVERTIME_TREND), loads::incrementAndGet);
+        cache.get(key(Section.OVERTIME_TREND), loads::incrementAndGet);
+        cache.get(key(Section.SUMMARY), loads::incrementAndGet);
+        cache.get(key(Section.SUMMARY), loads::incrementAndGet);
+
+        assertThat(loads).hasValue(3);
+        assertThat(stats(cache, Section.OVERTIME_TREND).getTtlSeconds()).isZero();
+        assertThat(stats(cache, Section.SUMMARY).getTtlSeconds()).isEqualTo(30);
+        assertThat(stats(cache, Section.LEAVE_OVERVIEW).getTtlSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedBeyondMaxSize() {
+        DashboardCache cache = new DashboardCache(2, new MockEnvironment());
+
+        cache.get(key(Section.SUMMARY), () -> "summary");
+        cache.get(key(Section.LEAVE_OVERVIEW), () -> "leave");
+        cache.get(key(Section.SUMMARY), () -> "unused");
+        cache.get(key(Section.OVERTIME_TREND), () -> "overtime");
+
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+        assertThat(cache.get(key(Section.SUMMARY), () -> "reloaded")).isEqualTo("summary");
+        assertThat(cache.get(key(Section.LEAVE_OVERVIEW), () -> "reloaded")).isEqualTo("reloaded");
+    }
+
+    @Test
+    void invalidationDropsOnlySectionsBuiltFromTheSource() {
+        DashboardCache cache = new DashboardCache(500, new MockEnvironment());
+        for (Section section : Section.values()) {
+            cache.get(key(section), () -> "cached");
+        }
+
+        cache.invalidate(Source.LEAVE);
+
+        assertThat(cache.getStats().getInvalidations()).isEqualTo(3);
+        assertThat(cache.get(key(Section.SUMMARY), () -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.get(key(Section.LEAVE_OVERVIEW), () -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.get(key(Section.EMPLOYEE_ALERTS), () -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.get(key(Section.TIMEKEEPING_OVERVIEW), () -> "fresh")).isEqualTo("cached");
+        assertThat(cache.get(key(Section.SCHEDULE_COVERAGE), () -> "fresh")).isEqualTo("cached");
+
+        cache.invalidateAll();
+        assertThat(cache.getStats().getEntries()).isZero();
+    }
+
+    @Test
+    void invalidationInsideATransactionIsRepeatedAfterCommit() {
+        DashboardCache cache = new DashboardCache(500, new MockEnvironment());
+        Key key = key(Section.TIMEKEEPING_OVERVIEW);
+        cache.get(key, () -> "before write");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(Source.TIMEKEEPING);
+            // A dashboard read racing the write caches pre-commit numbers
+            cache.get(key, () -> "pre-commit");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.get(key, () -> "after commit")).isEqualTo("after commit");
+    }
+
+    private static Key key(Section section) {
+        return new Key(section, START, END, null, 10);
+    }
+
+    private static DashboardCacheStatsResponse.SectionStats stats(DashboardCache cache, Section section) {
+        String name = section.name().toLowerCase().replace('_', '-');
+        return cache.getStats().getSections().stream()
+                .filter(stats -> stats.getSection().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // Waiters count as coalesced just before they block on the load in progress
+    private static void waitUntilCoalesced(DashboardCache cache, long waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getStats().getSections().stream().mapToLong(DashboardCacheStatsResponse.SectionStats::getCoalesced).sum() < waiters) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Test latch was not released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.hrms.service;
+
+import com.example.hrms.dto.response.EmployeeImportResponse;
+import com.example.hrms.entity.Department;
+import com.example.hrms.entity.Role;
+import com.example.hrms.repository.DepartmentRepository;
+import com.example.hrms.repository.EmployeeRepository;
+import com.example.hrms.repository.RoleRepository;
+import com.example.hrms.repository.UserRepository;
+import com.example.hrms.security.PasswordHashingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Row validation of the employee import, exercised as dry runs so nothing is hashed or written
+ */
+@ExtendWith(MockitoExtension.class)
+class EmployeeImportServiceTest {
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private DepartmentRepository departmentRepository;
+    @Mock
+    private RoleRepository roleRepository;
+    @Mock
+    private PasswordHashingService passwordHashingService;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private EmployeeSearchIndex employeeSearchIndex;
+    @Mock
+    private DashboardCache dashboardCache;
+    @Mock
+    private UsernameAllocator usernameAllocator;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmployeeImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new EmployeeImportService(employeeRepository, userRepository, departmentRepository,
+                roleRepository, passwordHashingService, emailService, employeeSearchIndex, dashboardCache,
+                usernameAllocator, jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(importService, "chunkSize", 500);
+        ReflectionTestUtils.setField(importService, "maxRows", 5000);
+
+        lenient().when(departmentRepository.findAll()).thenReturn(List.of(
+                Department.builder().departmentId(1).departmentName("Kế toán").build()));
+        lenient().when(roleRepository.findAll()).thenReturn(List.of(
+                Role.builder().roleId(3).roleKey("EMPLOYEE").build(),
+                Role.builder().roleId(2).roleKey("MANAGER").build()));
+        lenient().when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        lenient().when(employeeRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        lenient().when(employeeRepository.findExistingPhones(anyCollection())).thenReturn(List.of());
+        lenient().when(usernameAllocator.preview(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            String base = invocation.getArgument(0);
+            int previewed = invocation.getArgument(1);
+            int count = invocation.getArgument(2);
+            return IntStream.rangeClosed(previewed + 1, previewed + count)
+                    .mapToObj(suffix -> base + suffix)
+                    .toList();
+        });
+    }
+
+    @Test
+    void validRowsPassWithDistinctPreviewedUsernames() {
+        EmployeeImportResponse response = importCsv(
+                "Full Name,Email,Phone,Department,Role,Hire Date,status\n" +
+                "Nguyễn Văn An,an@hrms.test,0901,Kế toán,manager,2024-01-15,Active\n" +
+                "Nguyễn Văn An,an2@hrms.test,0902,,,15/1/2024,\n" +
+                "Trần Thị Bình,binh@hrms.test,,,,45306,inactive\n");
+
+        assertThat(response.getCreated()).isEqualTo(3);
+        assertThat(response.getFailed()).isZero();
+        assertThat(response.getResults()).extracting(EmployeeImportResponse.RowResult::getUsername)
+                .containsExactly("an.nv1", "an.nv2", "binh.tt1");
+        assertThat(response.getResults()).extracting(EmployeeImportResponse.RowResult::getMessage)
+                .containsOnly("Valid");
+        verify(usernameAllocator, never()).allocate(anyString(), anyInt());
+        verify(passwordHashingService, never()).encodeAll(any());
+    }
+
+    @Test
+    void invalidRowsAreReportedWithTheirSpreadsheetRowNumbers() {
+        EmployeeImportResponse response = importCsv(
+                "fullName,email,phone,departmentId,role,dateOfBirth,status,idCard\n" +
+                ",missing-name@hrms.test,,,,,,\n" +
+                "Lê Văn Cường,not-an-email,,,,,,\n" +
+                "Lê Văn Dũng,dung@hrms.test,,99,,,,\n" +
+                "Lê Văn Em,em@hrms.test,,,INTERN,,,\n" +
+                "Lê Văn Phúc,phuc@hrms.test,,,,31/02/2000,,\n" +
+                "Lê Văn Giang,giang@hrms.test,,,,,Retired,\n" +
+                "Lê Văn Hải,hai@hrms.test,,,,,,123456789012345678901\n" +
+                "Lê Văn Khoa,khoa@hrms.test,0909,abc,,,,\n" +
+                "Lê Văn Long,long@hrms.test,0911,,,,,\n" +
+                "Lê Văn Minh,LONG@hrms.test,,,,,,\n" +
+                "Lê Văn Nam,nam@hrms.test,0911,,,,,\n");
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getResults())
+                .extracting(EmployeeImportResponse.RowResult::getRowNumber, EmployeeImportResponse.RowResult::getMessage)
+                .containsExactly(
+                        tuple(2, "Full name is required"),
+                        tuple(3, "Email must be a valid email: not-an-email"),
+                        tuple(4, "Department not found with id: 99"),
+                        tuple(5, "Role not found: INTERN"),
+                        tuple(6, "Invalid date in dateofbirth: 31/02/2000"),
+                        tuple(7, "Unknown status: Retired"),
+                        tuple(8, "idcard is longer than 20 characters"),
+                        tuple(9, "Invalid number in departmentId: abc"),
+                        tuple(10, "Valid"),
+                        tuple(11, "Duplicate email in file: LONG@hrms.test"),
+                        tuple(12, "Duplicate phone in file: 0911"));
+    }
+
+    @Test
+    void rowsConflictingWithExistingDataFail() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("AN@hrms.test"));
+        when(employeeRepository.findExistingPhones(anyCollection())).thenReturn(List.of("0902"));
+
+        EmployeeImportResponse response = importCsv(
+                "fullName,email,phone\n" +
+                "Nguyễn Văn An,an@hrms.test,0901\n" +
+                "Trần Thị Bình,binh@hrms.test,0902\n" +
+                "Phạm Văn Cường,cuong@hrms.test,0903\n");
+
+        assertThat(response.getResults()).extracting(EmployeeImportResponse.RowResult::getMessage)
+                .containsExactly("Email already exists: an@hrms.test", "Phone number already exists: 0902", "Valid");
+    }
+
+    @Test
+    void blankRowsAreSkippedAndTheRowLimitStopsTheImport() {
+        ReflectionTestUtils.setField(importService, "maxRows", 2);
+
+        EmployeeImportResponse response = importCsv(
+                "fullName,email\n" +
+                "Nguyễn Văn An,an@hrms.test\n" +
+                ",\n" +
+                "Trần Thị Bình,binh@hrms.test\n" +
+                "Phạm Văn Cường,cuong@hrms.test\n" +
+                "Lê Văn Dũng,dung@hrms.test\n");
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(EmployeeImportResponse.RowResult::getRowNumber)
+                .containsExactly(2, 4, 5);
+        assertThat(response.getResults().get(2).getMessage()).startsWith("Row limit of 2 reached");
+    }
+
+    @Test
+    void fileWithoutRequiredColumnsIsRejected() {
+        assertThatThrownBy(() -> importCsv("name,mail\nAn,an@hrms.test\n"))
+                .hasMessage("Import file must have fullName and email columns");
+        assertThatThrownBy(() -> importCsv(""))
+                .hasMessage("Import file is empty");
+    }
+
+    private EmployeeImportResponse importCsv(String content) {
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv",
+                content.getBytes(StandardCharsets.UTF_8));
+        return importService.importEmployees(file, true);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.hrms.service;
+
+import com.example.hrms.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeSearchIndexTest {
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EmployeeSearchIndex(employeeRepository);
+    }
+
+    @Test
+    void searchMatchesAnyFieldIgnoringCaseAndAccents() {
+        build();
+
+        assertThat(ids(index.search("NGUYỄN", null))).containsExactlyInAnyOrder(1, 3);
+        assertThat(ids(index.search("binh.tt@", null))).containsExactly(2);
+        assertThat(ids(index.search("0912", null))).containsExactly(2);
+        assertThat(ids(index.search("nam-account", null))).containsExactly(4);
+        // Shorter than a trigram: answered by scanning the documents
+        assertThat(ids(index.search("lê", null))).containsExactly(4);
+        assertThat(index.search("nguyen thi", null)).isEmpty();
+    }
+
+    @Test
+    void searchIsRestrictedToTheGivenDepartments() {
+        build();
+
+        assertThat(ids(index.search("van", List.of(2)))).containsExactly(4);
+        assertThat(index.search("nguyen", List.of())).isEmpty();
+    }
+
+    @Test
+    void rankOrdersExactAndPrefixNamesBeforeTokenAndInitialMatches() {
+        build();
+
+        assertThat(index.rank("nguyen van an", null, 10))
+                .extracting(match -> match.employee().employeeId(), EmployeeSearchIndex.ScoredEmployee::score)
+                .containsExactly(tuple(1, 100), tuple(3, 90));
+        // Token prefixes ("nguy v" -> "Nguyễn Văn") score below whole-name matches
+        assertThat(index.rank("nguy v", null, 10))
+                .extracting(EmployeeSearchIndex.ScoredEmployee::score)
+                .containsExactly(69, 69);
+        assertThat(index.rank("binh", null, 10))
+                .extracting(match -> match.employee().employeeId(), EmployeeSearchIndex.ScoredEmployee::score)
+                .containsExactly(tuple(2, 74));
+        assertThat(index.rank("nva", null, 10))
+                .extracting(match -> match.employee().employeeId(), EmployeeSearchIndex.ScoredEmployee::score)
+                .containsExactly(tuple(1, 55), tuple(3, 55));
+        assertThat(index.rank("0901", null, 10))
+                .extracting(match -> match.employee().employeeId(), EmployeeSearchIndex.ScoredEmployee::score)
+                .containsExactly(tuple(1, 45));
+        assertThat(index.rank("hrms.test", null, 10))
+                .extracting(EmployeeSearchIndex.ScoredEmployee::score)
+                .containsOnly(30);
+    }
+
+    @Test
+    void rankKeepsOnlyTheBestMatchesUpToTheLimit() {
+        build();
+
+        // All three score the same, so the limit keeps the alphabetically first name
+        assertThat(index.rank("van", null, 1))
+                .extracting(match -> match.employee().fullName())
+                .containsExactly("Lê Văn Nam");
+        assertThat(index.rank("van", List.of(1), 5)).hasSize(2);
+        assertThat(index.rank(" ", null, 5)).isEmpty();
+        assertThat(index.rank("van", null, 0)).isEmpty();
+    }
+
+    @Test
+    void refreshReplacesAndDropsEmployees() {
+        build();
+        when(employeeRepository.findSearchDocumentsByIds(Set.of(2, 4))).thenReturn(List.<Object[]>of(
+                row(2, "Trần Thị Bích", "bich.tt@hrms.test", "0912345678", 2, "bich.tt", null)));
+
+        index.refresh(2, null, 4, 2);
+
+        assertThat(index.search("binh", null)).isEmpty();
+        assertThat(ids(index.search("bich", null))).containsExactly(2);
+        assertThat(index.search("nam-account", null)).isEmpty();
+        assertThat(index.rank("lvn", null, 5)).isEmpty();
+        assertThat(ids(index.search("van", null))).containsExactlyInAnyOrder(1, 3);
+    }
+
+    @Test
+    void refreshWithoutIdsDoesNothing() {
+        index.refresh();
+        index.refresh((Integer) null);
+
+        verify(employeeRepository, never()).findSearchDocumentsByIds(any());
+    }
+
+    @Test
+    void refreshInsideATransactionWaitsForCommit() {
+        build();
+        when(employeeRepository.findSearchDocumentsByIds(Set.of(5))).thenReturn(List.<Object[]>of(
+                row(5, "Phạm Minh Tuấn", "tuan.pm@hrms.test", null, 1, null, null)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.refresh(5);
+            verify(employeeRepository, never()).findSearchDocumentsByIds(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(ids(index.search("tuan", null))).containsExactly(5);
+    }
+
+    @Test
+    void employeeChangedWhileARebuildReadsIsReloadedAfterTheSwap() {
+        Object[] renamed = row(2, "Trần Thị Bích", "bich.tt@hrms.test", "0912345678", 2, "bich.tt", null);
+        when(employeeRepository.findSearchDocumentsByIds(Set.of(2))).thenReturn(List.<Object[]>of(renamed));
+        when(employeeRepository.findSearchDocuments()).thenAnswer(invocation -> {
+            // The rebuild has read the old row when the update commits and refreshes the employee
+            List<Object[]> stale = employees();
+            index.refresh(2);
+            return stale;
+        });
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("binh", null)).isEmpty();
+        assertThat(ids(index.search("bich", null))).containsExactly(2);
+        verify(employeeRepository, times(2)).findSearchDocumentsByIds(Set.of(2));
+    }
+
+    @Test
+    void failedRebuildKeepsTheIndexNotReady() {
+        when(employeeRepository.findSearchDocuments())
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(employees());
+
+        assertThatThrownBy(index::rebuild).hasMessage("database unavailable");
+        assertThat(index.isReady()).isFalse();
+
+        index.rebuild();
+        assertThat(index.isReady()).isTrue();
+        assertThat(ids(index.search("nguyen", null))).containsExactlyInAnyOrder(1, 3);
+    }
+
+    private void build() {
+        when(employeeRepository.findSearchDocuments()).thenReturn(employees());
+        index.rebuild();
+    }
+
+    private static List<Object[]> employees() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(1, "Nguyễn Văn An", "an.nv@hrms.test", "0901234567", 1, "an.nv", "an.nv@hrms.test"));
+        rows.add(row(2, "Trần Thị Bình", "binh.tt@hrms.test", "0912345678", 2, "binh.tt", null));
+        rows.add(row(3, "Nguyễn  Văn Anh", "anh.nv@hrms.test", null, 1, null, null));
+        rows.add(row(4, "Lê Văn Nam", "nam.lv@hrms.test", "0987654321", 2, "nam-account", "nam@hrms.test"));
+        return rows;
+    }
+
+    // Row layout: [employeeId, fullName, email, phone, departmentId, username, userEmail]
+    private static Object[] row(Integer employeeId, String fullName, String email, String phone,
+                                Integer departmentId, String username, String userEmail) {
+        return new Object[]{employeeId, fullName, email, phone, departmentId, username, userEmail};
+    }
+
+    private static List<Integer> ids(List<EmployeeSearchIndex.IndexedEmployee> employees) {
+        return employees.stream().map(EmployeeSearchIndex.IndexedEmployee::employeeId).toList();
+    }
+}
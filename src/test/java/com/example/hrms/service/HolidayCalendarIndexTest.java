@@ -0,0 +1,131 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.HolidayCalendar;
+import com.example.hrms.repository.HolidayCalendarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayCalendarIndexTest {
+    // 2026-01-01 is a Thursday, 2026-05-02 a Saturday
+    private static final List<LocalDate> HOLIDAYS = List.of(
+            LocalDate.of(2025, 12, 31),
+            LocalDate.of(2026, 1, 1),
+            LocalDate.of(2026, 4, 30),
+            LocalDate.of(2026, 5, 1),
+            LocalDate.of(2026, 5, 2),
+            LocalDate.of(2028, 9, 1),
+            LocalDate.of(2040, 1, 2));
+
+    @Mock
+    private HolidayCalendarRepository holidayCalendarRepository;
+
+    @InjectMocks
+    private HolidayCalendarIndex index;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(holidayCalendarRepository.findAll()).thenReturn(HOLIDAYS.stream()
+                .map(date -> HolidayCalendar.builder().holidayDate(date).holidayName("Holiday " + date).build())
+                .toList());
+    }
+
+    @Test
+    void singleDayChecks() {
+        assertThat(index.isWorkingDay(LocalDate.of(2026, 1, 2))).isTrue();
+        assertThat(index.isWorkingDay(LocalDate.of(2026, 1, 1))).isFalse();
+        assertThat(index.isWorkingDay(LocalDate.of(2026, 1, 3))).isFalse();
+        assertThat(index.getHolidayName(LocalDate.of(2026, 5, 1))).isEqualTo("Holiday 2026-05-01");
+        assertThat(index.isHolidayOrWeekend(LocalDate.of(2026, 5, 2))).isTrue();
+    }
+
+    @Test
+    void countsWithinOneYear() {
+        // January 2026: 22 weekdays, minus New Year's Day
+        assertThat(index.countWorkingDaysInMonth(2026, 1)).isEqualTo(21);
+        assertThat(index.countWorkingDays(LocalDate.of(2026, 4, 27), LocalDate.of(2026, 5, 3))).isEqualTo(3);
+        assertThat(index.countWorkingDays(LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 2))).isEqualTo(1);
+    }
+
+    @Test
+    void emptyOrReversedRangeIsZero() {
+        assertThat(index.countWorkingDays(LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 4))).isZero();
+        assertThat(index.countWorkingDays(null, LocalDate.of(2026, 1, 4))).isZero();
+    }
+
+    @Test
+    void matchesDayByDayCountAcrossYears() {
+        Random random = new Random(42);
+        LocalDate origin = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < 500; i++) {
+            LocalDate start = origin.plusDays(random.nextInt(365 * 25));
+            LocalDate end = start.plusDays(random.nextInt(365 * 6));
+            assertThat(index.countWorkingDays(start, end)).as("%s..%s", start, end).isEqualTo(bruteForce(start, end));
+        }
+    }
+
+    @Test
+    void hugeSpanIsAnsweredWithoutWalkingEveryYear() {
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        LocalDate end = LocalDate.of(999_999, 12, 31);
+
+        int count = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> index.countWorkingDays(start, end));
+
+        assertThat(count).isEqualTo(bruteForceByWeeks(start, end));
+        assertThat(index.countWorkingDays(start, LocalDate.MAX)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void invalidateReloadsTheCalendar() {
+        LocalDate date = LocalDate.of(2026, 6, 1);
+        assertThat(index.isWorkingDay(date)).isTrue();
+
+        when(holidayCalendarRepository.findAll()).thenReturn(List.of(
+                HolidayCalendar.builder().holidayDate(date).holidayName("Added").build()));
+        index.invalidate();
+
+        assertThat(index.isWorkingDay(date)).isFalse();
+        assertThat(index.isHoliday(LocalDate.of(2026, 1, 1))).isFalse();
+    }
+
+    private static int bruteForce(LocalDate start, LocalDate end) {
+        int count = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !HOLIDAYS.contains(date)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Weekdays come in blocks of five per full week; the holidays in range are subtracted separately
+    private static int bruteForceByWeeks(LocalDate start, LocalDate end) {
+        LocalDate monday = start.with(DayOfWeek.MONDAY);
+        int count = bruteForce(start, monday.plusWeeks(1).minusDays(1));
+        LocalDate lastMonday = end.with(DayOfWeek.MONDAY);
+        long fullWeeks = ChronoUnit.WEEKS.between(monday.plusWeeks(1), lastMonday);
+        long weekdayHolidays = HOLIDAYS.stream()
+                .filter(date -> date.isAfter(monday.plusWeeks(1).minusDays(1)) && date.isBefore(lastMonday))
+                .filter(date -> date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY)
+                .count();
+        count += (int) (fullWeeks * 5 - weekdayHolidays);
+        return count + bruteForce(lastMonday, end);
+    }
+}
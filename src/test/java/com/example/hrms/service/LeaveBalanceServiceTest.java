@@ -0,0 +1,166 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.Employee;
+import com.example.hrms.entity.OnLeave;
+import com.example.hrms.repository.LeaveBalanceRepository;
+import com.example.hrms.repository.OnLeaveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaveBalanceServiceTest {
+    private static final LocalDate YEAR_START = LocalDate.of(2026, 1, 1);
+
+    @Mock
+    private LeaveBalanceRepository leaveBalanceRepository;
+    @Mock
+    private OnLeaveRepository onLeaveRepository;
+    @Mock
+    private HolidayCalendarIndex holidayCalendarIndex;
+
+    @InjectMocks
+    private LeaveBalanceService service;
+
+    private final Employee employee = Employee.builder().employeeId(5).hireDate(LocalDate.of(2020, 3, 1)).build();
+
+    @BeforeEach
+    void everyDayIsAWorkingDay() {
+        lenient().when(holidayCalendarIndex.countWorkingDays(any(), any())).thenAnswer(invocation -> {
+            LocalDate start = invocation.getArgument(0);
+            LocalDate end = invocation.getArgument(1);
+            return end.isBefore(start) ? 0 : (int) ChronoUnit.DAYS.between(start, end) + 1;
+        });
+    }
+
+    @Test
+    void newRequestAddsPendingDays() {
+        when(leaveBalanceRepository.addDelta(5, 2026, 0, 3)).thenReturn(1);
+
+        service.addPending(employee, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 3));
+
+        verify(leaveBalanceRepository).addDelta(5, 2026, 0, 3);
+        verifyNoMoreInteractions(leaveBalanceRepository);
+    }
+
+    @Test
+    void approvalMovesPendingDaysToUsed() {
+        when(leaveBalanceRepository.addDelta(5, 2026, 2, -2)).thenReturn(1);
+
+        service.approvePending(employee, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 2));
+
+        verify(leaveBalanceRepository).addDelta(5, 2026, 2, -2);
+    }
+
+    @Test
+    void rejectionOrCancellationReleasesPendingDays() {
+        when(leaveBalanceRepository.addDelta(5, 2026, 0, -2)).thenReturn(1);
+
+        service.removePending(employee, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 2));
+
+        verify(leaveBalanceRepository).addDelta(5, 2026, 0, -2);
+    }
+
+    @Test
+    void requestAcrossNewYearIsSplitPerYear() {
+        when(leaveBalanceRepository.addDelta(anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(1);
+
+        service.addPending(employee, LocalDate.of(2025, 12, 30), LocalDate.of(2026, 1, 2));
+
+        verify(leaveBalanceRepository).addDelta(5, 2025, 0, 2);
+        verify(leaveBalanceRepository).addDelta(5, 2026, 0, 2);
+    }
+
+    @Test
+    void missingRowIsSeededFromHistoryWithoutAddingTheDeltaTwice() {
+        when(leaveBalanceRepository.addDelta(5, 2026, 2, -2)).thenReturn(0);
+        // History already reflects the approval being recorded
+        when(onLeaveRepository.findAnnualLeavePeriods(5, YEAR_START, LocalDate.of(2026, 12, 31), OnLeave.Status.Rejected))
+                .thenReturn(List.of(
+                        new Object[]{LocalDate.of(2026, 2, 2), LocalDate.of(2026, 2, 4), OnLeave.Status.Approved},
+                        new Object[]{LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 2), OnLeave.Status.Approved},
+                        new Object[]{LocalDate.of(2026, 5, 4), LocalDate.of(2026, 5, 4), OnLeave.Status.Pending}));
+        when(leaveBalanceRepository.insertIfAbsent(5, 2026, 12, 5, 1)).thenReturn(1);
+
+        service.approvePending(employee, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 2));
+
+        verify(leaveBalanceRepository).insertIfAbsent(5, 2026, 12, 5, 1);
+        verify(leaveBalanceRepository, times(1)).addDelta(5, 2026, 2, -2);
+    }
+
+    @Test
+    void rowCreatedConcurrentlyGetsTheDeltaAfterAll() {
+        when(leaveBalanceRepository.addDelta(5, 2026, 0, 1)).thenReturn(0, 1);
+        when(onLeaveRepository.findAnnualLeavePeriods(any(), any(), any(), any())).thenReturn(List.of());
+        when(leaveBalanceRepository.insertIfAbsent(5, 2026, 12, 0, 0)).thenReturn(0);
+
+        service.addPending(employee, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 1));
+
+        verify(leaveBalanceRepository, times(2)).addDelta(5, 2026, 0, 1);
+    }
+
+    @Test
+    void hireYearEntitlementIsProRatedAndDaysBeforeHireAreIgnored() {
+        Employee newHire = Employee.builder().employeeId(6).hireDate(LocalDate.of(2026, 7, 15)).build();
+        when(leaveBalanceRepository.addDelta(6, 2026, 0, 3)).thenReturn(0);
+        when(onLeaveRepository.findAnnualLeavePeriods(any(), any(), any(), any())).thenReturn(List.of());
+        when(leaveBalanceRepository.insertIfAbsent(6, 2026, 6, 0, 0)).thenReturn(1);
+
+        service.addPending(newHire, LocalDate.of(2026, 7, 13), LocalDate.of(2026, 7, 17));
+
+        // July to December: 6 of 12 months
+        verify(leaveBalanceRepository).insertIfAbsent(6, 2026, 6, 0, 0);
+        assertThat(service.countDaysByYear(newHire, LocalDate.of(2026, 7, 1), LocalDate.of(2026, 7, 14)))
+                .isEmpty();
+    }
+
+    @Test
+    void batchApprovalSendsOneDeltaPerEmployeeAndYear() {
+        Employee other = Employee.builder().employeeId(9).build();
+        when(leaveBalanceRepository.addDelta(anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(1);
+
+        service.approvePending(List.of(
+                leave(employee, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 2)),
+                leave(employee, LocalDate.of(2026, 6, 1), LocalDate.of(2026, 6, 3)),
+                leave(other, LocalDate.of(2026, 6, 1), LocalDate.of(2026, 6, 1))));
+
+        verify(leaveBalanceRepository).addDelta(5, 2026, 5, -5);
+        verify(leaveBalanceRepository).addDelta(9, 2026, 1, -1);
+        verify(leaveBalanceRepository, never()).insertIfAbsent(any(), any(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void daysAreCountedPerYear() {
+        Map<Integer, Integer> days = service.countDaysByYear(employee,
+                LocalDate.of(2025, 12, 31), LocalDate.of(2026, 1, 3));
+
+        assertThat(days).containsExactly(Map.entry(2025, 1), Map.entry(2026, 3));
+    }
+
+    private static OnLeave leave(Employee employee, LocalDate fromDate, LocalDate toDate) {
+        return OnLeave.builder()
+                .employee(employee)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .status(OnLeave.Status.Pending)
+                .build();
+    }
+}
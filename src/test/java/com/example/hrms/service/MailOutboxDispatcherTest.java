@@ -0,0 +1,344 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.MailOutbox;
+import com.example.hrms.repository.MailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MailOutboxDispatcherTest {
+    @Mock
+    private MailOutboxRepository mailOutboxRepository;
+    @Mock
+    private JavaMailSender mailSender;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MailOutboxDispatcher dispatcher;
+    private String claimToken;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new MailOutboxDispatcher(mailOutboxRepository, mailSender, transactionManager);
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@hrms.test");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffSeconds", 30L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffSeconds", 3600L);
+        ReflectionTestUtils.setField(dispatcher, "claimLeaseSeconds", 300L);
+        ReflectionTestUtils.setField(dispatcher, "retentionDays", 30);
+        ReflectionTestUtils.setField(dispatcher, "smtpConnectionTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(dispatcher, "smtpReadTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(dispatcher, "smtpWriteTimeoutMs", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void claimedBatchIsSentOverOneConnectionAndMarkedSent() {
+        MailOutbox first = row(1L, 0);
+        MailOutbox second = row(2L, 0);
+        claim(first, second);
+        when(mailOutboxRepository.markSent(eq(List.of(1L, 2L)), anyString(), eq(MailOutbox.Status.Sent), any()))
+                .thenReturn(2);
+
+        dispatcher.drain();
+
+        ArgumentCaptor<SimpleMailMessage[]> sent = ArgumentCaptor.forClass(SimpleMailMessage[].class);
+        verify(mailSender).send(sent.capture());
+        assertThat(sent.getValue()).extracting(SimpleMailMessage::getText).containsExactlyInAnyOrder("body 1", "body 2");
+        verify(mailOutboxRepository).claim(eq(List.of(1L, 2L)), eq(MailOutbox.Status.Pending),
+                eq(MailOutbox.Status.Sending), eq(claimToken), any());
+        assertThat(dispatcher.getStats().getSentSinceStart()).isEqualTo(2);
+        assertThat(dispatcher.getStats().getLostClaimsSinceStart()).isZero();
+    }
+
+    @Test
+    void rejectedMessageIsRetriedWithBackoffWhileTheRestAreMarkedSent() {
+        MailOutbox accepted = row(1L, 0);
+        MailOutbox refused = row(2L, 1);
+        claim(accepted, refused);
+        doAnswer(invocation -> {
+            SimpleMailMessage[] messages = (SimpleMailMessage[]) invocation.getRawArguments()[0];
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (SimpleMailMessage message : messages) {
+                if ("body 2".equals(message.getText())) {
+                    failed.put(message, new IllegalStateException("550 mailbox unavailable"));
+                }
+            }
+            throw new MailSendException(failed);
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+        when(mailOutboxRepository.markSent(eq(List.of(1L)), anyString(), eq(MailOutbox.Status.Sent), any())).thenReturn(1);
+        when(mailOutboxRepository.markFailed(eq(2L), anyString(), eq(MailOutbox.Status.Pending), eq(2), any(),
+                eq("550 mailbox unavailable"))).thenReturn(1);
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.drain();
+
+        // Second attempt: 30s doubled once
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(mailOutboxRepository).markFailed(eq(2L), eq(claimToken), eq(MailOutbox.Status.Pending), eq(2),
+                nextAttempt.capture(), anyString());
+        assertThat(nextAttempt.getValue()).isCloseTo(before.plusSeconds(60), within(5, ChronoUnit.SECONDS));
+        verify(mailOutboxRepository, never()).markDead(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void lastAttemptDeadLettersTheRow() {
+        MailOutbox row = row(1L, 2);
+        claim(row);
+        doThrow(new MailAuthenticationException("535 authentication failed"))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+        when(mailOutboxRepository.markDead(eq(1L), anyString(), eq(MailOutbox.Status.Dead), eq(3),
+                eq("535 authentication failed")))
+                .thenReturn(1);
+
+        dispatcher.drain();
+
+        verify(mailOutboxRepository).markDead(1L, claimToken, MailOutbox.Status.Dead, 3, "535 authentication failed");
+        verify(mailOutboxRepository, never()).markSent(anyList(), any(), any(), any());
+        assertThat(dispatcher.getStats().getDeadLetteredSinceStart()).isEqualTo(1);
+    }
+
+    @Test
+    void rowsWhoseClaimExpiredMidBatchAreCountedAsLost() {
+        MailOutbox first = row(1L, 0);
+        MailOutbox second = row(2L, 0);
+        claim(first, second);
+        // Row 2 was released and re-claimed by another drain while this batch was sending
+        when(mailOutboxRepository.markSent(eq(List.of(1L, 2L)), anyString(), eq(MailOutbox.Status.Sent), any()))
+                .thenReturn(1);
+
+        dispatcher.drain();
+
+        assertThat(dispatcher.getStats().getLostClaimsSinceStart()).isEqualTo(1);
+    }
+
+    @Test
+    void eachBatchGoesOutOverItsOwnSmtpConnection() throws Exception {
+        try (FakeSmtpServer smtp = new FakeSmtpServer()) {
+            JavaMailSenderImpl realSender = new JavaMailSenderImpl();
+            realSender.setHost("127.0.0.1");
+            realSender.setPort(smtp.getPort());
+            Properties properties = new Properties();
+            properties.setProperty("mail.smtp.connectiontimeout", "5000");
+            properties.setProperty("mail.smtp.timeout", "5000");
+            realSender.setJavaMailProperties(properties);
+            MailOutboxDispatcher smtpDispatcher = new MailOutboxDispatcher(mailOutboxRepository, realSender, transactionManager);
+            ReflectionTestUtils.setField(smtpDispatcher, "fromEmail", "noreply@hrms.test");
+            ReflectionTestUtils.setField(smtpDispatcher, "batchSize", 2);
+
+            // Three due rows with a batch size of two: batches [1, 2] and [3]
+            when(mailOutboxRepository.findDueIds(eq(MailOutbox.Status.Pending), any(), any()))
+                    .thenReturn(List.of(1L, 2L))
+                    .thenReturn(List.of(3L))
+                    .thenReturn(List.of());
+            when(mailOutboxRepository.claim(anyList(), eq(MailOutbox.Status.Pending), eq(MailOutbox.Status.Sending),
+                    anyString(), any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+            when(mailOutboxRepository.findByClaimTokenAndStatusOrderById(anyString(), eq(MailOutbox.Status.Sending)))
+                    .thenReturn(List.of(row(1L, 0), row(2L, 0)))
+                    .thenReturn(List.of(row(3L, 0)));
+            when(mailOutboxRepository.markSent(anyList(), any(), eq(MailOutbox.Status.Sent), any()))
+                    .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+            try {
+                smtpDispatcher.drain();
+            } finally {
+                smtpDispatcher.shutdown();
+            }
+
+            assertThat(smtp.getConnections()).isEqualTo(2);
+            assertThat(smtp.getMessages()).hasSize(3);
+            assertThat(smtp.getMessages()).anySatisfy(data -> assertThat(data).contains("body 1"))
+                    .anySatisfy(data -> assertThat(data).contains("body 2"))
+                    .anySatisfy(data -> assertThat(data).contains("body 3"));
+            verify(mailOutboxRepository).markSent(eq(List.of(1L, 2L)), any(), eq(MailOutbox.Status.Sent), any());
+            verify(mailOutboxRepository).markSent(eq(List.of(3L)), any(), eq(MailOutbox.Status.Sent), any());
+            assertThat(smtpDispatcher.getStats().getSentSinceStart()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void leaseCoversTheSlowestPossibleBatch() {
+        // Connection + read, then 50 messages of four replies and one write at 5s each
+        assertThat(dispatcher.leaseSeconds()).isEqualTo(1261);
+
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 1);
+        assertThat(dispatcher.leaseSeconds()).isEqualTo(300);
+    }
+
+    @Test
+    void expiredClaimsAreReleasedOnlyAfterTheLease() {
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.releaseExpiredClaims();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(mailOutboxRepository).releaseExpiredClaims(eq(MailOutbox.Status.Sending), eq(MailOutbox.Status.Pending),
+                cutoff.capture());
+        assertThat(cutoff.getValue()).isCloseTo(before.minusSeconds(1261), within(5, ChronoUnit.SECONDS));
+    }
+
+    @Test
+    void purgeRemovesSentAndDeadRows() {
+        when(mailOutboxRepository.deleteFinishedBefore(eq(MailOutbox.Status.Sent), eq(MailOutbox.Status.Dead), any()))
+                .thenReturn(4);
+
+        assertThat(dispatcher.purgeFinished()).isEqualTo(4);
+    }
+
+    // Stubs one claimed batch followed by an empty queue; the random claim token is kept in claimToken
+    private void claim(MailOutbox... rows) {
+        List<Long> ids = Arrays.stream(rows).map(MailOutbox::getId).toList();
+        when(mailOutboxRepository.findDueIds(eq(MailOutbox.Status.Pending), any(), any()))
+                .thenReturn(ids)
+                .thenReturn(List.of());
+        when(mailOutboxRepository.claim(eq(ids), eq(MailOutbox.Status.Pending), eq(MailOutbox.Status.Sending),
+                anyString(), any())).thenAnswer(invocation -> {
+                    claimToken = invocation.getArgument(3);
+                    return rows.length;
+                });
+        when(mailOutboxRepository.findByClaimTokenAndStatusOrderById(anyString(), eq(MailOutbox.Status.Sending)))
+                .thenAnswer(invocation -> {
+                    for (MailOutbox row : rows) {
+                        row.setClaimToken(invocation.getArgument(0));
+                    }
+                    return List.of(rows);
+                });
+    }
+
+    private static MailOutbox row(Long id, int attempts) {
+        return MailOutbox.builder()
+                .id(id)
+                .recipient("user" + id + "@hrms.test")
+                .subject("subject " + id)
+                .body("body " + id)
+                .status(MailOutbox.Status.Sending)
+                .attempts(attempts)
+                .build();
+    }
+
+    /**
+     * Just enough of an SMTP server for JavaMailSenderImpl: accepts every command, records each DATA payload
+     * and counts connections. Connections are served one at a time on the accept thread.
+     */
+    private static class FakeSmtpServer implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        FakeSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptThread = new Thread(this::serve, "fake-smtp");
+            acceptThread.setDaemon(true);
+            acceptThread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        int getConnections() {
+            return connections.get();
+        }
+
+        List<String> getMessages() {
+            return messages;
+        }
+
+        private void serve() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    converse(socket);
+                } catch (IOException e) {
+                    // Closed by close(), or the client hung up
+                }
+            }
+        }
+
+        private void converse(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.ISO_8859_1);
+            reply(out, "220 localhost fake SMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            data.append(line).append('\n');
+                        }
+                        messages.add(data.toString());
+                        reply(out, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "250 OK");
+                }
+            }
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.hrms.service;
+
+import com.example.hrms.entity.UsernameSequence;
+import com.example.hrms.repository.UserRepository;
+import com.example.hrms.repository.UsernameSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UsernameAllocatorTest {
+    @Mock
+    private UsernameSequenceRepository usernameSequenceRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UsernameAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new UsernameAllocator(usernameSequenceRepository, userRepository, transactionManager);
+    }
+
+    @Test
+    void firstUseSeedsTheCounterFromExistingUsernames() {
+        when(usernameSequenceRepository.existsById("an.nv")).thenReturn(false);
+        // Only the bare base and plain digit suffixes count; longer digit runs and other names do not
+        when(userRepository.findUsernamesStartingWith("an.nv")).thenReturn(
+                List.of("an.nv", "AN.NV3", "an.nvx", "an.nv1700000000000", "an.nv2b"));
+        when(usernameSequenceRepository.advance("an.nv", 2)).thenReturn(1);
+        when(usernameSequenceRepository.lastInsertId()).thenReturn(5L);
+
+        assertThat(allocator.allocate("An.NV", 2)).containsExactly("an.nv4", "an.nv5");
+
+        InOrder order = inOrder(transactionManager, usernameSequenceRepository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(usernameSequenceRepository).insertIfAbsent("an.nv", 3);
+        order.verify(usernameSequenceRepository).advance("an.nv", 2);
+        order.verify(usernameSequenceRepository).lastInsertId();
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void existingCounterIsAdvancedWithoutQueryingUsers() {
+        when(usernameSequenceRepository.existsById("binh.tt")).thenReturn(true);
+        when(usernameSequenceRepository.advance("binh.tt", 1)).thenReturn(1);
+        when(usernameSequenceRepository.lastInsertId()).thenReturn(7L);
+
+        assertThat(allocator.allocate("binh.tt")).isEqualTo("binh.tt7");
+
+        verify(usernameSequenceRepository, never()).insertIfAbsent(anyString(), anyInt());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void suffixZeroIsTheBareBase() {
+        when(usernameSequenceRepository.existsById("cuong.pv")).thenReturn(false);
+        when(userRepository.findUsernamesStartingWith("cuong.pv")).thenReturn(List.of());
+        when(usernameSequenceRepository.advance("cuong.pv", 2)).thenReturn(1);
+        when(usernameSequenceRepository.lastInsertId()).thenReturn(1L);
+
+        assertThat(allocator.allocate("cuong.pv", 2)).containsExactly("cuong.pv", "cuong.pv1");
+        verify(usernameSequenceRepository).insertIfAbsent("cuong.pv", -1);
+    }
+
+    @Test
+    void likeWildcardsInTheBaseAreEscaped() {
+        when(userRepository.findUsernamesStartingWith("a!_b!%c!!")).thenReturn(List.of("a_b%c!2"));
+        when(usernameSequenceRepository.findById("a_b%c!")).thenReturn(Optional.empty());
+
+        assertThat(allocator.preview("a_b%c!", 0, 1)).containsExactly("a_b%c!3");
+    }
+
+    @Test
+    void failedAdvanceRollsBackAndFails() {
+        when(usernameSequenceRepository.existsById("dung.lv")).thenReturn(true);
+        when(usernameSequenceRepository.advance("dung.lv", 1)).thenReturn(0);
+
+        assertThatThrownBy(() -> allocator.allocate("dung.lv"))
+                .hasMessage("Could not reserve a username for dung.lv");
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void nonPositiveCountReservesNothing() {
+        assertThat(allocator.allocate("em.lv", 0)).isEmpty();
+        verifyNoInteractions(usernameSequenceRepository, transactionManager);
+    }
+
+    @Test
+    void previewContinuesAfterEarlierPreviewsWithoutReserving() {
+        when(usernameSequenceRepository.findById("giang.lv"))
+                .thenReturn(Optional.of(UsernameSequence.builder().prefix("giang.lv").lastSuffix(4).build()));
+
+        assertThat(allocator.preview("Giang.LV", 2, 2)).containsExactly("giang.lv7", "giang.lv8");
+
+        verify(usernameSequenceRepository, never()).advance(anyString(), anyInt());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void recordedUsernameRaisesItsBaseCounter() {
+        allocator.recordUsername(" Cong.HVT7 ");
+
+        verify(usernameSequenceRepository).raiseTo("cong.hvt7", 0);
+        verify(usernameSequenceRepository).raiseTo("cong.hvt", 7);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void recordedUsernameWithoutUsableSuffixOnlyMarksItself() {
+        allocator.recordUsername("hai.lv");
+        allocator.recordUsername("12345");
+        allocator.recordUsername("khoa1700000000000");
+        allocator.recordUsername(" ");
+
+        verify(usernameSequenceRepository).raiseTo("hai.lv", 0);
+        verify(usernameSequenceRepository).raiseTo("12345", 0);
+        verify(usernameSequenceRepository).raiseTo("khoa1700000000000", 0);
+        verifyNoMoreInteractions(usernameSequenceRepository);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.hrms.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NumberUtilTest {
+
+    @Test
+    void anyNumericColumnTypeIsConverted() {
+        assertThat(NumberUtil.toInt(7L)).isEqualTo(7);
+        assertThat(NumberUtil.toInt(BigInteger.valueOf(12))).isEqualTo(12);
+        assertThat(NumberUtil.toLong(new BigDecimal("42"))).isEqualTo(42L);
+        assertThat(NumberUtil.toBigDecimal(2.5d)).isEqualByComparingTo("2.5");
+        assertThat(NumberUtil.toBigDecimal(3L)).isEqualByComparingTo("3");
+    }
+
+    @Test
+    void bigDecimalIsReturnedUnchanged() {
+        BigDecimal hours = new BigDecimal("8.25");
+
+        assertThat(NumberUtil.toBigDecimal(hours)).isSameAs(hours);
+    }
+
+    @Test
+    void nullAndNonNumericValuesReadAsZero() {
+        assertThat(NumberUtil.toInt(null)).isZero();
+        assertThat(NumberUtil.toLong("5")).isZero();
+        assertThat(NumberUtil.toBigDecimal(null)).isSameAs(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.hrms.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TabularFileReaderTest {
+
+    @Test
+    void csvQuotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+        List<List<String>> rows = readCsv("name,note\n\"Nguyễn, Văn An\",\"says \"\"hi\"\"\"\n");
+
+        assertThat(rows).containsExactly(
+                List.of("name", "note"),
+                List.of("Nguyễn, Văn An", "says \"hi\""));
+    }
+
+    @Test
+    void csvQuotedFieldMaySpanLines() throws IOException {
+        try (TabularFileReader reader = csv("name,address\r\nAn,\"12 Lê Lợi\r\nQuận 1\"\r\nBình,HN\r\n")) {
+            assertThat(reader.nextRow()).containsExactly("name", "address");
+            assertThat(reader.nextRow()).containsExactly("An", "12 Lê Lợi\r\nQuận 1");
+            assertThat(reader.getRowNumber()).isEqualTo(2);
+            assertThat(reader.nextRow()).containsExactly("Bình", "HN");
+            assertThat(reader.getRowNumber()).isEqualTo(3);
+            assertThat(reader.nextRow()).isNull();
+        }
+    }
+
+    @Test
+    void csvSkipsUtf8ByteOrderMark() throws IOException {
+        List<List<String>> rows = readCsv("\uFEFFfullName,email\nAn,an@hrms.test");
+
+        assertThat(rows).containsExactly(List.of("fullName", "email"), List.of("An", "an@hrms.test"));
+    }
+
+    @Test
+    void csvTrimsUnquotedFieldsAndKeepsEmptyOnes() throws IOException {
+        List<List<String>> rows = readCsv(" a , ,c\n,,\n");
+
+        assertThat(rows).containsExactly(List.of("a", "", "c"), List.of("", "", ""));
+    }
+
+    @Test
+    void unknownExtensionIsRejected() {
+        assertThatThrownBy(() -> TabularFileReader.open("employees.xls", new ByteArrayInputStream(new byte[0])))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("expected .csv or .xlsx");
+    }
+
+    @Test
+    void xlsxResolvesSharedStringsIncludingRichTextRuns() throws IOException {
+        byte[] file = xlsx(
+                "<si><t>fullName</t></si><si><t>email</t></si><si><r><t>Nguyễn </t></r><r><t>Văn An</t></r></si>",
+                "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c></row>"
+                        + "<row r=\"2\"><c r=\"A2\" t=\"s\"><v>2</v></c>"
+                        + "<c r=\"B2\" t=\"inlineStr\"><is><t> an@hrms.test </t></is></c></row>");
+
+        try (TabularFileReader reader = TabularFileReader.open("employees.xlsx", new ByteArrayInputStream(file))) {
+            assertThat(reader.nextRow()).containsExactly("fullName", "email");
+            assertThat(reader.nextRow()).containsExactly("Nguyễn Văn An", "an@hrms.test");
+            assertThat(reader.nextRow()).isNull();
+        }
+    }
+
+    @Test
+    void xlsxSparseCellReferencesArePaddedAndRowNumbersFollowTheSheet() throws IOException {
+        byte[] file = xlsx(null,
+                "<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>a</t></is></c><c r=\"B1\" t=\"inlineStr\"><is><t>b</t></is></c>"
+                        + "<c r=\"C1\" t=\"inlineStr\"><is><t>c</t></is></c></row>"
+                        + "<row r=\"5\"><c r=\"C5\"><v>42</v></c></row>"
+                        + "<row r=\"6\"><c r=\"A6\" t=\"b\"><v>1</v></c><c r=\"E6\"/></row>");
+
+        try (TabularFileReader reader = TabularFileReader.open("sparse.xlsx", new ByteArrayInputStream(file))) {
+            assertThat(reader.nextRow()).containsExactly("a", "b", "c");
+            assertThat(reader.nextRow()).containsExactly("", "", "42");
+            assertThat(reader.getRowNumber()).isEqualTo(5);
+            // An empty formatted cell past the header is ignored
+            assertThat(reader.nextRow()).containsExactly("TRUE");
+            assertThat(reader.getRowNumber()).isEqualTo(6);
+        }
+    }
+
+    @Test
+    void xlsxValueBeyondTheHeaderIsRejected() throws IOException {
+        byte[] file = xlsx(null,
+                "<row r=\"1\"><c r=\"A1\"><v>1</v></c></row>"
+                        + "<row r=\"2\"><c r=\"XFD2\"><v>2</v></c></row>");
+
+        try (TabularFileReader reader = TabularFileReader.open("wide.xlsx", new ByteArrayInputStream(file))) {
+            reader.nextRow();
+            assertThatThrownBy(reader::nextRow)
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("beyond the 1 header columns");
+        }
+    }
+
+    @Test
+    void xlsxCellReferenceBeyondExcelsLastColumnIsRejected() throws IOException {
+        byte[] file = xlsx(null, "<row r=\"1\"><c r=\"XFE1\"><v>1</v></c></row>");
+
+        try (TabularFileReader reader = TabularFileReader.open("wide.xlsx", new ByteArrayInputStream(file))) {
+            assertThatThrownBy(reader::nextRow)
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("beyond column XFD");
+        }
+    }
+
+    @Test
+    void xlsxCellsOutOfOrderAreRejected() throws IOException {
+        byte[] file = xlsx(null, "<row r=\"1\"><c r=\"B1\"><v>1</v></c><c r=\"A1\"><v>2</v></c></row>");
+
+        try (TabularFileReader reader = TabularFileReader.open("order.xlsx", new ByteArrayInputStream(file))) {
+            assertThatThrownBy(reader::nextRow)
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("out of order");
+        }
+    }
+
+    @Test
+    void xlsxSharedStringsTableIsLimitedInCharacters() throws IOException {
+        byte[] file = xlsx("<si><t>" + "x".repeat(10_000_001) + "</t></si>", "<row r=\"1\"/>");
+
+        assertThatThrownBy(() -> TabularFileReader.open("big.xlsx", new ByteArrayInputStream(file)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("exceed 10000000 characters");
+    }
+
+    @Test
+    void xlsxSharedStringsTableIsLimitedInEntries() throws IOException {
+        byte[] file = xlsx("<si/>".repeat(1_000_001), "<row r=\"1\"/>");
+
+        assertThatThrownBy(() -> TabularFileReader.open("many.xlsx", new ByteArrayInputStream(file)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("more than 1000000 shared strings");
+    }
+
+    @Test
+    void xlsxWithoutWorksheetIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+            zip.write("<Types/>".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        assertThatThrownBy(() -> TabularFileReader.open("empty.xlsx", new ByteArrayInputStream(bytes.toByteArray())))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("no worksheet");
+    }
+
+    private static TabularFileReader csv(String content) throws IOException {
+        return TabularFileReader.open("employees.csv", new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<List<String>> readCsv(String content) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (TabularFileReader reader = csv(content)) {
+            List<String> row;
+            while ((row = reader.nextRow()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    // Minimal workbook: the first worksheet and, when given, the shared strings table
+    private static byte[] xlsx(String sharedStrings, String sheetRows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            if (sharedStrings != null) {
+                zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+                zip.write(("<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                        + sharedStrings + "</sst>").getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            zip.write(("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+                    + sheetRows + "</sheetData></worksheet>").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+}